@@ -0,0 +1,37 @@
+package com.doa.doajewelry.config;
+
+import com.doa.doajewelry.services.SalesRollupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rebuilds the sales rollup at startup when the application is launched with
+ * {@code --rebuild-sales-rollup}, e.g. to backfill it on a database that already holds orders.
+ * The same rebuild is available at runtime through {@code POST /api/employees/sales/rebuild}.
+ */
+@Component
+public class SalesRollupRebuildRunner implements ApplicationRunner {
+
+    static final String OPTION = "rebuild-sales-rollup";
+
+    private static final Logger log = LoggerFactory.getLogger(SalesRollupRebuildRunner.class);
+
+    private final SalesRollupService salesRollup;
+
+    public SalesRollupRebuildRunner(SalesRollupService salesRollup) {
+        this.salesRollup = salesRollup;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(OPTION)) {
+            return;
+        }
+        long start = System.nanoTime();
+        salesRollup.rebuild();
+        log.info("Rebuilt sales rollup in {} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -1,6 +1,8 @@
 package com.doa.doajewelry.controller;
 
+import com.doa.doajewelry.dtos.CursorPageDTO;
 import com.doa.doajewelry.dtos.CustomerDTO;
+import com.doa.doajewelry.dtos.CustomerValidationDTO;
 import com.doa.doajewelry.services.CustomerService;
 import jakarta.validation.Valid;
 import java.util.List;
@@ -30,12 +32,28 @@ public class CustomerController {
     }
 
     /**
-     * Retrieves all customers.
-     * @return a list of CustomerDTOs with HTTP status 200 (OK).
+     * Checks whether the NIFs and emails of a batch of prospective customers are still available.
+     * @param candidates the customers to check; only NIF and email are used.
+     * @return one CustomerValidationDTO per candidate, in order, with HTTP status 200 (OK).
+     */
+    @PostMapping("/validate")
+    public ResponseEntity<List<CustomerValidationDTO>> validate(@RequestBody List<CustomerDTO> candidates) {
+        return new ResponseEntity<>(service.validateCustomers(candidates), HttpStatus.OK);
+    }
+
+    /**
+     * Retrieves one page of customers.
+     * @param cursor the cursor returned with the previous page; omit for the first page.
+     * @param size the page size, capped at the configured maximum.
+     * @param includeTotal whether to count the matching items across all pages.
+     * @return a page of CustomerDTOs with HTTP status 200 (OK).
      */
     @GetMapping
-    public ResponseEntity<List<CustomerDTO>> getAll() {
-        List<CustomerDTO> customers = service.getAllCustomers();
+    public ResponseEntity<CursorPageDTO<CustomerDTO>> getAll(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "true") boolean includeTotal) {
+        CursorPageDTO<CustomerDTO> customers = service.getAllCustomers(cursor, size, includeTotal);
         return new ResponseEntity<>(customers, HttpStatus.OK);
     }
 
@@ -1,8 +1,13 @@
 package com.doa.doajewelry.controller;
 
+import com.doa.doajewelry.dtos.CursorPageDTO;
+import com.doa.doajewelry.dtos.DailySalesDTO;
 import com.doa.doajewelry.dtos.EmployeeDTO;
 import com.doa.doajewelry.services.EmployeeService;
+import com.doa.doajewelry.services.SalesRollupService;
+import java.time.LocalDate;
 import java.util.List;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
 
 /**
@@ -13,9 +18,11 @@ import org.springframework.web.bind.annotation.*;
 public class EmployeeController {
 
     private final EmployeeService service;
+    private final SalesRollupService salesRollup;
 
-    public EmployeeController(EmployeeService service) {
+    public EmployeeController(EmployeeService service, SalesRollupService salesRollup) {
         this.service = service;
+        this.salesRollup = salesRollup;
     }
 
     /**
@@ -29,12 +36,18 @@ public class EmployeeController {
     }
 
     /**
-     * Retrieves all employees with additional information, if applicable.
-     * @return a list of EmployeeDTOs.
+     * Retrieves one page of employees with additional information, if applicable.
+     * @param cursor the cursor returned with the previous page; omit for the first page.
+     * @param size the page size, capped at the configured maximum.
+     * @param includeTotal whether to count the matching items across all pages.
+     * @return a page of EmployeeDTOs.
      */
     @GetMapping
-    public List<EmployeeDTO> getAllEmployees() {
-        return service.getAllEmployees();
+    public CursorPageDTO<EmployeeDTO> getAllEmployees(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "true") boolean includeTotal) {
+        return service.getAllEmployees(cursor, size, includeTotal);
     }
 
     /**
@@ -47,6 +60,29 @@ public class EmployeeController {
         return service.getEmployee(id);
     }
 
+    /**
+     * Retrieves an employee's sales per day.
+     * @param id the employee ID.
+     * @param from the first day, inclusive (ISO date).
+     * @param to the last day, inclusive (ISO date).
+     * @return one DailySalesDTO per day with sales, ordered by day.
+     */
+    @GetMapping("/{id}/sales")
+    public List<DailySalesDTO> getDailySales(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return service.getDailySales(id, from, to);
+    }
+
+    /**
+     * Recomputes the sales rollup from the orders table, e.g. after a data import.
+     */
+    @PostMapping("/sales/rebuild")
+    public void rebuildSalesRollup() {
+        salesRollup.rebuild();
+    }
+
     /**
      * Updates an existing employee (Manager or Salesperson).
      * @param id the employee ID.
@@ -0,0 +1,59 @@
+package com.doa.doajewelry.controller;
+
+import com.doa.doajewelry.services.ExportService;
+import com.doa.doajewelry.services.ExportService.Format;
+import java.nio.charset.StandardCharsets;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * REST Controller for exporting all Orders and Payments.
+ * The response is written while the rows are read, so exports of any size run in constant memory.
+ */
+@RestController
+@RequestMapping("/api/export")
+public class ExportController {
+
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
+    private final ExportService service;
+
+    public ExportController(ExportService service) {
+        this.service = service;
+    }
+
+    /**
+     * Exports every order.
+     * @param format the output format, NDJSON (default) or CSV.
+     * @return the orders, streamed as they are read.
+     */
+    @GetMapping("/orders")
+    public ResponseEntity<StreamingResponseBody> exportOrders(@RequestParam(defaultValue = "NDJSON") Format format) {
+        return stream("orders", format, out -> service.exportOrders(format, out));
+    }
+
+    /**
+     * Exports every payment.
+     * @param format the output format, NDJSON (default) or CSV.
+     * @return the payments, streamed as they are read.
+     */
+    @GetMapping("/payments")
+    public ResponseEntity<StreamingResponseBody> exportPayments(@RequestParam(defaultValue = "NDJSON") Format format) {
+        return stream("payments", format, out -> service.exportPayments(format, out));
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(String name, Format format, StreamingResponseBody body) {
+        boolean csv = format == Format.CSV;
+        ContentDisposition disposition = ContentDisposition.attachment()
+                .filename(name + (csv ? ".csv" : ".ndjson"))
+                .build();
+        return ResponseEntity.ok()
+                .contentType(csv ? TEXT_CSV : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                .body(body);
+    }
+}
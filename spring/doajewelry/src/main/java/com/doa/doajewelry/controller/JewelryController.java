@@ -1,8 +1,15 @@
 package com.doa.doajewelry.controller;
 
+import com.doa.doajewelry.dtos.CacheStatsDTO;
+import com.doa.doajewelry.dtos.CursorPageDTO;
+import com.doa.doajewelry.dtos.ImportReportDTO;
 import com.doa.doajewelry.dtos.JewelryDTO;
 import com.doa.doajewelry.entities.enums.JewelryType;
+import com.doa.doajewelry.services.JewelryImportService;
+import com.doa.doajewelry.services.JewelryImportService.Format;
 import com.doa.doajewelry.services.JewelryService;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import org.springframework.web.bind.annotation.*;
 
@@ -10,9 +17,11 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/api/jewelry")
 public class JewelryController {
     private final JewelryService service;
+    private final JewelryImportService importService;
 
-    public JewelryController(JewelryService service) {
+    public JewelryController(JewelryService service, JewelryImportService importService) {
         this.service = service;
+        this.importService = importService;
     }
 
     /**
@@ -26,22 +35,56 @@ public class JewelryController {
     }
 
     /**
-     * Retrieves all jewelry items.
-     * @return a list of JewelryDTOs.
+     * Imports jewelry items in bulk. Invalid rows are skipped and listed in the report.
+     * @param format the input format, CSV (default, in the layout of data/jewelry.csv) or NDJSON of JewelryDTOs.
+     * @param body the upload, read as it arrives.
+     * @return the number of rows imported and rejected, with the reason for each rejection.
+     * @throws IOException if reading the upload fails.
+     */
+    @PostMapping("/import")
+    public ImportReportDTO importJewelry(@RequestParam(defaultValue = "CSV") Format format, InputStream body)
+            throws IOException {
+        return importService.importJewelry(format, body);
+    }
+
+    /**
+     * Retrieves the hit, miss, eviction and expiration counters of the jewelry caches.
+     * @return one CacheStatsDTO per cache.
+     */
+    @GetMapping("/cache/stats")
+    public List<CacheStatsDTO> getCacheStats() {
+        return service.getCacheStats();
+    }
+
+    /**
+     * Retrieves one page of jewelry items.
+     * @param cursor the cursor returned with the previous page; omit for the first page.
+     * @param size the page size, capped at the configured maximum.
+     * @param includeTotal whether to count the matching items across all pages.
+     * @return a page of JewelryDTOs.
      */
     @GetMapping
-    public List<JewelryDTO> getAll() {
-        return service.getAllJewelry();
+    public CursorPageDTO<JewelryDTO> getAll(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "true") boolean includeTotal) {
+        return service.getAllJewelry(cursor, size, includeTotal);
     }
 
     /**
-     * Retrieves jewelry items by type.
+     * Retrieves one page of jewelry items by type.
      * @param type the type of jewelry.
-     * @return a list of JewelryDTOs matching the specified type.
+     * @param cursor the cursor returned with the previous page; omit for the first page.
+     * @param size the page size, capped at the configured maximum.
+     * @param includeTotal whether to count the matching items across all pages.
+     * @return a page of JewelryDTOs matching the specified type.
      */
     @GetMapping("/type/{type}")
-    public List<JewelryDTO> getByType(@PathVariable JewelryType type) {
-        return service.getAllByType(type);
+    public CursorPageDTO<JewelryDTO> getByType(@PathVariable JewelryType type,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "true") boolean includeTotal) {
+        return service.getAllByType(type, cursor, size, includeTotal);
     }
 
     /**
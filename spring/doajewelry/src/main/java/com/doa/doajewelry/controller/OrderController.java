@@ -1,9 +1,9 @@
 package com.doa.doajewelry.controller;
 
+import com.doa.doajewelry.dtos.CursorPageDTO;
 import com.doa.doajewelry.dtos.OrderDTO;
 import com.doa.doajewelry.entities.enums.OrderStatus;
 import com.doa.doajewelry.services.OrderService;
-import java.util.List;
 import org.springframework.web.bind.annotation.*;
 
 /**
@@ -30,12 +30,18 @@ public class OrderController {
     }
 
     /**
-     * Retrieves all orders.
-     * @return a list of OrderDTOs.
+     * Retrieves one page of orders.
+     * @param cursor the cursor returned with the previous page; omit for the first page.
+     * @param size the page size, capped at the configured maximum.
+     * @param includeTotal whether to count the matching items across all pages.
+     * @return a page of OrderDTOs.
      */
     @GetMapping
-    public List<OrderDTO> getAllOrders() {
-        return service.getAllOrders();
+    public CursorPageDTO<OrderDTO> getAllOrders(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "true") boolean includeTotal) {
+        return service.getAllOrders(cursor, size, includeTotal);
     }
 
     /**
@@ -49,13 +55,19 @@ public class OrderController {
     }
 
     /**
-     * Retrieves all orders with a specific status.
+     * Retrieves one page of orders with a specific status.
      * @param status the order status to filter by.
-     * @return a list of OrderDTOs with the specified status.
+     * @param cursor the cursor returned with the previous page; omit for the first page.
+     * @param size the page size, capped at the configured maximum.
+     * @param includeTotal whether to count the matching items across all pages.
+     * @return a page of OrderDTOs with the specified status.
      */
     @GetMapping("/status/{status}")
-    public List<OrderDTO> getAllOrdersByStatus(@PathVariable OrderStatus status) {
-        return service.getAllOrdersByStatus(status);
+    public CursorPageDTO<OrderDTO> getAllOrdersByStatus(@PathVariable OrderStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "true") boolean includeTotal) {
+        return service.getAllOrdersByStatus(status, cursor, size, includeTotal);
     }
 
     /**
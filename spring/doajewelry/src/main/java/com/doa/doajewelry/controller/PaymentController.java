@@ -1,5 +1,7 @@
 package com.doa.doajewelry.controller;
 
+import com.doa.doajewelry.dtos.CursorPageDTO;
+import com.doa.doajewelry.dtos.PaidBalanceMismatchDTO;
 import com.doa.doajewelry.dtos.PaymentDTO;
 import com.doa.doajewelry.entities.enums.PaymentStatus;
 import com.doa.doajewelry.services.PaymentService;
@@ -29,12 +31,18 @@ public class PaymentController {
     }
 
     /**
-     * Retrieves all payments.
-     * @return a list of PaymentDTOs.
+     * Retrieves one page of payments.
+     * @param cursor the cursor returned with the previous page; omit for the first page.
+     * @param size the page size, capped at the configured maximum.
+     * @param includeTotal whether to count the matching items across all pages.
+     * @return a page of PaymentDTOs.
      */
     @GetMapping
-    public List<PaymentDTO> getAll() {
-        return service.getAllPayments();
+    public CursorPageDTO<PaymentDTO> getAll(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "true") boolean includeTotal) {
+        return service.getAllPayments(cursor, size, includeTotal);
     }
 
     /**
@@ -78,12 +86,36 @@ public class PaymentController {
     }
 
     /**
-     * Retrieves all payments with a specific status.
+     * Lists the orders whose stored paid amount does not match their COMPLETED payments.
+     * @return the mismatching orders; empty when all balances are consistent.
+     */
+    @GetMapping("/balances/mismatches")
+    public List<PaidBalanceMismatchDTO> getPaidBalanceMismatches() {
+        return service.findPaidBalanceMismatches();
+    }
+
+    /**
+     * Recomputes the paid amount of every mismatching order from the payments table.
+     * @return the orders that were corrected.
+     */
+    @PostMapping("/balances/rebuild")
+    public List<PaidBalanceMismatchDTO> rebuildPaidBalances() {
+        return service.rebuildPaidBalances();
+    }
+
+    /**
+     * Retrieves one page of payments with a specific status.
      * @param status the payment status to filter by.
-     * @return a list of PaymentDTOs with the specified status.
+     * @param cursor the cursor returned with the previous page; omit for the first page.
+     * @param size the page size, capped at the configured maximum.
+     * @param includeTotal whether to count the matching items across all pages.
+     * @return a page of PaymentDTOs with the specified status.
      */
     @GetMapping("/status/{status}")
-    public List<PaymentDTO> getByStatus(@PathVariable PaymentStatus status) {
-        return service.getAllPaymentsByStatus(status);
+    public CursorPageDTO<PaymentDTO> getByStatus(@PathVariable PaymentStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "true") boolean includeTotal) {
+        return service.getAllPaymentsByStatus(status, cursor, size, includeTotal);
     }
 }
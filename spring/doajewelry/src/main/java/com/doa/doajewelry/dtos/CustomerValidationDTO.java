@@ -0,0 +1,55 @@
+package com.doa.doajewelry.dtos;
+
+/**
+ * Data Transfer Object reporting whether a NIF and email are still available for a new customer.
+ */
+public class CustomerValidationDTO {
+
+    private String nif;
+    private String email;
+    private boolean nifAvailable;
+    private boolean emailAvailable;
+
+    public CustomerValidationDTO() {}
+
+    public CustomerValidationDTO(String nif, String email, boolean nifAvailable, boolean emailAvailable) {
+        this.nif = nif;
+        this.email = email;
+        this.nifAvailable = nifAvailable;
+        this.emailAvailable = emailAvailable;
+    }
+
+    // Getters and Setters
+
+    public String getNif() {
+        return nif;
+    }
+
+    public void setNif(String nif) {
+        this.nif = nif;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public boolean isNifAvailable() {
+        return nifAvailable;
+    }
+
+    public void setNifAvailable(boolean nifAvailable) {
+        this.nifAvailable = nifAvailable;
+    }
+
+    public boolean isEmailAvailable() {
+        return emailAvailable;
+    }
+
+    public void setEmailAvailable(boolean emailAvailable) {
+        this.emailAvailable = emailAvailable;
+    }
+}
@@ -0,0 +1,55 @@
+package com.doa.doajewelry.dtos;
+
+import com.doa.doajewelry.entities.EmployeeDailySales;
+import java.time.LocalDate;
+
+/**
+ * Data Transfer Object for one day of an employee's sales.
+ */
+public class DailySalesDTO {
+
+    private LocalDate day;
+    private Double totalSales;
+    private Long orderCount;
+
+    public DailySalesDTO() {}
+
+    // Getters and Setters
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public void setDay(LocalDate day) {
+        this.day = day;
+    }
+
+    public Double getTotalSales() {
+        return totalSales;
+    }
+
+    public void setTotalSales(Double totalSales) {
+        this.totalSales = totalSales;
+    }
+
+    public Long getOrderCount() {
+        return orderCount;
+    }
+
+    public void setOrderCount(Long orderCount) {
+        this.orderCount = orderCount;
+    }
+
+    /**
+     * Creates a DailySalesDTO from a daily sales bucket.
+     * @param s the bucket to convert.
+     * @return a new DailySalesDTO reflecting the given bucket.
+     */
+    public static DailySalesDTO fromEntity(EmployeeDailySales s) {
+        DailySalesDTO dto = new DailySalesDTO();
+        dto.setDay(s.getId().getDay());
+        dto.setTotalSales(s.getTotalSales());
+        dto.setOrderCount(s.getOrderCount());
+        return dto;
+    }
+}
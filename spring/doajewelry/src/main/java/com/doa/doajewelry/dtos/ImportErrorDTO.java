@@ -0,0 +1,35 @@
+package com.doa.doajewelry.dtos;
+
+/**
+ * Data Transfer Object describing why one row of a bulk import was rejected.
+ */
+public class ImportErrorDTO {
+
+    private long line; // 1-based line number in the uploaded file
+    private String message;
+
+    public ImportErrorDTO() {}
+
+    public ImportErrorDTO(long line, String message) {
+        this.line = line;
+        this.message = message;
+    }
+
+    // Getters and Setters
+
+    public long getLine() {
+        return line;
+    }
+
+    public void setLine(long line) {
+        this.line = line;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,60 @@
+package com.doa.doajewelry.dtos;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data Transfer Object summarising a bulk import.
+ */
+public class ImportReportDTO {
+
+    private long rowsRead;
+    private long imported;
+    private long rejected;
+    private List<ImportErrorDTO> errors = new ArrayList<>();
+    private boolean errorsTruncated; // True if more rows were rejected than errors are listed
+
+    public ImportReportDTO() {}
+
+    // Getters and Setters
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public void setRowsRead(long rowsRead) {
+        this.rowsRead = rowsRead;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    public List<ImportErrorDTO> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<ImportErrorDTO> errors) {
+        this.errors = errors;
+    }
+
+    public boolean isErrorsTruncated() {
+        return errorsTruncated;
+    }
+
+    public void setErrorsTruncated(boolean errorsTruncated) {
+        this.errorsTruncated = errorsTruncated;
+    }
+}
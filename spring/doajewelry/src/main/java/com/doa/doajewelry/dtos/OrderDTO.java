@@ -1,9 +1,10 @@
 package com.doa.doajewelry.dtos;
 
-import com.doa.doajewelry.entities.Jewelry;
 import com.doa.doajewelry.entities.Order;
 import com.doa.doajewelry.entities.enums.OrderStatus;
 import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -17,7 +18,9 @@ public class OrderDTO {
     private OrderStatus status;
     private Long customerId;
     private Long employeeId;
-    private Set<Long> jewelryIds;
+    private Set<Long> jewelryIds; // One unit of each; used on create and update only when items is absent
+    private List<OrderLineDTO> items;
+    private Double totalAmount; // Computed by the server; ignored on create and update
 
     public OrderDTO() {}
 
@@ -71,6 +74,22 @@ public class OrderDTO {
         this.jewelryIds = jewelryIds;
     }
 
+    public List<OrderLineDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<OrderLineDTO> items) {
+        this.items = items;
+    }
+
+    public Double getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(Double totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+
     /**
      * Creates an OrderDTO from an Order entity.
      * @param o the Order entity to convert.
@@ -83,6 +102,7 @@ public class OrderDTO {
         dto.setId(o.getId());
         dto.setDate(o.getDate());
         dto.setStatus(o.getStatus());
+        dto.setTotalAmount(o.getTotalAmount());
 
         if (o.getCustomer() != null) {
             dto.setCustomerId(o.getCustomer().getId());
@@ -93,11 +113,11 @@ public class OrderDTO {
         }
 
         if (o.getItems() != null) {
-            dto.setJewelryIds(
-                o.getItems().stream()
-                    .map(Jewelry::getId)
-                    .collect(Collectors.toSet())
-            );
+            dto.setJewelryIds(o.getJewelryIds());
+            dto.setItems(o.getItems().stream()
+                .map(OrderLineDTO::fromEntity)
+                .sorted(Comparator.comparing(OrderLineDTO::getJewelryId))
+                .collect(Collectors.toList()));
         }
 
         return dto;
@@ -0,0 +1,57 @@
+package com.doa.doajewelry.dtos;
+
+import com.doa.doajewelry.entities.OrderItem;
+
+/**
+ * Data Transfer Object for one line of an Order.
+ */
+public class OrderLineDTO {
+
+    private Long jewelryId;
+    private Integer quantity;
+    private Double unitPrice; // Set by the server from the catalogue price; ignored on create and update
+
+    public OrderLineDTO() {}
+
+    public OrderLineDTO(Long jewelryId, Integer quantity) {
+        this.jewelryId = jewelryId;
+        this.quantity = quantity;
+    }
+
+    // Getters and Setters
+
+    public Long getJewelryId() {
+        return jewelryId;
+    }
+
+    public void setJewelryId(Long jewelryId) {
+        this.jewelryId = jewelryId;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+
+    public Double getUnitPrice() {
+        return unitPrice;
+    }
+
+    public void setUnitPrice(Double unitPrice) {
+        this.unitPrice = unitPrice;
+    }
+
+    /**
+     * Creates an OrderLineDTO from an OrderItem entity.
+     * @param item the OrderItem entity to convert.
+     * @return a new OrderLineDTO reflecting the given entity.
+     */
+    public static OrderLineDTO fromEntity(OrderItem item) {
+        OrderLineDTO dto = new OrderLineDTO(item.getJewelryId(), item.getQuantity());
+        dto.setUnitPrice(item.getUnitPrice());
+        return dto;
+    }
+}
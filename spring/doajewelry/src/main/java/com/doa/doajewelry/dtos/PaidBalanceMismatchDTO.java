@@ -0,0 +1,45 @@
+package com.doa.doajewelry.dtos;
+
+/**
+ * Data Transfer Object describing an order whose stored paid amount does not match its payments.
+ */
+public class PaidBalanceMismatchDTO {
+
+    private Long orderId;
+    private Double recordedPaidAmount;
+    private Double completedPayments;
+
+    public PaidBalanceMismatchDTO() {}
+
+    public PaidBalanceMismatchDTO(Long orderId, Double recordedPaidAmount, Double completedPayments) {
+        this.orderId = orderId;
+        this.recordedPaidAmount = recordedPaidAmount;
+        this.completedPayments = completedPayments;
+    }
+
+    // Getters and Setters
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+
+    public Double getRecordedPaidAmount() {
+        return recordedPaidAmount;
+    }
+
+    public void setRecordedPaidAmount(Double recordedPaidAmount) {
+        this.recordedPaidAmount = recordedPaidAmount;
+    }
+
+    public Double getCompletedPayments() {
+        return completedPayments;
+    }
+
+    public void setCompletedPayments(Double completedPayments) {
+        this.completedPayments = completedPayments;
+    }
+}
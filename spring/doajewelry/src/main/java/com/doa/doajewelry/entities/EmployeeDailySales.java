@@ -0,0 +1,47 @@
+package com.doa.doajewelry.entities;
+
+import com.doa.doajewelry.entities.embedded.EmployeeDay;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Entity holding the sales of one employee on one day, bucketed by order date.
+ * Mapped to the "employee_daily_sales" table in the database and maintained together with {@link EmployeeSales}.
+ */
+@Entity
+@Table(name = "employee_daily_sales")
+public class EmployeeDailySales {
+
+    @EmbeddedId
+    private EmployeeDay id;
+
+    /**
+     * Sum of the totals of the employee's orders dated on this day.
+     */
+    @NotNull
+    private Double totalSales;
+
+    /**
+     * Number of the employee's orders dated on this day.
+     */
+    @NotNull
+    private Long orderCount;
+
+    // Constructors
+
+    public EmployeeDailySales() {}
+
+    // Getters
+
+    public EmployeeDay getId() {
+        return id;
+    }
+
+    public Double getTotalSales() {
+        return totalSales;
+    }
+
+    public Long getOrderCount() {
+        return orderCount;
+    }
+}
@@ -0,0 +1,49 @@
+package com.doa.doajewelry.entities;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Entity holding the running sales total of one employee.
+ * Mapped to the "employee_sales" table in the database.
+ * Kept up to date by SalesRollupService as orders are created, updated and deleted,
+ * so reading an employee's total sales never has to load their orders.
+ */
+@Entity
+@Table(name = "employee_sales")
+public class EmployeeSales {
+
+    @Id
+    @Column(name = "employee_id")
+    private Long employeeId;
+
+    /**
+     * Sum of the totals of the employee's orders.
+     */
+    @NotNull
+    private Double totalSales;
+
+    /**
+     * Number of orders handled by the employee.
+     */
+    @NotNull
+    private Long orderCount;
+
+    // Constructors
+
+    public EmployeeSales() {}
+
+    // Getters
+
+    public Long getEmployeeId() {
+        return employeeId;
+    }
+
+    public Double getTotalSales() {
+        return totalSales;
+    }
+
+    public Long getOrderCount() {
+        return orderCount;
+    }
+}
@@ -17,7 +17,8 @@ import jakarta.validation.constraints.NotNull;
 public abstract class Jewelry {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "jewelry_seq")
+    @SequenceGenerator(name = "jewelry_seq", sequenceName = "jewelry_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -3,9 +3,13 @@ package com.doa.doajewelry.entities;
 import com.doa.doajewelry.entities.enums.OrderStatus;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Entity representing an Order in the system.
@@ -16,7 +20,8 @@ import java.util.Set;
 public class Order {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -51,17 +56,37 @@ public class Order {
     private Employee employee;
 
     /**
-     * Many-to-Many relationship with Jewelry.
-     * An order can contain multiple jewelry items, and a jewelry item can be part of multiple orders.
-     * Managed via a join table "order_jewelry".
+     * One-to-Many relationship with OrderItem.
+     * Each line links the order to one jewelry item and records how many units were sold and at what price.
+     * Stored in the "order_jewelry" table.
+     * 
+     * cascade = CascadeType.ALL and orphanRemoval = true make the lines part of the order.
+     */
+    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
+    private Set<OrderItem> items = new HashSet<>();
+
+    /**
+     * Sum of the unit prices times the quantities of the order's lines, in cents.
+     * Recomputed from the lines in decimal arithmetic whenever they change, so repeated edits never drift.
+     * Stored so that payments and reports can use it without loading the lines.
+     */
+    @Column(name = "total_amount")
+    private Double totalAmount = 0.0;
+
+    /**
+     * Sum of the amounts of the order's COMPLETED payments, kept up to date by every payment change.
+     * Stored so that payments can be validated without loading the order's other payments.
+     */
+    @Column(name = "paid_amount")
+    private Double paidAmount = 0.0;
+
+    /**
+     * Version for optimistic locking.
+     * Concurrent changes to the same order, such as two payments, cannot overwrite each other's balance;
+     * the later transaction fails instead.
      */
-    @ManyToMany
-    @JoinTable(
-        name = "order_jewelry",
-        joinColumns = @JoinColumn(name = "order_id"),
-        inverseJoinColumns = @JoinColumn(name = "jewelry_id")
-    )
-    private Set<Jewelry> items = new HashSet<>();
+    @Version
+    private Long version;
 
     /**
      * One-to-Many relationship with Payment.
@@ -126,12 +151,20 @@ public class Order {
         this.employee = employee;
     }
 
-    public Set<Jewelry> getItems() {
+    public Set<OrderItem> getItems() {
         return items;
     }
 
-    public void setItems(Set<Jewelry> items) {
-        this.items = items;
+    public Double getPaidAmount() {
+        return paidAmount;
+    }
+
+    public void setPaidAmount(Double paidAmount) {
+        this.paidAmount = paidAmount;
+    }
+
+    public Long getVersion() {
+        return version;
     }
 
     public Set<Payment> getPayments() {
@@ -145,21 +178,69 @@ public class Order {
     // Utility methods to manage bidirectional relationships
 
     /**
-     * Adds a jewelry item to the order.
+     * Adds one unit of a jewelry item to the order at its current price.
      * 
      * @param jewelry The jewelry item to add.
      */
     public void addItem(Jewelry jewelry) {
-        this.items.add(jewelry);
+        addItem(jewelry, 1);
+    }
+
+    /**
+     * Adds a line for a jewelry item to the order at its current price.
+     * 
+     * @param jewelry  The jewelry item to add.
+     * @param quantity The number of units.
+     */
+    public void addItem(Jewelry jewelry, int quantity) {
+        this.items.add(new OrderItem(this, jewelry, jewelry.getPrice(), quantity));
+        recalculateTotal();
+    }
+
+    /**
+     * Changes the number of units on the line of a jewelry item; the line keeps its price.
+     * 
+     * @param jewelryId The ID of the jewelry item.
+     * @param quantity  The new number of units.
+     */
+    public void setItemQuantity(Long jewelryId, int quantity) {
+        for (OrderItem item : items) {
+            if (item.getJewelryId().equals(jewelryId)) {
+                item.setQuantity(quantity);
+            }
+        }
+        recalculateTotal();
     }
 
     /**
      * Removes a jewelry item from the order.
      * 
-     * @param jewelry The jewelry item to remove.
+     * @param jewelryId The ID of the jewelry item to remove.
      */
-    public void removeItem(Jewelry jewelry) {
-        this.items.remove(jewelry);
+    public void removeItem(Long jewelryId) {
+        this.items.removeIf(item -> item.getJewelryId().equals(jewelryId));
+        recalculateTotal();
+    }
+
+    /**
+     * Returns the IDs of the jewelry items on the order without loading them.
+     * 
+     * @return The jewelry IDs.
+     */
+    public Set<Long> getJewelryIds() {
+        return items.stream()
+            .map(OrderItem::getJewelryId)
+            .collect(Collectors.toSet());
+    }
+
+    /**
+     * Returns the number of units of each jewelry item on the order without loading the items.
+     * 
+     * @return The quantities keyed by jewelry ID.
+     */
+    public Map<Long, Integer> getQuantities() {
+        return items.stream()
+            .collect(Collectors.toMap(OrderItem::getJewelryId, OrderItem::getQuantity));
     }
 
     /**
@@ -185,13 +266,23 @@ public class Order {
     }
 
     /**
-     * Calculates the total amount of the order based on associated jewelry prices.
+     * Returns the total amount of the order, from the prices and quantities its items were sold at.
      * 
      * @return The total amount of the order.
      */
     public Double getTotalAmount() {
-        return items.stream()
-            .mapToDouble(Jewelry::getPrice)
-            .sum();
+        return totalAmount;
+    }
+
+    /**
+     * Sums the lines exactly and rounds to cents, so the total does not depend on the order of the lines
+     * or on how they got to their current state.
+     */
+    private void recalculateTotal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (OrderItem item : items) {
+            total = total.add(BigDecimal.valueOf(item.getUnitPrice()).multiply(BigDecimal.valueOf(item.getQuantity())));
+        }
+        this.totalAmount = total.setScale(2, RoundingMode.HALF_UP).doubleValue();
     }
 }
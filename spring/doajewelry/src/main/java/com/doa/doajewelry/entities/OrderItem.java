@@ -0,0 +1,95 @@
+package com.doa.doajewelry.entities;
+
+import com.doa.doajewelry.entities.embedded.OrderItemId;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+/**
+ * Entity representing one line of an Order: a jewelry item, the number of units sold and the price
+ * each unit was sold at.
+ * Mapped to the "order_jewelry" table in the database.
+ */
+@Entity
+@Table(name = "order_jewelry")
+public class OrderItem {
+
+    @EmbeddedId
+    private OrderItemId id = new OrderItemId();
+
+    /**
+     * The order this line belongs to; supplies the order_id half of the key.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @MapsId("orderId")
+    @JoinColumn(name = "order_id")
+    private Order order;
+
+    /**
+     * The jewelry item sold; supplies the jewelry_id half of the key.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @MapsId("jewelryId")
+    @JoinColumn(name = "jewelry_id")
+    private Jewelry jewelry;
+
+    /**
+     * Price of the jewelry item when it was added to the order.
+     * Later catalogue price changes do not affect it.
+     */
+    @Column(name = "unit_price")
+    private Double unitPrice;
+
+    /**
+     * Number of units of the jewelry item on the order.
+     */
+    @NotNull
+    @Positive
+    private Integer quantity = 1;
+
+    // Constructors
+
+    public OrderItem() {}
+
+    public OrderItem(Order order, Jewelry jewelry, Double unitPrice, Integer quantity) {
+        this.order = order;
+        this.jewelry = jewelry;
+        this.unitPrice = unitPrice;
+        this.quantity = quantity;
+    }
+
+    // Getters
+
+    public OrderItemId getId() {
+        return id;
+    }
+
+    public Order getOrder() {
+        return order;
+    }
+
+    public Jewelry getJewelry() {
+        return jewelry;
+    }
+
+    /**
+     * Returns the ID of the jewelry item without loading it.
+     *
+     * @return The jewelry ID.
+     */
+    public Long getJewelryId() {
+        return jewelry.getId();
+    }
+
+    public Double getUnitPrice() {
+        return unitPrice;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+}
@@ -0,0 +1,51 @@
+package com.doa.doajewelry.entities.embedded;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Embeddable composite key identifying one employee on one day.
+ */
+@Embeddable
+public class EmployeeDay implements Serializable {
+
+    @Column(name = "employee_id")
+    private Long employeeId;
+
+    private LocalDate day;
+
+    // Constructors
+
+    public EmployeeDay() {}
+
+    public EmployeeDay(Long employeeId, LocalDate day) {
+        this.employeeId = employeeId;
+        this.day = day;
+    }
+
+    // Getters
+
+    public Long getEmployeeId() {
+        return employeeId;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof EmployeeDay)) return false;
+        EmployeeDay other = (EmployeeDay) o;
+        return Objects.equals(employeeId, other.employeeId) && Objects.equals(day, other.day);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(employeeId, day);
+    }
+}
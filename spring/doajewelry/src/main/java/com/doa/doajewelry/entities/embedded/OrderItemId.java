@@ -0,0 +1,51 @@
+package com.doa.doajewelry.entities.embedded;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Embeddable composite key identifying one jewelry item on one order.
+ */
+@Embeddable
+public class OrderItemId implements Serializable {
+
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "jewelry_id")
+    private Long jewelryId;
+
+    // Constructors
+
+    public OrderItemId() {}
+
+    public OrderItemId(Long orderId, Long jewelryId) {
+        this.orderId = orderId;
+        this.jewelryId = jewelryId;
+    }
+
+    // Getters
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public Long getJewelryId() {
+        return jewelryId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof OrderItemId)) return false;
+        OrderItemId other = (OrderItemId) o;
+        return Objects.equals(orderId, other.orderId) && Objects.equals(jewelryId, other.jewelryId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(orderId, jewelryId);
+    }
+}
@@ -1,8 +1,50 @@
 package com.doa.doajewelry.repositories;
 
 import com.doa.doajewelry.entities.Customer;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
     boolean existsByNif(String nif);
+
+    /**
+     * Checks whether any customer has the given email, ignoring case.
+     * Served by the index on lower(email).
+     * @param email the email to look up.
+     * @return true if a customer has the email.
+     */
+    @Query("SELECT COUNT(c) > 0 FROM Customer c WHERE LOWER(c.email) = LOWER(:email)")
+    boolean existsByEmailIgnoreCase(@Param("email") String email);
+
+    /**
+     * Finds the customers holding any of the given NIFs or emails with a single query.
+     * @param nifs the NIFs to look up.
+     * @param emails the emails to look up, in lower case.
+     * @return the NIF and email of every matching customer.
+     */
+    @Query("SELECT c.nif AS nif, c.email AS email FROM Customer c "
+        + "WHERE c.nif IN :nifs OR LOWER(c.email) IN :emails")
+    List<CustomerKeys> findByNifInOrEmailIn(@Param("nifs") Collection<String> nifs,
+                                            @Param("emails") Collection<String> emails);
+
+    /**
+     * Finds a page of customers in ID order.
+     * @param afterId the last ID of the previous page.
+     * @param limit the maximum number of customers to return.
+     * @return the customers with an ID greater than afterId.
+     */
+    List<Customer> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    /**
+     * The unique keys of a customer.
+     */
+    interface CustomerKeys {
+        String getNif();
+
+        String getEmail();
+    }
 }
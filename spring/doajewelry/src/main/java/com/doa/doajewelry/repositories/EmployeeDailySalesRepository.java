@@ -0,0 +1,53 @@
+package com.doa.doajewelry.repositories;
+
+import com.doa.doajewelry.entities.EmployeeDailySales;
+import com.doa.doajewelry.entities.embedded.EmployeeDay;
+import java.time.LocalDate;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * Repository for the per-employee, per-day sales buckets.
+ */
+public interface EmployeeDailySalesRepository extends JpaRepository<EmployeeDailySales, EmployeeDay> {
+
+    /**
+     * Finds an employee's daily buckets within a date range.
+     * @param employeeId the ID of the employee.
+     * @param from the first day, inclusive.
+     * @param to the last day, inclusive.
+     * @return the buckets ordered by day; days without sales have no bucket.
+     */
+    List<EmployeeDailySales> findByIdEmployeeIdAndIdDayBetweenOrderByIdDayAsc(Long employeeId, LocalDate from,
+                                                                             LocalDate to);
+
+    /**
+     * Adds to an employee's bucket for a day, creating it on the first sale of that day.
+     * @param employeeId the ID of the employee.
+     * @param day the order date.
+     * @param amount the amount to add; negative to take an order back out.
+     * @param orders the number of orders to add; negative to take orders back out.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO employee_daily_sales (employee_id, day, total_sales, order_count) "
+        + "VALUES (:employeeId, :day, :amount, :orders) "
+        + "ON CONFLICT (employee_id, day) DO UPDATE SET "
+        + "total_sales = employee_daily_sales.total_sales + EXCLUDED.total_sales, "
+        + "order_count = employee_daily_sales.order_count + EXCLUDED.order_count", nativeQuery = true)
+    void addSales(@Param("employeeId") Long employeeId, @Param("day") LocalDate day, @Param("amount") double amount,
+                  @Param("orders") long orders);
+
+    /**
+     * Recomputes every daily bucket from the totals stored on the orders.
+     * Orders without a date have no bucket. Meant to run with the table emptied.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO employee_daily_sales (employee_id, day, total_sales, order_count) "
+        + "SELECT o.employee_id, o.date, SUM(o.total_amount), COUNT(*) FROM orders o "
+        + "WHERE o.employee_id IS NOT NULL AND o.date IS NOT NULL "
+        + "GROUP BY o.employee_id, o.date", nativeQuery = true)
+    void rebuildFromOrders();
+}
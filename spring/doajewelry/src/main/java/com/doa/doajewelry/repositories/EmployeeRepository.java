@@ -1,8 +1,18 @@
 package com.doa.doajewelry.repositories;
 
 import com.doa.doajewelry.entities.Employee;
+import java.util.List;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 public interface EmployeeRepository extends JpaRepository<Employee, Long> {
     boolean existsByNif(String nif);
+
+    /**
+     * Finds a page of employees in ID order.
+     * @param afterId the last ID of the previous page.
+     * @param limit the maximum number of employees to return.
+     * @return the employees with an ID greater than afterId.
+     */
+    List<Employee> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
 }
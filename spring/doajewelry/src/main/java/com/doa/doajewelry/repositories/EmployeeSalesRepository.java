@@ -0,0 +1,47 @@
+package com.doa.doajewelry.repositories;
+
+import com.doa.doajewelry.entities.EmployeeSales;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * Repository for the per-employee sales rollup.
+ */
+public interface EmployeeSalesRepository extends JpaRepository<EmployeeSales, Long> {
+
+    /**
+     * Adds to an employee's running totals, creating the row on the employee's first sale.
+     * The increment is applied in the database, so concurrent orders never overwrite each other.
+     * @param employeeId the ID of the employee.
+     * @param amount the amount to add; negative to take an order back out.
+     * @param orders the number of orders to add; negative to take orders back out.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO employee_sales (employee_id, total_sales, order_count) "
+        + "VALUES (:employeeId, :amount, :orders) "
+        + "ON CONFLICT (employee_id) DO UPDATE SET "
+        + "total_sales = employee_sales.total_sales + EXCLUDED.total_sales, "
+        + "order_count = employee_sales.order_count + EXCLUDED.order_count", nativeQuery = true)
+    void addSales(@Param("employeeId") Long employeeId, @Param("amount") double amount, @Param("orders") long orders);
+
+    /**
+     * Recomputes every employee's totals from the totals stored on the orders.
+     * Meant to run with the table emptied.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO employee_sales (employee_id, total_sales, order_count) "
+        + "SELECT o.employee_id, SUM(o.total_amount), COUNT(*) FROM orders o "
+        + "WHERE o.employee_id IS NOT NULL "
+        + "GROUP BY o.employee_id", nativeQuery = true)
+    void rebuildFromOrders();
+
+    /**
+     * Locks both rollup tables until the end of the transaction, so that orders placed
+     * during a rebuild wait for it instead of being counted twice or lost.
+     */
+    @Modifying
+    @Query(value = "LOCK TABLE employee_sales, employee_daily_sales IN EXCLUSIVE MODE", nativeQuery = true)
+    void lockRollup();
+}
@@ -0,0 +1,18 @@
+package com.doa.doajewelry.repositories;
+
+import com.doa.doajewelry.entities.Jewelry;
+import java.util.List;
+
+/**
+ * Custom repository fragment for inserting many jewelry items at once.
+ * Rows are written with plain JDBC batches, one per table of the JOINED hierarchy,
+ * instead of one entity insert at a time through the persistence context.
+ */
+public interface JewelryImportRepository {
+
+    /**
+     * Assigns IDs to new jewelry items and inserts them in a single transaction.
+     * @param items the items to insert; their IDs are set.
+     */
+    void insertAll(List<Jewelry> items);
+}
@@ -0,0 +1,105 @@
+package com.doa.doajewelry.repositories;
+
+import com.doa.doajewelry.entities.Earring;
+import com.doa.doajewelry.entities.Jewelry;
+import com.doa.doajewelry.entities.Necklace;
+import com.doa.doajewelry.entities.Ring;
+import jakarta.persistence.DiscriminatorValue;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * JDBC implementation of {@link JewelryImportRepository}.
+ * IDs are taken from jewelry_seq in the same blocks Hibernate uses, so they never collide with
+ * IDs handed out to entities. Each table then gets one batch, which the Postgres driver
+ * rewrites into multi-row inserts when reWriteBatchedInserts is on.
+ */
+public class JewelryImportRepositoryImpl implements JewelryImportRepository {
+
+    /**
+     * Must match the allocationSize of the jewelry sequence generator.
+     */
+    private static final int ALLOCATION_SIZE = 50;
+
+    private static final String NEXT_BLOCKS_SQL = "SELECT nextval('jewelry_seq') FROM generate_series(1, ?)";
+    private static final String JEWELRY_SQL = "INSERT INTO jewelry "
+        + "(id, jewelry_type, name, material, weight, price, stock_quantity, category) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String NECKLACE_SQL = "INSERT INTO necklace (id, length) VALUES (?, ?)";
+    private static final String EARRING_SQL = "INSERT INTO earring (id, clasp_type) VALUES (?, ?)";
+    private static final String RING_SQL = "INSERT INTO ring (id, size) VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JewelryImportRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional
+    public void insertAll(List<Jewelry> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        assignIds(items);
+
+        jdbcTemplate.batchUpdate(JEWELRY_SQL, items, items.size(), (ps, j) -> {
+            ps.setLong(1, j.getId());
+            ps.setString(2, discriminator(j));
+            ps.setString(3, j.getName());
+            ps.setString(4, j.getMaterial());
+            ps.setDouble(5, j.getWeight());
+            ps.setDouble(6, j.getPrice());
+            ps.setInt(7, j.getStockQuantity());
+            ps.setString(8, j.getCategory().name());
+        });
+
+        List<Necklace> necklaces = ofType(items, Necklace.class);
+        jdbcTemplate.batchUpdate(NECKLACE_SQL, necklaces, necklaces.size(), (ps, n) -> {
+            ps.setLong(1, n.getId());
+            ps.setDouble(2, n.getLength());
+        });
+
+        List<Earring> earrings = ofType(items, Earring.class);
+        jdbcTemplate.batchUpdate(EARRING_SQL, earrings, earrings.size(), (ps, e) -> {
+            ps.setLong(1, e.getId());
+            ps.setString(2, e.getClaspType());
+        });
+
+        List<Ring> rings = ofType(items, Ring.class);
+        jdbcTemplate.batchUpdate(RING_SQL, rings, rings.size(), (ps, r) -> {
+            ps.setLong(1, r.getId());
+            ps.setString(2, r.getSize());
+        });
+    }
+
+    /**
+     * Sets the IDs of the items from as few sequence calls as possible.
+     * Like Hibernate's pooled optimizer, each value read from the sequence owns the block of
+     * ALLOCATION_SIZE IDs ending at it; the unused rest of the last block is skipped.
+     */
+    private void assignIds(List<Jewelry> items) {
+        int assigned = 0;
+        while (assigned < items.size()) {
+            int blocks = (items.size() - assigned + ALLOCATION_SIZE - 1) / ALLOCATION_SIZE;
+            for (Long last : jdbcTemplate.queryForList(NEXT_BLOCKS_SQL, Long.class, blocks)) {
+                // The first value of a new sequence owns only itself, so this loop may need another round
+                for (long id = Math.max(1, last - ALLOCATION_SIZE + 1); id <= last && assigned < items.size(); id++) {
+                    items.get(assigned++).setId(id);
+                }
+            }
+        }
+    }
+
+    private static <T extends Jewelry> List<T> ofType(List<Jewelry> items, Class<T> type) {
+        return items.stream().filter(type::isInstance).map(type::cast).collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the value of the jewelry_type discriminator column for an item.
+     */
+    private static String discriminator(Jewelry j) {
+        return j.getClass().getAnnotation(DiscriminatorValue.class).value();
+    }
+}
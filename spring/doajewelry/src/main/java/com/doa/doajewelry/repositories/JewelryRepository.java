@@ -2,14 +2,22 @@ package com.doa.doajewelry.repositories;
 
 import com.doa.doajewelry.entities.Jewelry;
 import java.util.List;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 
-public interface JewelryRepository extends JpaRepository<Jewelry, Long> {
+public interface JewelryRepository extends JpaRepository<Jewelry, Long>, StockReservationRepository,
+                                           JewelryImportRepository {
 
-    @Query("SELECT j FROM Jewelry j WHERE TYPE(j) = :clazz")
-    <T extends Jewelry> List<T> findAllByType(@Param("clazz") Class<T> clazz);
+    @Query("SELECT j.id FROM Jewelry j WHERE j.id > :afterId ORDER BY j.id")
+    List<Long> findIdPage(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("SELECT j.id FROM Jewelry j WHERE TYPE(j) = :clazz AND j.id > :afterId ORDER BY j.id")
+    List<Long> findIdPageByType(@Param("clazz") Class<? extends Jewelry> clazz, @Param("afterId") Long afterId, Limit limit);
+
+    @Query("SELECT COUNT(j) FROM Jewelry j WHERE TYPE(j) = :clazz")
+    long countByType(@Param("clazz") Class<? extends Jewelry> clazz);
 
 }
@@ -1,10 +1,20 @@
 package com.doa.doajewelry.repositories;
 
+import com.doa.doajewelry.dtos.PaidBalanceMismatchDTO;
 import com.doa.doajewelry.entities.Employee;
 import com.doa.doajewelry.entities.Order;
 import com.doa.doajewelry.entities.enums.OrderStatus;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -13,11 +23,28 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
     /**
-     * Finds all orders with a specific status.
+     * Finds a page of orders in ID order.
+     * @param afterId the last ID of the previous page.
+     * @param limit the maximum number of orders to return.
+     * @return the orders with an ID greater than afterId.
+     */
+    List<Order> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    /**
+     * Finds a page of orders with a specific status in ID order.
      * @param status the status of the orders.
-     * @return a list of orders.
+     * @param afterId the last ID of the previous page.
+     * @param limit the maximum number of orders to return.
+     * @return the orders with the status and an ID greater than afterId.
+     */
+    List<Order> findByStatusAndIdGreaterThanOrderByIdAsc(OrderStatus status, Long afterId, Limit limit);
+
+    /**
+     * Counts the orders with a specific status.
+     * @param status the status of the orders.
+     * @return the number of orders.
      */
-    List<Order> findAllByStatus(OrderStatus status);
+    long countByStatus(OrderStatus status);
 
     /**
      * Finds all orders associated with a specific employee.
@@ -25,4 +52,53 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
      * @return a list of orders.
      */
     List<Order> findAllByEmployee(Employee employee);
+
+    /**
+     * Loads the given orders together with their jewelry items in a single query.
+     * Run after fetching a batch of orders so that converting them to DTOs does not
+     * load each order's items separately.
+     * @param ids the IDs of the orders.
+     * @return the orders, with their items initialised.
+     */
+    @EntityGraph(attributePaths = "items")
+    List<Order> findAllWithItemsByIdIn(Collection<Long> ids);
+
+    /**
+     * Streams all orders in ID order through a forward-only database cursor.
+     * Must be consumed inside a transaction and closed afterwards.
+     * @return a stream of all orders.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT o FROM Order o ORDER BY o.id")
+    Stream<Order> streamAll();
+
+    /**
+     * Finds the orders whose stored paid amount differs from the sum of their COMPLETED payments
+     * by more than a cent.
+     * @return the mismatching orders in ID order, with both amounts.
+     */
+    @Query("SELECT new com.doa.doajewelry.dtos.PaidBalanceMismatchDTO(o.id, o.paidAmount, "
+        + "COALESCE(SUM(CASE WHEN p.status = com.doa.doajewelry.entities.enums.PaymentStatus.COMPLETED "
+        + "THEN p.amount ELSE 0.0 END), 0.0)) "
+        + "FROM Order o LEFT JOIN o.payments p GROUP BY o.id, o.paidAmount "
+        + "HAVING o.paidAmount IS NULL OR ABS(o.paidAmount - COALESCE(SUM(CASE WHEN "
+        + "p.status = com.doa.doajewelry.entities.enums.PaymentStatus.COMPLETED "
+        + "THEN p.amount ELSE 0.0 END), 0.0)) > 0.005 "
+        + "ORDER BY o.id")
+    List<PaidBalanceMismatchDTO> findPaidBalanceMismatches();
+
+    /**
+     * Recomputes the stored paid amount of every order that differs from the sum of its COMPLETED payments.
+     * Bumps the version of the corrected orders, so payment changes that read the old balance fail.
+     * @return the number of orders corrected.
+     */
+    @Modifying
+    @Query(value = "UPDATE orders o SET paid_amount = b.paid, version = COALESCE(o.version, 0) + 1 "
+        + "FROM (SELECT o2.id, COALESCE(SUM(p.amount) FILTER (WHERE p.status = 'COMPLETED'), 0) AS paid "
+        + "FROM orders o2 LEFT JOIN payments p ON p.order_id = o2.id GROUP BY o2.id) b "
+        + "WHERE b.id = o.id AND (o.paid_amount IS NULL OR ABS(o.paid_amount - b.paid) > 0.005)", nativeQuery = true)
+    int rebuildPaidBalances();
 }
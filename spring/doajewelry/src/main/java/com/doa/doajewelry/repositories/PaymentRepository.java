@@ -2,8 +2,14 @@ package com.doa.doajewelry.repositories;
 
 import com.doa.doajewelry.entities.Payment;
 import com.doa.doajewelry.entities.enums.PaymentStatus;
+import jakarta.persistence.QueryHint;
 import java.util.List;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 /**
  * Repository for managing Payment entities.
@@ -17,9 +23,38 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     List<Payment> findAllByOrderId(Long orderId);
 
     /**
-     * Finds all payments with a specific status.
-     * @param status the status of the payment.
-     * @return a list of payments.
+     * Finds a page of payments in ID order.
+     * @param afterId the last ID of the previous page.
+     * @param limit the maximum number of payments to return.
+     * @return the payments with an ID greater than afterId.
+     */
+    List<Payment> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    /**
+     * Finds a page of payments with a specific status in ID order.
+     * @param status the status of the payments.
+     * @param afterId the last ID of the previous page.
+     * @param limit the maximum number of payments to return.
+     * @return the payments with the status and an ID greater than afterId.
+     */
+    List<Payment> findByStatusAndIdGreaterThanOrderByIdAsc(PaymentStatus status, Long afterId, Limit limit);
+
+    /**
+     * Counts the payments with a specific status.
+     * @param status the status of the payments.
+     * @return the number of payments.
+     */
+    long countByStatus(PaymentStatus status);
+
+    /**
+     * Streams all payments in ID order through a forward-only database cursor.
+     * Must be consumed inside a transaction and closed afterwards.
+     * @return a stream of all payments.
      */
-    List<Payment> findAllByStatus(PaymentStatus status);
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Payment p ORDER BY p.id")
+    Stream<Payment> streamAll();
 }
@@ -0,0 +1,34 @@
+package com.doa.doajewelry.repositories;
+
+import java.util.Map;
+
+/**
+ * Custom repository fragment for reserving and releasing jewelry stock.
+ * Stock is changed with guarded conditional updates sent as one JDBC batch,
+ * so concurrent orders cannot oversell an item and no row is locked before it is updated.
+ */
+public interface StockReservationRepository {
+
+    /**
+     * Decrements the stock of each jewelry item by the requested quantity,
+     * but only for items that still have that many units left.
+     * @param quantities the units to reserve, keyed by jewelry ID.
+     * @return whether each reservation succeeded, keyed by jewelry ID in the order given.
+     */
+    Map<Long, Boolean> reserveStock(Map<Long, Integer> quantities);
+
+    /**
+     * Applies stock changes to several jewelry items at once: positive quantities are reserved,
+     * guarded like {@link #reserveStock}, and negative ones are returned to stock.
+     * @param changes the units to take from stock, keyed by jewelry ID; negative to give units back.
+     * @return whether each change succeeded, keyed by jewelry ID in the order given;
+     *         returning units only fails if the item does not exist.
+     */
+    Map<Long, Boolean> adjustStock(Map<Long, Integer> changes);
+
+    /**
+     * Returns previously reserved units to the stock of each jewelry item.
+     * @param quantities the units to release, keyed by jewelry ID.
+     */
+    void releaseStock(Map<Long, Integer> quantities);
+}
@@ -0,0 +1,89 @@
+package com.doa.doajewelry.repositories;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * JDBC implementation of {@link StockReservationRepository}.
+ * Each item gets its own UPDATE so its update count tells whether it had enough stock,
+ * and all of them go to the database in a single round trip, units taken and returned alike.
+ * Rows are always updated in ascending jewelry ID order, so two transactions locking the same
+ * items wait on each other instead of deadlocking.
+ */
+public class StockReservationRepositoryImpl implements StockReservationRepository {
+
+    private static final String RESERVE_SQL =
+        "UPDATE jewelry SET stock_quantity = stock_quantity - ? WHERE id = ? AND stock_quantity >= ?";
+    private static final String RELEASE_SQL =
+        "UPDATE jewelry SET stock_quantity = stock_quantity + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public StockReservationRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional
+    public Map<Long, Boolean> reserveStock(Map<Long, Integer> quantities) {
+        return adjustStock(quantities);
+    }
+
+    @Override
+    @Transactional
+    public Map<Long, Boolean> adjustStock(Map<Long, Integer> changes) {
+        // A negative change passes the guard for any stock level, so releases share the reservation statement
+        List<Map.Entry<Long, Integer>> entries = byJewelryId(changes);
+        int[] counts = jdbcTemplate.batchUpdate(RESERVE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setInt(1, entries.get(i).getValue());
+                ps.setLong(2, entries.get(i).getKey());
+                ps.setInt(3, entries.get(i).getValue());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return entries.size();
+            }
+        });
+
+        Map<Long, Boolean> reserved = new LinkedHashMap<>();
+        for (int i = 0; i < counts.length; i++) {
+            // A row is only updated if the item exists and had enough stock
+            reserved.put(entries.get(i).getKey(), counts[i] > 0);
+        }
+        return reserved;
+    }
+
+    @Override
+    @Transactional
+    public void releaseStock(Map<Long, Integer> quantities) {
+        List<Map.Entry<Long, Integer>> entries = byJewelryId(quantities);
+        jdbcTemplate.batchUpdate(RELEASE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setInt(1, entries.get(i).getValue());
+                ps.setLong(2, entries.get(i).getKey());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return entries.size();
+            }
+        });
+    }
+
+    private static List<Map.Entry<Long, Integer>> byJewelryId(Map<Long, Integer> quantities) {
+        List<Map.Entry<Long, Integer>> entries = new ArrayList<>(quantities.entrySet());
+        entries.sort(Map.Entry.comparingByKey());
+        return entries;
+    }
+}
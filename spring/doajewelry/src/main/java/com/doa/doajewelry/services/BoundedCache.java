@@ -0,0 +1,198 @@
+package com.doa.doajewelry.services;
+
+import com.doa.doajewelry.dtos.CacheStatsDTO;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * In-process cache holding at most a fixed number of entries, each for at most a fixed time.
+ * When full, the least recently used entry is evicted; expired entries are dropped when next looked up.
+ *
+ * Every invalidation advances a generation counter. Loaders read the generation before going to the
+ * database and their result is only stored if no invalidation happened in between, so a value read
+ * before a concurrent write commits cannot be cached after that write has invalidated it.
+ *
+ * @param <K> Key type.
+ * @param <V> Value type; null values are never cached.
+ */
+public class BoundedCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    private long generation;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+
+    /**
+     * Creates a cache using the system clock.
+     *
+     * @param maxSize Maximum number of entries.
+     * @param ttl     Time after which an entry is no longer returned.
+     */
+    public BoundedCache(int maxSize, Duration ttl) {
+        this(maxSize, ttl, System::nanoTime);
+    }
+
+    /**
+     * Creates a cache reading time from the given clock, in nanoseconds.
+     *
+     * @param maxSize Maximum number of entries.
+     * @param ttl     Time after which an entry is no longer returned.
+     * @param clock   Source of the current time in nanoseconds.
+     */
+    BoundedCache(int maxSize, Duration ttl, LongSupplier clock) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size must be at least 1");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() <= BoundedCache.this.maxSize) {
+                    return false;
+                }
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached value for a key, loading and caching it on a miss.
+     *
+     * @param key    The key to look up.
+     * @param loader Loads the value on a miss; may return null, which is not cached.
+     * @return The cached or loaded value, or null.
+     */
+    public V get(K key, Function<K, V> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            V cached = lookup(key);
+            if (cached != null) {
+                return cached;
+            }
+            loadGeneration = generation;
+        }
+        V loaded = loader.apply(key);
+        if (loaded != null) {
+            store(key, loaded, loadGeneration);
+        }
+        return loaded;
+    }
+
+    /**
+     * Returns the cached values for several keys, loading all missing ones with one call.
+     *
+     * @param keys   The keys to look up.
+     * @param loader Loads the values of the missing keys; keys it leaves out are not cached.
+     * @return The values found, keyed by key, in the order of the given keys.
+     */
+    public Map<K, V> getAll(Collection<K> keys, Function<List<K>, Map<K, V>> loader) {
+        Map<K, V> found = new LinkedHashMap<>();
+        List<K> missing = new ArrayList<>();
+        long loadGeneration;
+        synchronized (this) {
+            for (K key : keys) {
+                V cached = lookup(key);
+                found.put(key, cached);
+                if (cached == null) {
+                    missing.add(key);
+                }
+            }
+            loadGeneration = generation;
+        }
+        if (!missing.isEmpty()) {
+            Map<K, V> loaded = loader.apply(missing);
+            for (K key : missing) {
+                V value = loaded.get(key);
+                if (value != null) {
+                    store(key, value, loadGeneration);
+                }
+                found.put(key, value);
+            }
+        }
+        found.values().removeIf(v -> v == null);
+        return found;
+    }
+
+    /**
+     * Removes the entries for the given keys.
+     *
+     * @param keys The keys to invalidate.
+     */
+    public synchronized void invalidateAll(Collection<K> keys) {
+        generation++;
+        keys.forEach(entries::remove);
+    }
+
+    /**
+     * Removes every entry whose key matches a condition.
+     *
+     * @param condition Selects the keys to invalidate.
+     */
+    public synchronized void invalidateIf(Predicate<K> condition) {
+        generation++;
+        entries.keySet().removeIf(condition);
+    }
+
+    /**
+     * Returns the counters of this cache.
+     *
+     * @param name Name reported with the counters.
+     * @return A snapshot of the hit, miss, eviction and expiration counts and the current size.
+     */
+    public synchronized CacheStatsDTO stats(String name) {
+        return new CacheStatsDTO(name, entries.size(), maxSize, hits, misses, evictions, expirations);
+    }
+
+    /**
+     * Returns the live value for a key, dropping it if it has expired, and counts the hit or miss.
+     */
+    private V lookup(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && clock.getAsLong() - entry.storedAt > ttlNanos) {
+            entries.remove(key);
+            expirations++;
+            entry = null;
+        }
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    /**
+     * Caches a loaded value unless the cache was invalidated after the load started.
+     */
+    private synchronized void store(K key, V value, long loadGeneration) {
+        if (generation == loadGeneration) {
+            entries.put(key, new Entry<>(value, clock.getAsLong()));
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long storedAt;
+
+        private Entry(V value, long storedAt) {
+            this.value = value;
+            this.storedAt = storedAt;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.doa.doajewelry.services;
+
+import com.doa.doajewelry.dtos.CursorPageDTO;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Keyset pagination shared by the list endpoints.
+ * Pages are ordered by ID and each one is fetched with "WHERE id > :afterId ORDER BY id",
+ * so deep pages cost the same as the first one. Cursors are opaque tokens wrapping
+ * the last ID of the previous page.
+ */
+@Component
+public class CursorPagination {
+
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    /**
+     * @param defaultPageSize Page size used when the client does not ask for one.
+     * @param maxPageSize     Largest page size a client may ask for; larger requests are capped.
+     */
+    public CursorPagination(@Value("${doajewelry.pagination.default-page-size:20}") int defaultPageSize,
+                            @Value("${doajewelry.pagination.max-page-size:100}") int maxPageSize) {
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    /**
+     * Decodes a cursor into the ID after which the page starts.
+     * 
+     * @param cursor The cursor from the previous page, or null for the first page.
+     * @return The last ID of the previous page, or 0 for the first page.
+     */
+    public long afterId(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    /**
+     * Returns the row limit for a page query.
+     * One row more than the page size is fetched to tell whether another page follows.
+     * 
+     * @param size The requested page size, or null for the default.
+     * @return The limit to pass to the repository.
+     */
+    public Limit limit(Integer size) {
+        return Limit.of(pageSize(size) + 1);
+    }
+
+    /**
+     * Builds a page from the rows returned by a page query.
+     * 
+     * @param rows       The rows fetched with {@link #limit(Integer)}, ordered by ID.
+     * @param size       The requested page size, or null for the default.
+     * @param idOf       Extracts the ID of a row.
+     * @param toDTO      Converts a row to its DTO.
+     * @param totalCount The total number of rows, or null if it was not requested.
+     * @return The page, with a cursor for the next one if more rows follow.
+     */
+    public <E, D> CursorPageDTO<D> page(List<E> rows, Integer size, Function<E, Long> idOf,
+                                        Function<E, D> toDTO, Long totalCount) {
+        int pageSize = pageSize(size);
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            nextCursor = encode(idOf.apply(rows.get(pageSize - 1)));
+        }
+        List<D> items = rows.stream().map(toDTO).collect(Collectors.toList());
+        return new CursorPageDTO<>(items, nextCursor, totalCount);
+    }
+
+    private int pageSize(Integer size) {
+        if (size == null) {
+            return Math.min(defaultPageSize, maxPageSize);
+        }
+        if (size < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Page size must be at least 1");
+        }
+        return Math.min(size, maxPageSize);
+    }
+
+    private static String encode(Long id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,63 @@
+package com.doa.doajewelry.services;
+
+import java.util.Locale;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+/**
+ * Negative-lookup filter for customer emails, consulted before querying the database.
+ * Filled with every stored email at startup and with each email saved afterwards,
+ * so an email it reports as absent is certainly not in use and needs no query.
+ * Emails of deleted customers stay in the filter and only cost a query when reused.
+ * Only sees the writes of this application instance.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class CustomerEmailFilter implements InitializingBean {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BloomFilter filter;
+
+    public CustomerEmailFilter(JdbcTemplate jdbcTemplate,
+                               @Value("${doajewelry.customers.email-filter.expected-entries:1000000}") long expectedEntries,
+                               @Value("${doajewelry.customers.email-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.filter = new BloomFilter(expectedEntries, falsePositiveRate);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        // Only the emails are read, and none of them are kept once added to the filter
+        jdbcTemplate.query("SELECT email FROM customers WHERE email IS NOT NULL",
+            (RowCallbackHandler) rs -> add(rs.getString(1)));
+    }
+
+    /**
+     * Records an email as in use.
+     *
+     * @param email The email, in any case; null is ignored.
+     */
+    public void add(String email) {
+        if (email != null) {
+            filter.add(normalize(email));
+        }
+    }
+
+    /**
+     * Checks whether an email may be in use.
+     *
+     * @param email The email, in any case.
+     * @return false if no customer has the email; true if one may have it and the database must be asked.
+     */
+    public boolean mightBeInUse(String email) {
+        return filter.mightContain(normalize(email));
+    }
+
+    private static String normalize(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,16 +1,24 @@
 package com.doa.doajewelry.services;
 
+import com.doa.doajewelry.dtos.CursorPageDTO;
 import com.doa.doajewelry.dtos.CustomerDTO;
+import com.doa.doajewelry.dtos.CustomerValidationDTO;
 import com.doa.doajewelry.entities.Customer;
 import com.doa.doajewelry.entities.embedded.Address;
 import com.doa.doajewelry.exceptions.DuplicateEmailException;
 import com.doa.doajewelry.exceptions.InvalidNIFException;
 import com.doa.doajewelry.repositories.CustomerRepository;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 /**
@@ -23,6 +31,20 @@ public class CustomerService {
     @Autowired
     private CustomerRepository customerRepository; // Injects the CustomerRepository for database interactions
 
+    @Autowired
+    private CursorPagination pagination; // Keyset pagination for the list endpoint
+
+    @Autowired
+    private SalesRollupService salesRollup; // Per-employee sales totals kept in step with the orders
+
+    @Autowired
+    private CustomerEmailFilter emailFilter; // Skips the email lookup for emails certainly not in use
+
+    /**
+     * Largest batch accepted by {@link #validateCustomers(List)}.
+     */
+    static final int MAX_VALIDATION_BATCH = 1000;
+
     /**
      * Creates a new customer.
      * Validates the uniqueness of NIF and email before saving.
@@ -35,19 +57,23 @@ public class CustomerService {
         validateEmailUniqueness(dto.getEmail()); // Ensures email is unique if provided
         Customer customer = convertToEntity(dto); // Converts DTO to Customer entity
         Customer savedCustomer = customerRepository.save(customer); // Saves the customer to the database
+        emailFilter.add(savedCustomer.getEmail());
         return convertToDTO(savedCustomer); // Converts the saved entity back to DTO
     }
 
     /**
-     * Retrieves all customers from the database.
+     * Retrieves one page of customers, ordered by ID.
      * 
-     * @return List of CustomerDTOs representing all customers.
+     * @param cursor       Cursor returned with the previous page, or null for the first page.
+     * @param size         Requested page size, or null for the default.
+     * @param includeTotal Whether to count the matching rows across all pages.
+     * @return Page of CustomerDTOs.
      */
-    public List<CustomerDTO> getAllCustomers() {
-        return customerRepository.findAll()
-                .stream()
-                .map(this::convertToDTO) // Converts each Customer entity to DTO
-                .collect(Collectors.toList());
+    public CursorPageDTO<CustomerDTO> getAllCustomers(String cursor, Integer size, boolean includeTotal) {
+        List<Customer> customers = customerRepository.findByIdGreaterThanOrderByIdAsc(
+                pagination.afterId(cursor), pagination.limit(size));
+        return pagination.page(customers, size, Customer::getId, this::convertToDTO, // Converts each Customer entity to DTO
+                includeTotal ? customerRepository.count() : null);
     }
 
     /**
@@ -77,13 +103,14 @@ public class CustomerService {
             validateNIFUniqueness(dto.getNif());
         }
 
-        // If email is being changed, validate its uniqueness
-        if (!existingCustomer.getEmail().equals(dto.getEmail())) {
+        // If email is being changed (other than in case), validate its uniqueness
+        if (dto.getEmail() != null && !dto.getEmail().equalsIgnoreCase(existingCustomer.getEmail())) {
             validateEmailUniqueness(dto.getEmail());
         }
 
         updateEntityFromDTO(existingCustomer, dto); // Updates the existing entity with DTO values
         Customer updatedCustomer = customerRepository.save(existingCustomer); // Saves the updated customer
+        emailFilter.add(updatedCustomer.getEmail());
         return convertToDTO(updatedCustomer); // Converts the updated entity to DTO
     }
 
@@ -92,11 +119,57 @@ public class CustomerService {
      * 
      * @param id The ID of the customer to delete.
      */
+    @Transactional
     public void deleteCustomer(Long id) {
         Customer customer = findCustomerById(id); // Retrieves the customer or throws an exception if not found
+        customer.getOrders().forEach(salesRollup::removeOrder); // The customer's orders are deleted with it
         customerRepository.delete(customer); // Deletes the customer from the database
     }
 
+    /**
+     * Checks a batch of prospective customers' NIFs and emails against the stored customers with a single query.
+     * A NIF or email that appears earlier in the same batch is also reported as unavailable.
+     * 
+     * @param candidates The customers to check; only their NIF and email are used.
+     * @return One CustomerValidationDTO per candidate, in the same order.
+     */
+    public List<CustomerValidationDTO> validateCustomers(List<CustomerDTO> candidates) {
+        if (candidates.size() > MAX_VALIDATION_BATCH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + MAX_VALIDATION_BATCH + " customers can be validated at once");
+        }
+
+        Set<String> nifs = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        for (CustomerDTO candidate : candidates) {
+            if (candidate.getNif() != null) {
+                nifs.add(candidate.getNif());
+            }
+            if (candidate.getEmail() != null) {
+                emails.add(candidate.getEmail().toLowerCase(Locale.ROOT));
+            }
+        }
+
+        // Look up every NIF and email at once; an empty IN list is replaced by one that matches nothing
+        Set<String> takenNifs = new HashSet<>();
+        Set<String> takenEmails = new HashSet<>();
+        if (!nifs.isEmpty() || !emails.isEmpty()) {
+            customerRepository.findByNifInOrEmailIn(orNothing(nifs), orNothing(emails)).forEach(keys -> {
+                takenNifs.add(keys.getNif());
+                if (keys.getEmail() != null) {
+                    takenEmails.add(keys.getEmail().toLowerCase(Locale.ROOT));
+                }
+            });
+        }
+
+        // Set.add returns false for values already taken, either stored or earlier in the batch
+        return candidates.stream()
+                .map(c -> new CustomerValidationDTO(c.getNif(), c.getEmail(),
+                        c.getNif() != null && takenNifs.add(c.getNif()),
+                        c.getEmail() == null || takenEmails.add(c.getEmail().toLowerCase(Locale.ROOT))))
+                .collect(Collectors.toList());
+    }
+
     // Utility methods
 
     /**
@@ -112,17 +185,29 @@ public class CustomerService {
     }
 
     /**
-     * Validates that the provided email is unique across all customers.
+     * Validates that the provided email is unique across all customers, ignoring case.
+     * Emails the filter has never seen are accepted without querying the database.
      * 
      * @param email The email to validate.
      * @throws DuplicateEmailException if the email already exists.
      */
     private void validateEmailUniqueness(String email) {
-        if (email != null && customerRepository.findAll().stream().anyMatch(c -> email.equalsIgnoreCase(c.getEmail()))) {
+        if (email != null && emailFilter.mightBeInUse(email) && customerRepository.existsByEmailIgnoreCase(email)) {
             throw new DuplicateEmailException("Email already exists: " + email);
         }
     }
 
+    /**
+     * Returns the given values, or a collection holding only null if there are none,
+     * so that an IN predicate on them matches nothing instead of being empty.
+     * 
+     * @param values The values to look up.
+     * @return A non-empty collection.
+     */
+    private static Collection<String> orNothing(Set<String> values) {
+        return values.isEmpty() ? Collections.singleton(null) : values;
+    }
+
     /**
      * Finds a customer by ID.
      * 
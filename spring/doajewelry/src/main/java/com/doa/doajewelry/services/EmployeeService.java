@@ -1,15 +1,15 @@
 package com.doa.doajewelry.services;
 
+import com.doa.doajewelry.dtos.CursorPageDTO;
+import com.doa.doajewelry.dtos.DailySalesDTO;
 import com.doa.doajewelry.dtos.EmployeeDTO;
 import com.doa.doajewelry.entities.Employee;
 import com.doa.doajewelry.entities.Manager;
-import com.doa.doajewelry.entities.Order;
 import com.doa.doajewelry.entities.Salesperson;
 import com.doa.doajewelry.repositories.EmployeeRepository;
-import com.doa.doajewelry.repositories.OrderRepository;
 import java.time.LocalDate;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
@@ -23,17 +23,21 @@ import org.springframework.web.server.ResponseStatusException;
 public class EmployeeService {
 
     private final EmployeeRepository employeeRepository;
-    private final OrderRepository orderRepository;
+    private final SalesRollupService salesRollup;
+    private final CursorPagination pagination;
 
     /**
      * Constructor-based dependency injection for repositories.
      * 
      * @param employeeRepository Repository for Employee entities.
-     * @param orderRepository    Repository for Order entities.
+     * @param salesRollup        Precomputed sales totals per employee.
+     * @param pagination         Keyset pagination for the list endpoint.
      */
-    public EmployeeService(EmployeeRepository employeeRepository, OrderRepository orderRepository) {
+    public EmployeeService(EmployeeRepository employeeRepository, SalesRollupService salesRollup,
+                           CursorPagination pagination) {
         this.employeeRepository = employeeRepository;
-        this.orderRepository = orderRepository;
+        this.salesRollup = salesRollup;
+        this.pagination = pagination;
     }
 
     /**
@@ -90,15 +94,23 @@ public class EmployeeService {
     }
 
     /**
-     * Retrieves all Employees with additional information based on their type.
+     * Retrieves one page of Employees, ordered by ID, with additional information based on their type.
      * 
-     * @return List of EmployeeDTOs representing all employees.
+     * @param cursor       Cursor returned with the previous page, or null for the first page.
+     * @param size         Requested page size, or null for the default.
+     * @param includeTotal Whether to count the matching rows across all pages.
+     * @return Page of EmployeeDTOs.
      */
-    public List<EmployeeDTO> getAllEmployees() {
-        List<Employee> employees = employeeRepository.findAll();
-
-        return employees.stream()
-                .map(e -> {
+    public CursorPageDTO<EmployeeDTO> getAllEmployees(String cursor, Integer size, boolean includeTotal) {
+        List<Employee> employees = employeeRepository.findByIdGreaterThanOrderByIdAsc(
+                pagination.afterId(cursor), pagination.limit(size));
+        // One rollup query for every salesperson on the page
+        Map<Long, Double> totals = salesRollup.getTotalSales(employees.stream()
+                .filter(e -> e instanceof Salesperson)
+                .map(Employee::getId)
+                .toList());
+
+        return pagination.page(employees, size, Employee::getId, e -> {
                     EmployeeDTO dto = new EmployeeDTO();
                     dto.setId(e.getId());
                     dto.setNif(e.getNif());
@@ -113,14 +125,12 @@ public class EmployeeService {
                     } else if (e instanceof Salesperson) {
                         Salesperson s = (Salesperson) e;
                         dto.setEmployeeType("SALESPERSON");
-                        // Calculate totalSales for the Salesperson
-                        Double totalSales = calculateTotalSales(s);
-                        dto.setTotalSales(totalSales);
+                        dto.setTotalSales(totals.getOrDefault(s.getId(), 0.0));
                     }
 
                     return dto;
-                })
-                .collect(Collectors.toList());
+                },
+                includeTotal ? employeeRepository.count() : null);
     }
 
     /**
@@ -155,6 +165,24 @@ public class EmployeeService {
         return dto;
     }
 
+    /**
+     * Retrieves an Employee's sales per day within a date range, read from the sales rollup.
+     * 
+     * @param id   The ID of the employee.
+     * @param from The first day, inclusive.
+     * @param to   The last day, inclusive.
+     * @return One DailySalesDTO per day with sales, ordered by day.
+     */
+    public List<DailySalesDTO> getDailySales(Long id, LocalDate from, LocalDate to) {
+        if (!employeeRepository.existsById(id)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Employee not found");
+        }
+        if (from.isAfter(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Start date is after end date");
+        }
+        return salesRollup.getDailySales(id, from, to);
+    }
+
     /**
      * Updates an existing Employee (Manager or Salesperson).
      * Handles conversion between employee types if necessary.
@@ -248,15 +276,12 @@ public class EmployeeService {
     }
 
     /**
-     * Calculates the total sales for a Salesperson by summing up the total amounts of their associated orders.
+     * Reads the total sales for a Salesperson from the sales rollup.
      * 
-     * @param s The Salesperson for whom to calculate total sales.
+     * @param s The Salesperson for whom to look up total sales.
      * @return The total sales amount.
      */
     private Double calculateTotalSales(Salesperson s) {
-        List<Order> orders = orderRepository.findAllByEmployee(s); // Retrieves all orders associated with the salesperson
-        return orders.stream()
-                .mapToDouble(Order::getTotalAmount) // Sums up the total amounts of these orders
-                .sum();
+        return salesRollup.getTotalSales(s.getId());
     }
 }
@@ -0,0 +1,211 @@
+package com.doa.doajewelry.services;
+
+import com.doa.doajewelry.dtos.OrderDTO;
+import com.doa.doajewelry.dtos.PaymentDTO;
+import com.doa.doajewelry.entities.Order;
+import com.doa.doajewelry.entities.Payment;
+import com.doa.doajewelry.repositories.OrderRepository;
+import com.doa.doajewelry.repositories.PaymentRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service layer for exporting all Orders and Payments.
+ * Rows are read through a forward-only database cursor and written to the output as they arrive,
+ * and the persistence context is cleared as the export goes, so memory use stays flat
+ * whatever the size of the tables.
+ */
+@Service
+public class ExportService {
+
+    /**
+     * Output formats supported by the exports.
+     */
+    public enum Format {
+        /** One JSON object per line. */
+        NDJSON,
+        /** Comma-separated values with a header row. */
+        CSV
+    }
+
+    /**
+     * Rows written per chunk between clearing the persistence context; matches the fetch size of the streaming queries.
+     */
+    private static final int CLEAR_EVERY = 500;
+
+    private static final List<String> ORDER_COLUMNS =
+        List.of("id", "date", "status", "customerId", "employeeId", "jewelryIds", "items", "totalAmount");
+    private static final List<String> PAYMENT_COLUMNS =
+        List.of("id", "amount", "date", "method", "status", "orderId");
+
+    private final OrderRepository orderRepository;
+    private final PaymentRepository paymentRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Constructor-based dependency injection.
+     * 
+     * @param orderRepository   Repository for Order entities.
+     * @param paymentRepository Repository for Payment entities.
+     * @param entityManager     Entity manager whose persistence context is cleared during exports.
+     * @param objectMapper      Mapper used to serialise the NDJSON rows.
+     */
+    public ExportService(OrderRepository orderRepository, PaymentRepository paymentRepository,
+                         EntityManager entityManager, ObjectMapper objectMapper) {
+        this.orderRepository = orderRepository;
+        this.paymentRepository = paymentRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes every Order, in ID order, to the given output.
+     * 
+     * @param format The output format.
+     * @param out    The stream to write to; it is flushed but not closed.
+     * @throws IOException If writing to the output fails.
+     */
+    @Transactional(readOnly = true)
+    public void exportOrders(Format format, OutputStream out) throws IOException {
+        try (Stream<Order> orders = orderRepository.streamAll()) {
+            export(orders.iterator(), this::fetchItems, OrderDTO::fromEntity, format, out, ORDER_COLUMNS, dto -> Arrays.asList(
+                dto.getId(), dto.getDate(), dto.getStatus(), dto.getCustomerId(), dto.getEmployeeId(),
+                // Several IDs in one CSV field, separated by spaces
+                dto.getJewelryIds() == null ? null : dto.getJewelryIds().stream()
+                    .sorted()
+                    .map(String::valueOf)
+                    .collect(Collectors.joining(" ")),
+                // Each line as jewelryId:quantity, separated by spaces
+                dto.getItems() == null ? null : dto.getItems().stream()
+                    .map(line -> line.getJewelryId() + ":" + line.getQuantity())
+                    .collect(Collectors.joining(" ")),
+                dto.getTotalAmount()));
+        }
+    }
+
+    /**
+     * Writes every Payment, in ID order, to the given output.
+     * 
+     * @param format The output format.
+     * @param out    The stream to write to; it is flushed but not closed.
+     * @throws IOException If writing to the output fails.
+     */
+    @Transactional(readOnly = true)
+    public void exportPayments(Format format, OutputStream out) throws IOException {
+        try (Stream<Payment> payments = paymentRepository.streamAll()) {
+            export(payments.iterator(), chunk -> { }, PaymentDTO::fromEntity, format, out, PAYMENT_COLUMNS, dto -> Arrays.asList(
+                dto.getId(), dto.getAmount(), dto.getDate(), dto.getMethod(), dto.getStatus(), dto.getOrderId()));
+        }
+    }
+
+    /**
+     * Loads the jewelry items of a chunk of exported orders with one query.
+     * 
+     * @param orders The orders about to be written.
+     */
+    private void fetchItems(List<Order> orders) {
+        orderRepository.findAllWithItemsByIdIn(orders.stream().map(Order::getId).collect(Collectors.toList()));
+    }
+
+    /**
+     * Converts each row to its DTO and writes it in the requested format.
+     * Rows are handled in chunks: each chunk is prepared, written, flushed to the output
+     * and then dropped from the persistence context.
+     * 
+     * @param rows     The rows to export, read from a database cursor.
+     * @param prepare  Loads whatever the rows of a chunk need for their DTOs.
+     * @param toDTO    Converts a row to its DTO.
+     * @param format   The output format.
+     * @param out      The stream to write to.
+     * @param columns  The CSV header.
+     * @param toValues Converts a DTO to its CSV values, in header order.
+     * @throws IOException If writing to the output fails.
+     */
+    private <E, D> void export(Iterator<E> rows, Consumer<List<E>> prepare, Function<E, D> toDTO, Format format,
+                               OutputStream out, List<String> columns, Function<D, List<Object>> toValues)
+            throws IOException {
+        JsonGenerator generator = null;
+        Writer writer = null;
+        if (format == Format.CSV) {
+            writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writeCsvLine(writer, columns);
+        } else {
+            generator = objectMapper.getFactory().createGenerator(out);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setPrettyPrinter(new MinimalPrettyPrinter("")); // Line breaks are written after each row instead
+        }
+
+        List<E> chunk = new ArrayList<>(CLEAR_EVERY);
+        while (rows.hasNext()) {
+            chunk.add(rows.next());
+            if (chunk.size() < CLEAR_EVERY && rows.hasNext()) {
+                continue;
+            }
+
+            prepare.accept(chunk);
+            for (E row : chunk) {
+                D dto = toDTO.apply(row);
+                if (generator != null) {
+                    generator.writeObject(dto);
+                    generator.writeRaw('\n');
+                } else {
+                    writeCsvLine(writer, toValues.apply(dto));
+                }
+            }
+
+            // Send what has been written so far and drop the exported rows from the persistence context
+            if (generator != null) {
+                generator.flush();
+            } else {
+                writer.flush();
+            }
+            entityManager.clear();
+            chunk.clear();
+        }
+
+        // An empty export still gets its CSV header
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    /**
+     * Writes one CSV line, quoting values that contain separators, quotes or line breaks.
+     * 
+     * @param writer The writer to write to.
+     * @param values The values of the line; nulls are written as empty fields.
+     * @throws IOException If writing fails.
+     */
+    private static void writeCsvLine(Writer writer, List<?> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            String value = values.get(i) == null ? "" : values.get(i).toString();
+            if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+                value = '"' + value.replace("\"", "\"\"") + '"';
+            }
+            writer.write(value);
+        }
+        writer.write("\r\n");
+    }
+}
@@ -0,0 +1,181 @@
+package com.doa.doajewelry.services;
+
+import com.doa.doajewelry.dtos.CacheStatsDTO;
+import com.doa.doajewelry.dtos.JewelryDTO;
+import com.doa.doajewelry.entities.enums.JewelryType;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * In-process cache for the jewelry catalogue.
+ * Holds jewelry items by ID, the IDs on each listing page and the number of items per type.
+ * Listing pages only store IDs, so a change to one item (such as its stock) only invalidates that item;
+ * listings and counts are only invalidated when items are created, deleted or change type.
+ *
+ * Invalidations run immediately and again once the surrounding transaction commits,
+ * so readers cannot re-cache a value that a transaction still in flight is about to change.
+ */
+@Component
+public class JewelryCache {
+
+    private final BoundedCache<Long, JewelryDTO> items;
+    private final BoundedCache<ListingKey, List<Long>> listings;
+    private final BoundedCache<JewelryType, Long> counts; // The null type counts all jewelry
+
+    public JewelryCache(@Value("${doajewelry.cache.jewelry.max-size:10000}") int itemMaxSize,
+                        @Value("${doajewelry.cache.jewelry.ttl:10m}") Duration itemTtl,
+                        @Value("${doajewelry.cache.jewelry-listings.max-size:1000}") int listingMaxSize,
+                        @Value("${doajewelry.cache.jewelry-listings.ttl:1m}") Duration listingTtl) {
+        this.items = new BoundedCache<>(itemMaxSize, itemTtl);
+        this.listings = new BoundedCache<>(listingMaxSize, listingTtl);
+        this.counts = new BoundedCache<>(JewelryType.values().length + 1, listingTtl);
+    }
+
+    /**
+     * Returns a jewelry item, loading it on a miss.
+     *
+     * @param id     The ID of the jewelry item.
+     * @param loader Loads the item; returns null if it does not exist.
+     * @return The jewelry item, or null if it does not exist.
+     */
+    public JewelryDTO getItem(Long id, Function<Long, JewelryDTO> loader) {
+        return items.get(id, loader);
+    }
+
+    /**
+     * Returns the jewelry items with the given IDs, loading all missing ones with one call.
+     *
+     * @param ids    The IDs of the jewelry items.
+     * @param loader Loads the missing items keyed by ID.
+     * @return The items that exist, in the order of the given IDs.
+     */
+    public List<JewelryDTO> getItems(List<Long> ids, Function<List<Long>, Map<Long, JewelryDTO>> loader) {
+        return List.copyOf(items.getAll(ids, loader).values());
+    }
+
+    /**
+     * Returns the IDs on one listing page, loading them on a miss.
+     *
+     * @param type    The jewelry type listed, or null for all jewelry.
+     * @param afterId The last ID of the previous page.
+     * @param limit   The number of rows fetched for the page.
+     * @param loader  Loads the IDs on the page.
+     * @return The IDs on the page in ID order.
+     */
+    public List<Long> getListing(JewelryType type, long afterId, int limit, Supplier<List<Long>> loader) {
+        return listings.get(new ListingKey(type, afterId, limit), key -> List.copyOf(loader.get()));
+    }
+
+    /**
+     * Returns the number of jewelry items of a type, counting them on a miss.
+     *
+     * @param type   The jewelry type, or null for all jewelry.
+     * @param loader Counts the items.
+     * @return The number of items.
+     */
+    public long getCount(JewelryType type, Supplier<Long> loader) {
+        return counts.get(type, key -> loader.get());
+    }
+
+    /**
+     * Invalidates jewelry items whose fields, such as stock or price, changed.
+     *
+     * @param ids The IDs of the changed items.
+     */
+    public void itemsChanged(Collection<Long> ids) {
+        List<Long> changed = List.copyOf(ids);
+        invalidate(() -> items.invalidateAll(changed));
+    }
+
+    /**
+     * Invalidates a jewelry item that was created, deleted or changed type, along with the
+     * listings and counts it appears or appeared in.
+     *
+     * @param id    The ID of the item.
+     * @param types The types the item had before and after the change; null entries are ignored.
+     */
+    public void membershipChanged(Long id, JewelryType... types) {
+        List<JewelryType> affected = Arrays.stream(types).filter(Objects::nonNull).toList();
+        invalidate(() -> {
+            items.invalidateAll(List.of(id));
+            listings.invalidateIf(key -> key.type == null || affected.contains(key.type));
+            counts.invalidateIf(type -> type == null || affected.contains(type));
+        });
+    }
+
+    /**
+     * Invalidates the listings and counts of the given types, for items created in bulk.
+     * New items have never been cached, so no item entries are touched.
+     *
+     * @param types The types of the created items.
+     */
+    public void listingsChanged(Collection<JewelryType> types) {
+        List<JewelryType> affected = List.copyOf(types);
+        invalidate(() -> {
+            listings.invalidateIf(key -> key.type == null || affected.contains(key.type));
+            counts.invalidateIf(type -> type == null || affected.contains(type));
+        });
+    }
+
+    /**
+     * Returns the counters of the item, listing and count caches.
+     *
+     * @return One CacheStatsDTO per cache.
+     */
+    public List<CacheStatsDTO> stats() {
+        return List.of(items.stats("jewelry"), listings.stats("jewelry-listings"), counts.stats("jewelry-counts"));
+    }
+
+    /**
+     * Runs an invalidation now and, inside a transaction, again after it commits.
+     */
+    private void invalidate(Runnable invalidation) {
+        invalidation.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidation.run();
+                }
+            });
+        }
+    }
+
+    /**
+     * Identifies one listing page.
+     */
+    private static final class ListingKey {
+        private final JewelryType type;
+        private final long afterId;
+        private final int limit;
+
+        private ListingKey(JewelryType type, long afterId, int limit) {
+            this.type = type;
+            this.afterId = afterId;
+            this.limit = limit;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ListingKey)) return false;
+            ListingKey other = (ListingKey) o;
+            return type == other.type && afterId == other.afterId && limit == other.limit;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, afterId, limit);
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.doa.doajewelry.services;
+
+import com.doa.doajewelry.dtos.ImportErrorDTO;
+import com.doa.doajewelry.dtos.ImportReportDTO;
+import com.doa.doajewelry.dtos.JewelryDTO;
+import com.doa.doajewelry.entities.Jewelry;
+import com.doa.doajewelry.entities.enums.JewelryCategory;
+import com.doa.doajewelry.entities.enums.JewelryType;
+import com.doa.doajewelry.repositories.JewelryRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Service layer for importing jewelry items in bulk.
+ * The upload is read one line at a time and each row is validated on its own; valid rows are
+ * collected into batches that are inserted, and committed, one batch at a time. Only the current
+ * batch and a bounded number of errors are held in memory, whatever the size of the upload.
+ */
+@Service
+public class JewelryImportService {
+
+    /**
+     * Input formats supported by the import.
+     */
+    public enum Format {
+        /** One JewelryDTO as a JSON object per line. */
+        NDJSON,
+        /** Lines of type,id,name,material,weight,price,stockQuantity,category,detail as in data/jewelry.csv. */
+        CSV
+    }
+
+    private static final int CSV_FIELDS = 9;
+
+    private final JewelryRepository jewelryRepository;
+    private final JewelryCache cache;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final int batchSize;
+    private final int maxReportedErrors;
+
+    /**
+     * Constructor-based dependency injection.
+     * 
+     * @param jewelryRepository Repository that inserts the batches.
+     * @param cache             Cache whose listings are invalidated as batches are committed.
+     * @param objectMapper      Mapper used to read the NDJSON rows.
+     * @param validator         Validator applying the JewelryDTO constraints to each row.
+     * @param batchSize         Rows inserted per transaction.
+     * @param maxReportedErrors Rejected rows listed in the report; further ones are only counted.
+     */
+    public JewelryImportService(JewelryRepository jewelryRepository, JewelryCache cache, ObjectMapper objectMapper,
+                                Validator validator,
+                                @Value("${doajewelry.import.batch-size:1000}") int batchSize,
+                                @Value("${doajewelry.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.jewelryRepository = jewelryRepository;
+        this.cache = cache;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    /**
+     * Imports the jewelry items in an upload.
+     * Invalid rows are skipped and reported; the valid ones are imported. Every completed batch
+     * stays committed if a later batch fails or the upload is cut off.
+     * 
+     * @param format The input format.
+     * @param in     The upload; read to the end but not closed.
+     * @return The number of rows read, imported and rejected, with the reason each row was rejected.
+     * @throws IOException If reading the upload fails.
+     */
+    public ImportReportDTO importJewelry(Format format, InputStream in) throws IOException {
+        ImportReportDTO report = new ImportReportDTO();
+        List<Jewelry> batch = new ArrayList<>(batchSize);
+        List<Long> batchLines = new ArrayList<>(batchSize);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || (lineNumber == 1 && format == Format.CSV && isCsvHeader(line))) {
+                continue;
+            }
+            report.setRowsRead(report.getRowsRead() + 1);
+
+            try {
+                JewelryDTO dto = format == Format.CSV ? parseCsvRow(line) : objectMapper.readValue(line, JewelryDTO.class);
+                if (dto == null) {
+                    throw new IllegalArgumentException("Row is empty");
+                }
+                Set<ConstraintViolation<JewelryDTO>> violations = validator.validate(dto);
+                if (!violations.isEmpty()) {
+                    throw new IllegalArgumentException(violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+                }
+                batch.add(JewelryService.toEntity(dto)); // Checks the type-specific fields
+                batchLines.add(lineNumber);
+            } catch (JsonProcessingException e) {
+                reject(report, lineNumber, e.getOriginalMessage());
+            } catch (IllegalArgumentException e) {
+                reject(report, lineNumber, e.getMessage());
+            } catch (ResponseStatusException e) {
+                reject(report, lineNumber, e.getReason());
+            }
+
+            if (batch.size() >= batchSize) {
+                insert(batch, batchLines, report);
+            }
+        }
+        insert(batch, batchLines, report);
+        return report;
+    }
+
+    /**
+     * Inserts and commits one batch, then empties it.
+     * If the insert fails the batch is rolled back and each of its rows is reported.
+     */
+    private void insert(List<Jewelry> batch, List<Long> batchLines, ImportReportDTO report) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            jewelryRepository.insertAll(batch);
+            report.setImported(report.getImported() + batch.size());
+            // The new items appear in listings; they were never cached themselves
+            cache.listingsChanged(batch.stream().map(JewelryService::typeOf).collect(Collectors.toSet()));
+        } catch (DataAccessException e) {
+            String message = "Batch not saved: " + e.getMostSpecificCause().getMessage();
+            batchLines.forEach(line -> reject(report, line, message));
+        }
+        batch.clear();
+        batchLines.clear();
+    }
+
+    /**
+     * Counts a rejected row and lists it in the report while there is room.
+     */
+    private void reject(ImportReportDTO report, long line, String message) {
+        report.setRejected(report.getRejected() + 1);
+        if (report.getErrors().size() < maxReportedErrors) {
+            report.getErrors().add(new ImportErrorDTO(line, message));
+        } else {
+            report.setErrorsTruncated(true);
+        }
+    }
+
+    private static boolean isCsvHeader(String line) {
+        String first = splitCsvLine(line).get(0).trim();
+        return first.equalsIgnoreCase("type") || first.equalsIgnoreCase("jewelryType");
+    }
+
+    /**
+     * Parses one CSV row in the layout of data/jewelry.csv.
+     * The ID column is ignored, since imported items get new IDs. The last column holds the
+     * length of a necklace, the clasp type of an earring or the size of a ring.
+     * 
+     * @param line The CSV line.
+     * @return The row as a JewelryDTO, not yet validated.
+     * @throws IllegalArgumentException If the row has the wrong number of fields or a value cannot be parsed.
+     */
+    static JewelryDTO parseCsvRow(String line) {
+        List<String> fields = splitCsvLine(line);
+        if (fields.size() != CSV_FIELDS) {
+            throw new IllegalArgumentException("Expected " + CSV_FIELDS + " fields but found " + fields.size());
+        }
+
+        JewelryDTO dto = new JewelryDTO();
+        dto.setJewelryType(parseEnum(JewelryType.class, "jewelry type", fields.get(0)));
+        dto.setName(fields.get(2));
+        dto.setMaterial(fields.get(3));
+        dto.setWeight(parseDouble("weight", fields.get(4)));
+        dto.setPrice(parseDouble("price", fields.get(5)));
+        dto.setStockQuantity(parseInteger("stock quantity", fields.get(6)));
+        dto.setCategory(parseEnum(JewelryCategory.class, "category", fields.get(7)));
+
+        String detail = fields.get(8);
+        if (dto.getJewelryType() == JewelryType.NECKLACE) {
+            dto.setLength(parseDouble("length", detail));
+        } else if (dto.getJewelryType() == JewelryType.EARRING) {
+            dto.setClaspType(detail);
+        } else if (dto.getJewelryType() == JewelryType.RING) {
+            dto.setSize(detail);
+        }
+        return dto;
+    }
+
+    /**
+     * Splits a CSV line into fields. Quoted fields may contain commas and doubled quotes,
+     * but not line breaks.
+     */
+    static List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static Double parseDouble(String name, String value) {
+        if (value.isBlank()) {
+            return null; // Reported by the validator or the type-specific checks
+        }
+        try {
+            return Double.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + " '" + value + "'");
+        }
+    }
+
+    private static Integer parseInteger(String name, String value) {
+        if (value.isBlank()) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + " '" + value + "'");
+        }
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String name, String value) {
+        if (value.isBlank()) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid " + name + " '" + value + "'");
+        }
+    }
+}
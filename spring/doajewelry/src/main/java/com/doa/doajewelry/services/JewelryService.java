@@ -1,5 +1,7 @@
 package com.doa.doajewelry.services;
 
+import com.doa.doajewelry.dtos.CacheStatsDTO;
+import com.doa.doajewelry.dtos.CursorPageDTO;
 import com.doa.doajewelry.dtos.JewelryDTO;
 import com.doa.doajewelry.entities.Earring;
 import com.doa.doajewelry.entities.Jewelry;
@@ -8,7 +10,9 @@ import com.doa.doajewelry.entities.Ring;
 import com.doa.doajewelry.entities.enums.JewelryType;
 import com.doa.doajewelry.repositories.JewelryRepository;
 import java.util.List;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -23,14 +27,20 @@ import org.springframework.web.server.ResponseStatusException;
 public class JewelryService {
 
     private final JewelryRepository jewelryRepository;
+    private final CursorPagination pagination;
+    private final JewelryCache cache;
 
     /**
      * Constructor-based dependency injection for the JewelryRepository.
      * 
      * @param jewelryRepository Repository for Jewelry entities.
+     * @param pagination        Keyset pagination for the list endpoints.
+     * @param cache             Cache for jewelry items and listings.
      */
-    public JewelryService(JewelryRepository jewelryRepository) {
+    public JewelryService(JewelryRepository jewelryRepository, CursorPagination pagination, JewelryCache cache) {
         this.jewelryRepository = jewelryRepository;
+        this.pagination = pagination;
+        this.cache = cache;
     }
 
     /**
@@ -42,81 +52,29 @@ public class JewelryService {
      */
     @Transactional
     public JewelryDTO createJewelry(JewelryDTO dto) {
-        // Validate that jewelryType and category are provided
-        if (dto.getJewelryType() == null)
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Jewelry type required");
-        if (dto.getCategory() == null)
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Category required");
-
-        Jewelry j;
-        // Determine the type of jewelry to create based on jewelryType field
-        switch (dto.getJewelryType()) {
-            case NECKLACE:
-                // Validate that length is provided for Necklaces
-                if (dto.getLength() == null)
-                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Length is required for Necklace");
-                Necklace n = new Necklace();
-                n.setName(dto.getName());
-                n.setMaterial(dto.getMaterial());
-                n.setWeight(dto.getWeight());
-                n.setPrice(dto.getPrice());
-                n.setStockQuantity(dto.getStockQuantity());
-                n.setCategory(dto.getCategory());
-                n.setLength(dto.getLength());
-                j = n;
-                break;
-
-            case EARRING:
-                // Validate that claspType is provided for Earrings
-                if (dto.getClaspType() == null || dto.getClaspType().isEmpty())
-                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Clasp Type is required for Earring");
-                Earring e = new Earring();
-                e.setName(dto.getName());
-                e.setMaterial(dto.getMaterial());
-                e.setWeight(dto.getWeight());
-                e.setPrice(dto.getPrice());
-                e.setStockQuantity(dto.getStockQuantity());
-                e.setCategory(dto.getCategory());
-                e.setClaspType(dto.getClaspType());
-                j = e;
-                break;
-
-            case RING:
-                // Validate that size is provided for Rings
-                if (dto.getSize() == null || dto.getSize().isEmpty())
-                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Size is required for Ring");
-                Ring r = new Ring();
-                r.setName(dto.getName());
-                r.setMaterial(dto.getMaterial());
-                r.setWeight(dto.getWeight());
-                r.setPrice(dto.getPrice());
-                r.setStockQuantity(dto.getStockQuantity());
-                r.setCategory(dto.getCategory());
-                r.setSize(dto.getSize());
-                j = r;
-                break;
-
-            default:
-                // If jewelryType is invalid, throw an exception
-                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported jewelry type");
-        }
+        Jewelry j = toEntity(dto);
 
         // Save the Jewelry entity to the database
         Jewelry saved = jewelryRepository.save(j);
+        cache.membershipChanged(saved.getId(), dto.getJewelryType()); // The new item appears in listings
         dto.setId(saved.getId()); // Populate the DTO with the generated ID
         return dto;
     }
 
     /**
-     * Retrieves all Jewelry items from the database.
+     * Retrieves one page of Jewelry items, ordered by ID.
      * 
-     * @return List of JewelryDTOs representing all jewelry items.
+     * @param cursor       Cursor returned with the previous page, or null for the first page.
+     * @param size         Requested page size, or null for the default.
+     * @param includeTotal Whether to count the matching rows across all pages.
+     * @return Page of JewelryDTOs.
      */
-    public List<JewelryDTO> getAllJewelry() {
-        return jewelryRepository.findAll()
-            .stream()
-            .map(JewelryDTO::fromEntity) // Converts each Jewelry entity to DTO using the static method
-            .collect(Collectors.toList());
+    public CursorPageDTO<JewelryDTO> getAllJewelry(String cursor, Integer size, boolean includeTotal) {
+        long afterId = pagination.afterId(cursor);
+        Limit limit = pagination.limit(size);
+        List<Long> ids = cache.getListing(null, afterId, limit.max(), () -> jewelryRepository.findIdPage(afterId, limit));
+        return pagination.page(cachedItems(ids), size, JewelryDTO::getId, Function.identity(),
+            includeTotal ? cache.getCount(null, jewelryRepository::count) : null);
     }
 
     /**
@@ -126,45 +84,52 @@ public class JewelryService {
      * @return JewelryDTO of the found jewelry item.
      */
     public JewelryDTO getJewelry(Long id) {
-        Jewelry j = jewelryRepository.findById(id)
-            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Jewelry not found"));
-        
-        // Convert the Jewelry entity to DTO using the static method
-        return JewelryDTO.fromEntity(j);
+        // Served from the cache; on a miss, load the entity and convert it to DTO using the static method
+        JewelryDTO dto = cache.getItem(id, key -> jewelryRepository.findById(key).map(JewelryDTO::fromEntity).orElse(null));
+        if (dto == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Jewelry not found");
+        }
+        return dto;
     }
 
     /**
-     * Retrieves all Jewelry items of a specific type.
+     * Retrieves one page of Jewelry items of a specific type, ordered by ID.
      * 
-     * @param type The type of jewelry to retrieve (NECKLACE, EARRING, RING).
-     * @return List of JewelryDTOs matching the specified type.
+     * @param type         The type of jewelry to retrieve (NECKLACE, EARRING, RING).
+     * @param cursor       Cursor returned with the previous page, or null for the first page.
+     * @param size         Requested page size, or null for the default.
+     * @param includeTotal Whether to count the matching rows across all pages.
+     * @return Page of JewelryDTOs matching the specified type.
      */
-    public List<JewelryDTO> getAllByType(JewelryType type) {
+    public CursorPageDTO<JewelryDTO> getAllByType(JewelryType type, String cursor, Integer size, boolean includeTotal) {
         if (type == null) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Jewelry type must be specified");
         }
 
-        List<? extends Jewelry> jewelryList;
+        Class<? extends Jewelry> clazz;
 
-        // Fetch jewelry based on the specified type using repository methods
+        // Determine the entity class for the specified type
         switch (type) {
             case NECKLACE:
-                jewelryList = jewelryRepository.findAllByType(Necklace.class);
+                clazz = Necklace.class;
                 break;
             case EARRING:
-                jewelryList = jewelryRepository.findAllByType(Earring.class);
+                clazz = Earring.class;
                 break;
             case RING:
-                jewelryList = jewelryRepository.findAllByType(Ring.class);
+                clazz = Ring.class;
                 break;
             default:
                 throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported jewelry type");
         }
 
-        // Convert each Jewelry entity to DTO
-        return jewelryList.stream()
-            .map(JewelryDTO::fromEntity)
-            .collect(Collectors.toList());
+        // Fetch the IDs on a page of jewelry of that type, then the items themselves
+        long afterId = pagination.afterId(cursor);
+        Limit limit = pagination.limit(size);
+        List<Long> ids = cache.getListing(type, afterId, limit.max(),
+            () -> jewelryRepository.findIdPageByType(clazz, afterId, limit));
+        return pagination.page(cachedItems(ids), size, JewelryDTO::getId, Function.identity(),
+            includeTotal ? cache.getCount(type, () -> jewelryRepository.countByType(clazz)) : null);
     }
 
     /**
@@ -188,17 +153,8 @@ public class JewelryService {
         j.setStockQuantity(dto.getStockQuantity());
         j.setCategory(dto.getCategory());
 
-        JewelryType currentType;
         // Determine the current type of the jewelry item
-        if (j instanceof Necklace) {
-            currentType = JewelryType.NECKLACE;
-        } else if (j instanceof Earring) {
-            currentType = JewelryType.EARRING;
-        } else if (j instanceof Ring) {
-            currentType = JewelryType.RING;
-        } else {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown jewelry type");
-        }
+        JewelryType currentType = typeOf(j);
 
         JewelryType newType = dto.getJewelryType();
         if (newType == null) {
@@ -289,6 +245,11 @@ public class JewelryService {
 
         // Save the updated Jewelry entity
         Jewelry saved = jewelryRepository.save(j);
+        if (currentType.equals(newType)) {
+            cache.itemsChanged(List.of(saved.getId()));
+        } else {
+            cache.membershipChanged(saved.getId(), currentType, newType); // Moves between type listings
+        }
         dto.setId(saved.getId()); // Populate the DTO with the generated ID
         return dto;
     }
@@ -298,9 +259,118 @@ public class JewelryService {
      * 
      * @param id The ID of the jewelry item to delete.
      */
+    @Transactional
     public void deleteJewelry(Long id) {
         Jewelry j = jewelryRepository.findById(id)
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Jewelry not found"));
         jewelryRepository.delete(j); // Deletes the jewelry item from the database
+        cache.membershipChanged(id, typeOf(j));
+    }
+
+    /**
+     * Returns the hit, miss and eviction counters of the jewelry caches.
+     * 
+     * @return One CacheStatsDTO per cache.
+     */
+    public List<CacheStatsDTO> getCacheStats() {
+        return cache.stats();
+    }
+
+    /**
+     * Builds a new Jewelry entity of the type given in a DTO.
+     * Validates required fields specific to each jewelry type.
+     * 
+     * @param dto Data Transfer Object containing jewelry details.
+     * @return The unsaved Jewelry entity.
+     */
+    static Jewelry toEntity(JewelryDTO dto) {
+        // Validate that jewelryType and category are provided
+        if (dto.getJewelryType() == null)
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Jewelry type required");
+        if (dto.getCategory() == null)
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Category required");
+
+        Jewelry j;
+        // Determine the type of jewelry to create based on jewelryType field
+        switch (dto.getJewelryType()) {
+            case NECKLACE:
+                // Validate that length is provided for Necklaces
+                if (dto.getLength() == null)
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Length is required for Necklace");
+                Necklace n = new Necklace();
+                n.setName(dto.getName());
+                n.setMaterial(dto.getMaterial());
+                n.setWeight(dto.getWeight());
+                n.setPrice(dto.getPrice());
+                n.setStockQuantity(dto.getStockQuantity());
+                n.setCategory(dto.getCategory());
+                n.setLength(dto.getLength());
+                j = n;
+                break;
+
+            case EARRING:
+                // Validate that claspType is provided for Earrings
+                if (dto.getClaspType() == null || dto.getClaspType().isEmpty())
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Clasp Type is required for Earring");
+                Earring e = new Earring();
+                e.setName(dto.getName());
+                e.setMaterial(dto.getMaterial());
+                e.setWeight(dto.getWeight());
+                e.setPrice(dto.getPrice());
+                e.setStockQuantity(dto.getStockQuantity());
+                e.setCategory(dto.getCategory());
+                e.setClaspType(dto.getClaspType());
+                j = e;
+                break;
+
+            case RING:
+                // Validate that size is provided for Rings
+                if (dto.getSize() == null || dto.getSize().isEmpty())
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Size is required for Ring");
+                Ring r = new Ring();
+                r.setName(dto.getName());
+                r.setMaterial(dto.getMaterial());
+                r.setWeight(dto.getWeight());
+                r.setPrice(dto.getPrice());
+                r.setStockQuantity(dto.getStockQuantity());
+                r.setCategory(dto.getCategory());
+                r.setSize(dto.getSize());
+                j = r;
+                break;
+
+            default:
+                // If jewelryType is invalid, throw an exception
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported jewelry type");
+        }
+
+        return j;
+    }
+
+    /**
+     * Returns the jewelry items with the given IDs, loading the ones not cached with a single query.
+     * 
+     * @param ids The IDs of the jewelry items.
+     * @return JewelryDTOs of the items that exist, in the order of the given IDs.
+     */
+    private List<JewelryDTO> cachedItems(List<Long> ids) {
+        return cache.getItems(ids, missing -> jewelryRepository.findAllById(missing).stream()
+            .collect(Collectors.toMap(Jewelry::getId, JewelryDTO::fromEntity)));
+    }
+
+    /**
+     * Determines the type of a jewelry item from its entity class.
+     * 
+     * @param j The jewelry item.
+     * @return The JewelryType matching its class.
+     */
+    static JewelryType typeOf(Jewelry j) {
+        if (j instanceof Necklace) {
+            return JewelryType.NECKLACE;
+        } else if (j instanceof Earring) {
+            return JewelryType.EARRING;
+        } else if (j instanceof Ring) {
+            return JewelryType.RING;
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown jewelry type");
     }
 }
@@ -1,20 +1,26 @@
 package com.doa.doajewelry.services;
 
+import com.doa.doajewelry.dtos.CursorPageDTO;
 import com.doa.doajewelry.dtos.OrderDTO;
-import com.doa.doajewelry.entities.Customer;
+import com.doa.doajewelry.dtos.OrderLineDTO;
 import com.doa.doajewelry.entities.Employee;
 import com.doa.doajewelry.entities.Jewelry;
 import com.doa.doajewelry.entities.Order;
 import com.doa.doajewelry.entities.enums.OrderStatus;
+import com.doa.doajewelry.exceptions.OutOfStockException;
 import com.doa.doajewelry.repositories.CustomerRepository;
 import com.doa.doajewelry.repositories.EmployeeRepository;
 import com.doa.doajewelry.repositories.JewelryRepository;
 import com.doa.doajewelry.repositories.OrderRepository;
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 /**
@@ -28,6 +34,9 @@ public class OrderService {
     private final CustomerRepository customerRepository;
     private final JewelryRepository jewelryRepository;
     private final EmployeeRepository employeeRepository;
+    private final CursorPagination pagination;
+    private final SalesRollupService salesRollup;
+    private final JewelryCache jewelryCache;
 
     /**
      * Constructor-based dependency injection for repositories.
@@ -36,15 +45,24 @@ public class OrderService {
      * @param customerRepository  Repository for Customer entities.
      * @param jewelryRepository   Repository for Jewelry entities.
      * @param employeeRepository  Repository for Employee entities.
+     * @param pagination          Keyset pagination for the list endpoints.
+     * @param salesRollup         Per-employee sales totals kept in step with the orders.
+     * @param jewelryCache        Jewelry cache, invalidated when stock changes.
      */
     public OrderService(OrderRepository orderRepository, 
                         CustomerRepository customerRepository, 
                         JewelryRepository jewelryRepository,
-                        EmployeeRepository employeeRepository) {
+                        EmployeeRepository employeeRepository,
+                        CursorPagination pagination,
+                        SalesRollupService salesRollup,
+                        JewelryCache jewelryCache) {
         this.orderRepository = orderRepository;
         this.customerRepository = customerRepository;
         this.jewelryRepository = jewelryRepository;
         this.employeeRepository = employeeRepository;
+        this.pagination = pagination;
+        this.salesRollup = salesRollup;
+        this.jewelryCache = jewelryCache;
     }
 
     /**
@@ -52,58 +70,138 @@ public class OrderService {
      * Validates customer and employee existence, checks for duplicate jewelry items,
      * and ensures jewelry is in stock before creating the order.
      * 
+     * The whole order commits in one transaction and costs a fixed number of statements
+     * whatever its size: the jewelry items load in a single query, customer and employee are
+     * checked with an indexed existence query and referenced by ID without being loaded, stock is reserved with one conditional update per
+     * line, whatever its quantity, sent as one batch, and the order lines are flushed as a JDBC batch.
+     * 
      * @param dto Data Transfer Object containing order details.
      * @return OrderDTO of the created order.
      */
+    @Transactional
     public OrderDTO createOrder(OrderDTO dto) {
-        // Validate if the customer exists
-        Customer c = customerRepository.findById(dto.getCustomerId())
-            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Customer not found"));
-
-        // Validate if the employee exists
-        Employee e = employeeRepository.findById(dto.getEmployeeId())
-            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Employee not found"));
-
-        // Validate duplicates in jewelryIds to prevent multiple entries of the same item
-        if (dto.getJewelryIds().size() != dto.getJewelryIds().stream().distinct().count()) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Duplicate jewelry items in order");
-        }
+        Map<Long, Integer> quantities = requestedQuantities(dto);
 
         // Create new Order entity
         Order o = new Order();
         o.setDate(dto.getDate() == null ? LocalDate.now() : dto.getDate()); // Set current date if not provided
         o.setStatus(dto.getStatus() == null ? OrderStatus.PENDING : dto.getStatus()); // Default to PENDING if not provided
-        o.setCustomer(c); // Associate the order with the customer
-        o.setEmployee(e); // Associate the order with the employee
-
-        // For each jewelry ID, check stock and add to the order
-        for (Long jewelryId : dto.getJewelryIds()) {
-            Jewelry j = jewelryRepository.findById(jewelryId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Jewelry not found"));
-            if (j.getStockQuantity() <= 0) {
-                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Jewelry out of stock");
-            }
-            j.setStockQuantity(j.getStockQuantity() - 1); // Decrement stock as the item is being ordered
-            jewelryRepository.save(j); // Save the updated jewelry stock
-            o.addItem(j); // Add the jewelry item to the order
+        // Reference the customer and employee without loading them, once it is known that they exist
+        if (!customerRepository.existsById(dto.getCustomerId())) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Customer not found");
         }
+        if (!employeeRepository.existsById(dto.getEmployeeId())) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Employee not found");
+        }
+        o.setCustomer(customerRepository.getReferenceById(dto.getCustomerId()));
+        o.setEmployee(employeeRepository.getReferenceById(dto.getEmployeeId()));
+
+        // Reserve the requested units of every item and add a line for it to the order
+        List<Jewelry> items = findAllJewelry(quantities.keySet());
+        adjustStock(quantities);
+        items.forEach(j -> o.addItem(j, quantities.get(j.getId())));
 
         // Save the order to the database
-        Order saved = orderRepository.save(o);
+        Order saved = orderRepository.saveAndFlush(o);
+        salesRollup.recordOrder(saved); // Count the order towards the employee's sales
         
         // Convert the saved Order entity to OrderDTO using the static method
         return OrderDTO.fromEntity(saved);
     }
 
     /**
-     * Retrieves all Orders from the database.
+     * Loads the given jewelry items with a single query.
      * 
-     * @return List of OrderDTOs representing all orders.
+     * @param ids The IDs of the jewelry items to load.
+     * @return The jewelry items, one per ID.
      */
-    public List<OrderDTO> getAllOrders() {
-        return orderRepository.findAll().stream()
-            .map(OrderDTO::fromEntity) // Converts each Order entity to DTO using the static method
+    private List<Jewelry> findAllJewelry(Collection<Long> ids) {
+        List<Jewelry> items = jewelryRepository.findAllById(ids);
+        if (items.size() != ids.size()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Jewelry not found");
+        }
+        return items;
+    }
+
+    /**
+     * Reads the units requested of each jewelry item from an order DTO.
+     * The order lines are used if present; otherwise every ID in jewelryIds counts as one unit.
+     * 
+     * @param dto Data Transfer Object containing order details.
+     * @return The requested quantities keyed by jewelry ID.
+     */
+    private static Map<Long, Integer> requestedQuantities(OrderDTO dto) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        if (dto.getItems() != null) {
+            for (OrderLineDTO line : dto.getItems()) {
+                if (line.getJewelryId() == null) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Jewelry ID required on every order line");
+                }
+                if (line.getQuantity() == null || line.getQuantity() < 1) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Quantity must be at least 1");
+                }
+                // Validate duplicates to prevent multiple lines for the same item
+                if (quantities.put(line.getJewelryId(), line.getQuantity()) != null) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Duplicate jewelry items in order");
+                }
+            }
+        } else if (dto.getJewelryIds() != null) {
+            dto.getJewelryIds().forEach(jewelryId -> quantities.put(jewelryId, 1));
+        }
+        return quantities;
+    }
+
+    /**
+     * Takes units from and returns units to the stock of several jewelry items with one batch of
+     * guarded conditional updates. Fails if any item has run out; the surrounding transaction
+     * then rolls back the whole batch.
+     * 
+     * @param changes The units to take, keyed by jewelry ID; negative to return units.
+     */
+    private void adjustStock(Map<Long, Integer> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        Map<Long, Boolean> adjusted = jewelryRepository.adjustStock(changes);
+        jewelryCache.itemsChanged(adjusted.entrySet().stream()
+            .filter(Map.Entry::getValue)
+            .map(Map.Entry::getKey)
+            .collect(Collectors.toList()));
+        List<Long> outOfStock = adjusted.entrySet().stream()
+            .filter(r -> !r.getValue())
+            .map(Map.Entry::getKey)
             .collect(Collectors.toList());
+        if (!outOfStock.isEmpty()) {
+            throw new OutOfStockException("Jewelry out of stock: " + outOfStock);
+        }
+    }
+
+    /**
+     * Returns units of jewelry items to stock.
+     * 
+     * @param quantities The units to release, keyed by jewelry ID.
+     */
+    private void releaseStock(Map<Long, Integer> quantities) {
+        if (!quantities.isEmpty()) {
+            jewelryRepository.releaseStock(quantities);
+            jewelryCache.itemsChanged(quantities.keySet());
+        }
+    }
+
+    /**
+     * Retrieves one page of Orders, ordered by ID.
+     * 
+     * @param cursor       Cursor returned with the previous page, or null for the first page.
+     * @param size         Requested page size, or null for the default.
+     * @param includeTotal Whether to count the matching rows across all pages.
+     * @return Page of OrderDTOs.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<OrderDTO> getAllOrders(String cursor, Integer size, boolean includeTotal) {
+        List<Order> orders = withItems(orderRepository.findByIdGreaterThanOrderByIdAsc(
+            pagination.afterId(cursor), pagination.limit(size)));
+        return pagination.page(orders, size, Order::getId, OrderDTO::fromEntity,
+            includeTotal ? orderRepository.count() : null);
     }
 
     /**
@@ -112,6 +210,7 @@ public class OrderService {
      * @param id The ID of the order to retrieve.
      * @return OrderDTO of the found order.
      */
+    @Transactional(readOnly = true)
     public OrderDTO getOrder(Long id) {
         Order o = orderRepository.findById(id)
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found"));
@@ -119,65 +218,92 @@ public class OrderService {
     }
 
     /**
-     * Retrieves all Orders by a specific status.
+     * Retrieves one page of Orders with a specific status, ordered by ID.
      * 
-     * @param status The status of the orders to retrieve (e.g., PENDING, DELIVERED).
-     * @return List of OrderDTOs matching the specified status.
+     * @param status       The status of the orders to retrieve (e.g., PENDING, DELIVERED).
+     * @param cursor       Cursor returned with the previous page, or null for the first page.
+     * @param size         Requested page size, or null for the default.
+     * @param includeTotal Whether to count the matching rows across all pages.
+     * @return Page of OrderDTOs matching the specified status.
      */
-    public List<OrderDTO> getAllOrdersByStatus(OrderStatus status) {
-        // Fetch all orders with the given status using repository method
-        List<Order> orders = orderRepository.findAllByStatus(status);
-
-        // Convert each Order entity to DTO
-        return orders.stream()
-                     .map(OrderDTO::fromEntity)
-                     .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public CursorPageDTO<OrderDTO> getAllOrdersByStatus(OrderStatus status, String cursor, Integer size,
+                                                       boolean includeTotal) {
+        // Fetch a page of orders with the given status using repository method
+        List<Order> orders = withItems(orderRepository.findByStatusAndIdGreaterThanOrderByIdAsc(
+            status, pagination.afterId(cursor), pagination.limit(size)));
+        return pagination.page(orders, size, Order::getId, OrderDTO::fromEntity,
+            includeTotal ? orderRepository.countByStatus(status) : null);
+    }
+
+    /**
+     * Loads the jewelry items of a batch of orders with one query, so converting the orders
+     * to DTOs does not fire a lazy load per order. The orders must be managed by the current
+     * persistence context, which the query fills in.
+     * 
+     * @param orders The orders whose items are needed.
+     * @return The same orders.
+     */
+    private List<Order> withItems(List<Order> orders) {
+        if (!orders.isEmpty()) {
+            orderRepository.findAllWithItemsByIdIn(orders.stream().map(Order::getId).collect(Collectors.toList()));
+        }
+        return orders;
     }
 
     /**
      * Updates an existing Order.
-     * Handles changes in jewelry items by adjusting stock accordingly.
+     * Only the lines whose jewelry item or quantity changed are written and have their stock
+     * adjusted, only newly added jewelry items are loaded, and the stock changes go to the
+     * database as one batch.
      * 
      * @param id  The ID of the order to update.
      * @param dto Data Transfer Object containing updated order details.
      * @return OrderDTO of the updated order.
      */
+    @Transactional
     public OrderDTO updateOrder(Long id, OrderDTO dto) {
         // Find the existing Order
         Order o = orderRepository.findById(id)
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found"));
 
-        // Validate duplicates in the new list to prevent multiple entries of the same item
-        if (dto.getJewelryIds().size() != dto.getJewelryIds().stream().distinct().count()) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Duplicate jewelry items in order");
-        }
+        Map<Long, Integer> requested = requestedQuantities(dto);
 
         // Validate if the new employee exists
         Employee e = employeeRepository.findById(dto.getEmployeeId())
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Employee not found"));
 
-        // Return stock for items that are no longer in the updated list
-        o.getItems().forEach(j -> {
-            if (!dto.getJewelryIds().contains(j.getId())) {
-                j.setStockQuantity(j.getStockQuantity() + 1); // Restore stock as the item is removed from the order
-                jewelryRepository.save(j); // Save the updated jewelry stock
+        // Take the order out of its current employee's sales; it is counted again once updated
+        salesRollup.removeOrder(o);
+
+        // Diff the requested quantities against the order's lines; unchanged lines are left untouched
+        // and every line that stays keeps the price it was sold at
+        Map<Long, Integer> current = o.getQuantities();
+        Map<Long, Integer> changes = new LinkedHashMap<>();
+        current.forEach((jewelryId, quantity) -> {
+            int delta = requested.getOrDefault(jewelryId, 0) - quantity;
+            if (delta != 0) {
+                changes.put(jewelryId, delta);
             }
         });
+        List<Long> added = requested.keySet().stream()
+            .filter(jewelryId -> !current.containsKey(jewelryId))
+            .collect(Collectors.toList());
+        added.forEach(jewelryId -> changes.put(jewelryId, requested.get(jewelryId)));
 
-        // Clear the original items (we will re-add updated ones)
-        o.getItems().clear();
+        // Take the extra units and return the released ones in a single batch
+        List<Jewelry> addedItems = findAllJewelry(added);
+        adjustStock(changes);
 
-        // For each jewelry ID in the updated list, check stock and add to the order
-        for (Long jewelryId : dto.getJewelryIds()) {
-            Jewelry j = jewelryRepository.findById(jewelryId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Jewelry not found"));
-            if (j.getStockQuantity() <= 0) {
-                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Jewelry out of stock");
+        current.keySet().forEach(jewelryId -> {
+            Integer quantity = requested.get(jewelryId);
+            if (quantity == null) {
+                o.removeItem(jewelryId);
+            } else if (!quantity.equals(current.get(jewelryId))) {
+                o.setItemQuantity(jewelryId, quantity);
             }
-            j.setStockQuantity(j.getStockQuantity() - 1); // Decrement stock as the item is being ordered
-            jewelryRepository.save(j); // Save the updated jewelry stock
-            o.addItem(j); // Add the jewelry item to the order
-        }
+        });
+        addedItems.forEach(j -> o.addItem(j, requested.get(j.getId())));
 
         // Update other fields (date, status, employee)
         o.setDate(dto.getDate());
@@ -186,6 +312,7 @@ public class OrderService {
 
         // Persist the changes by saving the order
         Order saved = orderRepository.save(o);
+        salesRollup.recordOrder(saved);
 
         // Convert the updated Order entity to OrderDTO using the static method
         return OrderDTO.fromEntity(saved);
@@ -196,15 +323,16 @@ public class OrderService {
      * 
      * @param id The ID of the order to delete.
      */
+    @Transactional
     public void deleteOrder(Long id) {
         Order o = orderRepository.findById(id)
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found"));
 
+        // Take the order out of its employee's sales
+        salesRollup.removeOrder(o);
+
         // Restore stock for all items in the order
-        o.getItems().forEach(j -> {
-            j.setStockQuantity(j.getStockQuantity() + 1); // Increment stock as the order is being deleted
-            jewelryRepository.save(j); // Save the updated jewelry stock
-        });
+        releaseStock(o.getQuantities());
 
         // Delete the order from the database
         orderRepository.delete(o);
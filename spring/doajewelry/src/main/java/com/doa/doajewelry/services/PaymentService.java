@@ -1,5 +1,7 @@
 package com.doa.doajewelry.services;
 
+import com.doa.doajewelry.dtos.CursorPageDTO;
+import com.doa.doajewelry.dtos.PaidBalanceMismatchDTO;
 import com.doa.doajewelry.dtos.PaymentDTO;
 import com.doa.doajewelry.entities.Order;
 import com.doa.doajewelry.entities.Payment;
@@ -25,6 +27,7 @@ public class PaymentService {
     private final PaymentRepository paymentRepository;
     private final OrderRepository orderRepository;
     private final JewelryRepository jewelryRepository;
+    private final CursorPagination pagination;
 
     /**
      * Constructor-based dependency injection for repositories.
@@ -32,11 +35,14 @@ public class PaymentService {
      * @param paymentRepository Repository for Payment entities.
      * @param orderRepository   Repository for Order entities.
      * @param jewelryRepository Repository for Jewelry entities.
+     * @param pagination        Keyset pagination for the list endpoints.
      */
-    public PaymentService(PaymentRepository paymentRepository, OrderRepository orderRepository, JewelryRepository jewelryRepository) {
+    public PaymentService(PaymentRepository paymentRepository, OrderRepository orderRepository, JewelryRepository jewelryRepository,
+                          CursorPagination pagination) {
         this.paymentRepository = paymentRepository;
         this.orderRepository = orderRepository;
         this.jewelryRepository = jewelryRepository;
+        this.pagination = pagination;
     }
 
     /**
@@ -57,14 +63,9 @@ public class PaymentService {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cannot add payment to a canceled order");
         }
 
-        // Calculate the total amount of the order
+        // Read the total amount of the order and the amount already paid (COMPLETED payments)
         Double orderTotal = order.getTotalAmount();
-
-        // Calculate the total amount already paid (COMPLETED payments)
-        Double totalPaid = paymentRepository.findAllByOrderId(order.getId()).stream()
-            .filter(p -> p.getStatus() == PaymentStatus.COMPLETED)
-            .mapToDouble(Payment::getAmount)
-            .sum();
+        Double totalPaid = order.getPaidAmount();
 
         // Check if the new payment exceeds the order total
         if (totalPaid + dto.getAmount() > orderTotal) {
@@ -85,27 +86,32 @@ public class PaymentService {
         // Save the payment to the database
         Payment savedPayment = paymentRepository.save(payment);
 
-        // Update the order status based on payment status
+        // Update the order status and paid amount based on payment status
         if (status == PaymentStatus.COMPLETED) {
             order.setStatus(OrderStatus.ACCEPTED);
+            order.setPaidAmount(totalPaid + dto.getAmount());
         } else {
             order.setStatus(OrderStatus.PENDING);
         }
-        orderRepository.save(order); // Persist the updated order status
+        orderRepository.save(order); // Persist the updated order status; fails if the order changed concurrently
 
         // Convert the saved Payment entity to PaymentDTO using the static method
         return PaymentDTO.fromEntity(savedPayment);
     }
 
     /**
-     * Retrieves all Payments from the database.
+     * Retrieves one page of Payments, ordered by ID.
      * 
-     * @return List of PaymentDTOs representing all payments.
+     * @param cursor       Cursor returned with the previous page, or null for the first page.
+     * @param size         Requested page size, or null for the default.
+     * @param includeTotal Whether to count the matching rows across all pages.
+     * @return Page of PaymentDTOs.
      */
-    public List<PaymentDTO> getAllPayments() {
-        return paymentRepository.findAll().stream()
-            .map(PaymentDTO::fromEntity) // Converts each Payment entity to DTO using the static method
-            .collect(Collectors.toList());
+    public CursorPageDTO<PaymentDTO> getAllPayments(String cursor, Integer size, boolean includeTotal) {
+        List<Payment> payments = paymentRepository.findByIdGreaterThanOrderByIdAsc(
+            pagination.afterId(cursor), pagination.limit(size));
+        return pagination.page(payments, size, Payment::getId, PaymentDTO::fromEntity,
+            includeTotal ? paymentRepository.count() : null);
     }
 
     /**
@@ -149,6 +155,9 @@ public class PaymentService {
         Payment payment = paymentRepository.findById(id)
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Payment not found"));
 
+        // Remember what this payment contributed to the order's paid amount before changing it
+        double previouslyPaid = payment.getStatus() == PaymentStatus.COMPLETED ? payment.getAmount() : 0.0;
+
         // Update basic fields
         payment.setAmount(dto.getAmount());
         payment.setDate(dto.getDate() == null ? LocalDate.now() : dto.getDate()); // Set current date if not provided
@@ -162,10 +171,7 @@ public class PaymentService {
 
         // Calculate the total amount already paid (excluding this payment)
         Double orderTotal = order.getTotalAmount();
-        Double totalPaid = paymentRepository.findAllByOrderId(order.getId()).stream()
-            .filter(p -> !p.getId().equals(id) && p.getStatus() == PaymentStatus.COMPLETED)
-            .mapToDouble(Payment::getAmount)
-            .sum();
+        Double totalPaid = order.getPaidAmount() - previouslyPaid;
 
         // Check if the new payment exceeds the order total
         if (totalPaid + dto.getAmount() > orderTotal) {
@@ -187,9 +193,12 @@ public class PaymentService {
 
             // Update the payment status
             payment.setStatus(newStatus);
-            orderRepository.save(order); // Persist the updated order status
         }
 
+        // Count the payment towards the order's paid amount only if it is COMPLETED
+        order.setPaidAmount(totalPaid + (newStatus == PaymentStatus.COMPLETED ? dto.getAmount() : 0.0));
+        orderRepository.save(order); // Persist the updated order; fails if the order changed concurrently
+
         // Save the updated payment to the database
         Payment savedPayment = paymentRepository.save(payment);
 
@@ -211,11 +220,11 @@ public class PaymentService {
         Order order = payment.getOrder();
         if (order != null) {
             if (payment.getStatus() == PaymentStatus.PENDING || payment.getStatus() == PaymentStatus.COMPLETED) {
-                // Update order status based on remaining payments
-                Double totalPaid = paymentRepository.findAllByOrderId(order.getId()).stream()
-                    .filter(p -> p.getStatus() == PaymentStatus.COMPLETED)
-                    .mapToDouble(Payment::getAmount)
-                    .sum();
+                // Update order status and paid amount based on remaining payments
+                Double totalPaid = payment.getStatus() == PaymentStatus.COMPLETED
+                    ? order.getPaidAmount() - payment.getAmount()
+                    : order.getPaidAmount();
+                order.setPaidAmount(totalPaid);
 
                 if (totalPaid > 0) {
                     order.setStatus(OrderStatus.PENDING);
@@ -247,23 +256,56 @@ public class PaymentService {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Only COMPLETED payments can be refunded");
         }
 
-        // Set status to REFUNDED
+        // Set status to REFUNDED; the payment no longer counts towards the order's paid amount
         payment.setStatus(PaymentStatus.REFUNDED);
         paymentRepository.save(payment); // Persist the updated payment status
+        Order order = payment.getOrder();
+        if (order != null) {
+            order.setPaidAmount(order.getPaidAmount() - payment.getAmount());
+            orderRepository.save(order); // Fails if the order changed concurrently
+        }
 
         return PaymentDTO.fromEntity(payment); // Convert to DTO and return
     }
 
     /**
-     * Retrieves all Payments with a specific status.
+     * Retrieves one page of Payments with a specific status, ordered by ID.
      * 
-     * @param status The status of the payments to retrieve.
-     * @return List of PaymentDTOs matching the specified status.
+     * @param status       The status of the payments to retrieve.
+     * @param cursor       Cursor returned with the previous page, or null for the first page.
+     * @param size         Requested page size, or null for the default.
+     * @param includeTotal Whether to count the matching rows across all pages.
+     * @return Page of PaymentDTOs matching the specified status.
      */
-    public List<PaymentDTO> getAllPaymentsByStatus(PaymentStatus status) {
-        List<Payment> payments = paymentRepository.findAllByStatus(status); // Fetch payments with the given status
-        return payments.stream()
-            .map(PaymentDTO::fromEntity) // Convert each Payment entity to DTO
-            .collect(Collectors.toList());
+    public CursorPageDTO<PaymentDTO> getAllPaymentsByStatus(PaymentStatus status, String cursor, Integer size,
+                                                           boolean includeTotal) {
+        List<Payment> payments = paymentRepository.findByStatusAndIdGreaterThanOrderByIdAsc(
+            status, pagination.afterId(cursor), pagination.limit(size)); // Fetch payments with the given status
+        return pagination.page(payments, size, Payment::getId, PaymentDTO::fromEntity,
+            includeTotal ? paymentRepository.countByStatus(status) : null);
+    }
+
+    /**
+     * Finds the orders whose stored paid amount does not match the sum of their COMPLETED payments.
+     * 
+     * @return One PaidBalanceMismatchDTO per mismatching order, ordered by order ID.
+     */
+    @Transactional(readOnly = true)
+    public List<PaidBalanceMismatchDTO> findPaidBalanceMismatches() {
+        return orderRepository.findPaidBalanceMismatches();
+    }
+
+    /**
+     * Recomputes the stored paid amount of every mismatching order from the payments table.
+     * 
+     * @return The orders that were corrected, with their previous and corrected amounts.
+     */
+    @Transactional
+    public List<PaidBalanceMismatchDTO> rebuildPaidBalances() {
+        List<PaidBalanceMismatchDTO> mismatches = orderRepository.findPaidBalanceMismatches();
+        if (!mismatches.isEmpty()) {
+            orderRepository.rebuildPaidBalances();
+        }
+        return mismatches;
     }
 }
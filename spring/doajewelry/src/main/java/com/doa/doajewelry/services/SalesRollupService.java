@@ -0,0 +1,131 @@
+package com.doa.doajewelry.services;
+
+import com.doa.doajewelry.dtos.DailySalesDTO;
+import com.doa.doajewelry.entities.EmployeeSales;
+import com.doa.doajewelry.entities.Order;
+import com.doa.doajewelry.repositories.EmployeeDailySalesRepository;
+import com.doa.doajewelry.repositories.EmployeeSalesRepository;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service layer for the per-employee sales rollup.
+ * Keeps a running total per employee and per employee and day, adjusted in the same
+ * transaction as every order change, so an employee's total sales can be read
+ * without loading their orders.
+ */
+@Service
+public class SalesRollupService {
+
+    private final EmployeeSalesRepository employeeSalesRepository;
+    private final EmployeeDailySalesRepository dailySalesRepository;
+
+    /**
+     * Constructor-based dependency injection for repositories.
+     * 
+     * @param employeeSalesRepository Repository for the per-employee totals.
+     * @param dailySalesRepository    Repository for the per-day buckets.
+     */
+    public SalesRollupService(EmployeeSalesRepository employeeSalesRepository,
+                              EmployeeDailySalesRepository dailySalesRepository) {
+        this.employeeSalesRepository = employeeSalesRepository;
+        this.dailySalesRepository = dailySalesRepository;
+    }
+
+    /**
+     * Adds an order to its employee's totals.
+     * Call after the order has been saved with its final employee, date and items.
+     * 
+     * @param o The order to add.
+     */
+    @Transactional
+    public void recordOrder(Order o) {
+        apply(o, 1);
+    }
+
+    /**
+     * Takes an order back out of its employee's totals.
+     * Call before the order is deleted, or before its employee, date or items change.
+     * 
+     * @param o The order to remove.
+     */
+    @Transactional
+    public void removeOrder(Order o) {
+        apply(o, -1);
+    }
+
+    /**
+     * Returns an employee's total sales.
+     * 
+     * @param employeeId The ID of the employee.
+     * @return The total sales, or 0 if the employee has no orders.
+     */
+    public Double getTotalSales(Long employeeId) {
+        return employeeSalesRepository.findById(employeeId)
+            .map(EmployeeSales::getTotalSales)
+            .orElse(0.0);
+    }
+
+    /**
+     * Returns the total sales of several employees with a single query.
+     * 
+     * @param employeeIds The IDs of the employees.
+     * @return The total sales keyed by employee ID; employees without orders are absent.
+     */
+    public Map<Long, Double> getTotalSales(Collection<Long> employeeIds) {
+        return employeeSalesRepository.findAllById(employeeIds).stream()
+            .collect(Collectors.toMap(EmployeeSales::getEmployeeId, EmployeeSales::getTotalSales));
+    }
+
+    /**
+     * Returns an employee's sales per day within a date range.
+     * 
+     * @param employeeId The ID of the employee.
+     * @param from       The first day, inclusive.
+     * @param to         The last day, inclusive.
+     * @return One entry per day with sales, ordered by day.
+     */
+    public List<DailySalesDTO> getDailySales(Long employeeId, LocalDate from, LocalDate to) {
+        return dailySalesRepository.findByIdEmployeeIdAndIdDayBetweenOrderByIdDayAsc(employeeId, from, to).stream()
+            .map(DailySalesDTO::fromEntity)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Recomputes the whole rollup from the orders table.
+     * Used to backfill the rollup and to repair it after orders were changed outside the services.
+     * Order changes made while it runs wait for it to finish.
+     */
+    @Transactional
+    public void rebuild() {
+        employeeSalesRepository.lockRollup();
+        employeeSalesRepository.deleteAllInBatch();
+        dailySalesRepository.deleteAllInBatch();
+        employeeSalesRepository.rebuildFromOrders();
+        dailySalesRepository.rebuildFromOrders();
+    }
+
+    /**
+     * Adds or removes an order's contribution to its employee's total and daily bucket.
+     * Orders without a date count towards the total only.
+     * 
+     * @param o    The order.
+     * @param sign 1 to add the order, -1 to remove it.
+     */
+    private void apply(Order o, int sign) {
+        if (o.getEmployee() == null) {
+            return;
+        }
+        Long employeeId = o.getEmployee().getId();
+        double amount = sign * o.getTotalAmount();
+        employeeSalesRepository.addSales(employeeId, amount, sign);
+        if (o.getDate() != null) {
+            dailySalesRepository.addSales(employeeId, o.getDate(), amount, sign);
+        }
+    }
+}
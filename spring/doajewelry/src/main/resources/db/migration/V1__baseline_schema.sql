@@ -0,0 +1,93 @@
+-- Schema as Hibernate's ddl-auto=update created it for the original entities, with identity IDs.
+-- Databases that already hold these tables are baselined at this version and skip this script,
+-- so V2 always starts from this schema.
+
+CREATE TABLE customers (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    nif varchar(15) NOT NULL,
+    name varchar(255) NOT NULL,
+    email varchar(255),
+    phone_number varchar(255),
+    street varchar(255),
+    city varchar(255),
+    state varchar(255),
+    zip_code varchar(255),
+    country varchar(255),
+    CONSTRAINT customers_pkey PRIMARY KEY (id),
+    CONSTRAINT customers_nif_key UNIQUE (nif)
+);
+
+CREATE TABLE employees (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    employee_type varchar(31) NOT NULL,
+    nif varchar(255) NOT NULL,
+    name varchar(255) NOT NULL,
+    hire_date date NOT NULL,
+    salary double precision NOT NULL,
+    sales_goal double precision,
+    CONSTRAINT employees_pkey PRIMARY KEY (id),
+    CONSTRAINT employees_nif_key UNIQUE (nif)
+);
+
+CREATE TABLE jewelry (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    jewelry_type varchar(31) NOT NULL,
+    name varchar(255) NOT NULL,
+    material varchar(255) NOT NULL,
+    weight double precision NOT NULL,
+    price double precision NOT NULL,
+    stock_quantity integer NOT NULL,
+    category varchar(255) NOT NULL CHECK (category IN ('LUXURY', 'CASUAL')),
+    CONSTRAINT jewelry_pkey PRIMARY KEY (id)
+);
+
+CREATE TABLE ring (
+    id bigint NOT NULL,
+    size varchar(255) NOT NULL,
+    CONSTRAINT ring_pkey PRIMARY KEY (id),
+    CONSTRAINT ring_jewelry_fk FOREIGN KEY (id) REFERENCES jewelry (id)
+);
+
+CREATE TABLE necklace (
+    id bigint NOT NULL,
+    length double precision NOT NULL,
+    CONSTRAINT necklace_pkey PRIMARY KEY (id),
+    CONSTRAINT necklace_jewelry_fk FOREIGN KEY (id) REFERENCES jewelry (id)
+);
+
+CREATE TABLE earring (
+    id bigint NOT NULL,
+    clasp_type varchar(255) NOT NULL,
+    CONSTRAINT earring_pkey PRIMARY KEY (id),
+    CONSTRAINT earring_jewelry_fk FOREIGN KEY (id) REFERENCES jewelry (id)
+);
+
+CREATE TABLE orders (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    date date NOT NULL,
+    status varchar(255) NOT NULL CHECK (status IN ('DELIVERED', 'PENDING', 'ACCEPTED', 'CANCELED')),
+    customer_id bigint,
+    employee_id bigint,
+    CONSTRAINT orders_pkey PRIMARY KEY (id),
+    CONSTRAINT orders_customer_fk FOREIGN KEY (customer_id) REFERENCES customers (id),
+    CONSTRAINT orders_employee_fk FOREIGN KEY (employee_id) REFERENCES employees (id)
+);
+
+CREATE TABLE order_jewelry (
+    order_id bigint NOT NULL,
+    jewelry_id bigint NOT NULL,
+    CONSTRAINT order_jewelry_pkey PRIMARY KEY (order_id, jewelry_id),
+    CONSTRAINT order_jewelry_order_fk FOREIGN KEY (order_id) REFERENCES orders (id),
+    CONSTRAINT order_jewelry_jewelry_fk FOREIGN KEY (jewelry_id) REFERENCES jewelry (id)
+);
+
+CREATE TABLE payments (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    amount double precision NOT NULL,
+    date date NOT NULL,
+    method varchar(255) NOT NULL CHECK (method IN ('CREDIT_CARD', 'BANK_TRANSFER', 'CASH')),
+    status varchar(255) NOT NULL CHECK (status IN ('PENDING', 'COMPLETED', 'REFUNDED', 'FAILED')),
+    order_id bigint,
+    CONSTRAINT payments_pkey PRIMARY KEY (id),
+    CONSTRAINT payments_order_fk FOREIGN KEY (order_id) REFERENCES orders (id)
+);
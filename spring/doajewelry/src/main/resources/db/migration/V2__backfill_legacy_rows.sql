@@ -0,0 +1,80 @@
+-- Brings the original schema from V1 up to what the application now assumes.
+-- Databases that ran development builds with ddl-auto=update may already have some of these
+-- columns, tables and sequences, so every structural change is written to be skipped if present.
+
+-- IDs now come from pooled sequences instead of identity columns.
+ALTER TABLE customers ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE employees ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE jewelry ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE orders ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE payments ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS customers_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS employees_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS jewelry_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS orders_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS payments_seq START WITH 1 INCREMENT BY 50;
+
+-- Rows created while the tables still used identity columns would collide with the first IDs
+-- handed out by the sequences. Hibernate hands out the block of 50 IDs ending at the value it reads,
+-- so move each sequence a full block past the highest stored ID.
+SELECT setval('customers_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM customers) + 50, (SELECT last_value FROM customers_seq)));
+SELECT setval('employees_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM employees) + 50, (SELECT last_value FROM employees_seq)));
+SELECT setval('jewelry_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM jewelry) + 50, (SELECT last_value FROM jewelry_seq)));
+SELECT setval('orders_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM orders) + 50, (SELECT last_value FROM orders_seq)));
+SELECT setval('payments_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM payments) + 50, (SELECT last_value FROM payments_seq)));
+
+-- Prices, totals and balances stored on orders, and the version used for optimistic locking.
+ALTER TABLE order_jewelry ADD COLUMN IF NOT EXISTS unit_price double precision;
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS total_amount double precision;
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS paid_amount double precision;
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS version bigint;
+
+-- Order lines created before unit prices were stored take the current price of their jewelry item,
+-- which is what order totals were computed from until then.
+UPDATE order_jewelry oj SET unit_price = j.price FROM jewelry j
+WHERE j.id = oj.jewelry_id AND oj.unit_price IS NULL;
+
+UPDATE orders o SET total_amount =
+    (SELECT COALESCE(SUM(oj.unit_price), 0) FROM order_jewelry oj WHERE oj.order_id = o.id)
+WHERE o.total_amount IS NULL;
+
+UPDATE orders o SET paid_amount =
+    (SELECT COALESCE(SUM(p.amount), 0) FROM payments p WHERE p.order_id = o.id AND p.status = 'COMPLETED')
+WHERE o.paid_amount IS NULL;
+
+UPDATE orders SET version = 0 WHERE version IS NULL;
+
+-- Every writer sets these now, so they no longer need to allow nulls.
+ALTER TABLE order_jewelry ALTER COLUMN unit_price SET NOT NULL;
+ALTER TABLE orders ALTER COLUMN total_amount SET NOT NULL;
+ALTER TABLE orders ALTER COLUMN paid_amount SET NOT NULL;
+ALTER TABLE orders ALTER COLUMN version SET NOT NULL;
+
+-- Per-employee sales rollups, rebuilt from the stored order totals as the rebuild endpoint does.
+CREATE TABLE IF NOT EXISTS employee_sales (
+    employee_id bigint NOT NULL,
+    total_sales double precision NOT NULL,
+    order_count bigint NOT NULL,
+    CONSTRAINT employee_sales_pkey PRIMARY KEY (employee_id)
+);
+
+CREATE TABLE IF NOT EXISTS employee_daily_sales (
+    employee_id bigint NOT NULL,
+    day date NOT NULL,
+    total_sales double precision NOT NULL,
+    order_count bigint NOT NULL,
+    CONSTRAINT employee_daily_sales_pkey PRIMARY KEY (employee_id, day)
+);
+
+DELETE FROM employee_sales;
+INSERT INTO employee_sales (employee_id, total_sales, order_count)
+SELECT o.employee_id, SUM(o.total_amount), COUNT(*) FROM orders o
+WHERE o.employee_id IS NOT NULL
+GROUP BY o.employee_id;
+
+DELETE FROM employee_daily_sales;
+INSERT INTO employee_daily_sales (employee_id, day, total_sales, order_count)
+SELECT o.employee_id, o.date, SUM(o.total_amount), COUNT(*) FROM orders o
+WHERE o.employee_id IS NOT NULL AND o.date IS NOT NULL
+GROUP BY o.employee_id, o.date;
@@ -0,0 +1,37 @@
+-- Secondary indexes, one per access path. Primary keys and the nif unique constraints
+-- already serve lookups by ID and by NIF, and the order_jewelry primary key (order_id, jewelry_id)
+-- serves loading the lines of an order.
+-- IF NOT EXISTS lets these indexes be built beforehand with CREATE INDEX CONCURRENTLY on large databases.
+
+-- OrderRepository.findByStatusAndIdGreaterThanOrderByIdAsc: WHERE status = ? AND id > ? ORDER BY id LIMIT ?
+-- reads one index range in order instead of scanning orders; also serves countByStatus.
+CREATE INDEX IF NOT EXISTS orders_status_id_idx ON orders (status, id);
+
+-- OrderRepository.findAllByEmployee: WHERE employee_id = ?,
+-- and the foreign key check when an employee is deleted.
+CREATE INDEX IF NOT EXISTS orders_employee_id_idx ON orders (employee_id);
+
+-- Customer.orders, loaded when a customer is deleted: WHERE customer_id = ?,
+-- and the foreign key check on that delete.
+CREATE INDEX IF NOT EXISTS orders_customer_id_idx ON orders (customer_id);
+
+-- PaymentRepository.findAllByOrderId and Order.payments: WHERE order_id = ?;
+-- also the payments join of OrderRepository.findPaidBalanceMismatches and rebuildPaidBalances.
+CREATE INDEX IF NOT EXISTS payments_order_id_idx ON payments (order_id);
+
+-- PaymentRepository.findByStatusAndIdGreaterThanOrderByIdAsc: WHERE status = ? AND id > ? ORDER BY id LIMIT ?;
+-- also serves countByStatus.
+CREATE INDEX IF NOT EXISTS payments_status_id_idx ON payments (status, id);
+
+-- order_jewelry by jewelry item: the foreign key check when a jewelry item is deleted,
+-- which otherwise scans every order line.
+CREATE INDEX IF NOT EXISTS order_jewelry_jewelry_id_idx ON order_jewelry (jewelry_id);
+
+-- JewelryRepository.findIdPageByType: WHERE jewelry_type = ? AND id > ? ORDER BY id LIMIT ?;
+-- also serves countByType.
+CREATE INDEX IF NOT EXISTS jewelry_type_id_idx ON jewelry (jewelry_type, id);
+
+-- CustomerRepository.existsByEmailIgnoreCase and findByNifInOrEmailIn: WHERE lower(email) = ? / IN (...).
+-- Not unique, so existing customers whose emails differ only in case do not block the migration.
+-- Databases baselined from ddl-auto=update may already have it from the former startup initializer.
+CREATE INDEX IF NOT EXISTS customers_email_lower_idx ON customers (lower(email));
@@ -0,0 +1,4 @@
+-- Order lines carry a quantity, so an order can hold several units of one jewelry item on a single line.
+-- Existing lines were one unit each, so their order totals are unchanged.
+ALTER TABLE order_jewelry ADD COLUMN quantity integer NOT NULL DEFAULT 1;
+ALTER TABLE order_jewelry ADD CONSTRAINT order_jewelry_quantity_check CHECK (quantity > 0);
@@ -0,0 +1,94 @@
+package com.doa.doajewelry;
+
+import com.doa.doajewelry.entities.Customer;
+import com.doa.doajewelry.entities.Earring;
+import com.doa.doajewelry.entities.Employee;
+import com.doa.doajewelry.entities.Jewelry;
+import com.doa.doajewelry.entities.Ring;
+import com.doa.doajewelry.entities.Salesperson;
+import com.doa.doajewelry.entities.embedded.Address;
+import com.doa.doajewelry.entities.enums.JewelryCategory;
+import com.doa.doajewelry.repositories.CustomerRepository;
+import com.doa.doajewelry.repositories.EmployeeRepository;
+import com.doa.doajewelry.repositories.JewelryRepository;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Customers, employees and jewelry items for tests to place orders against.
+ * Import it with {@code @Import(TestFixtures.class)}, create what the test needs and call
+ * {@link #deleteAll()} once the test has deleted its orders.
+ *
+ * NIFs come from one counter that starts at a random 9-digit value on every run, so tests never
+ * pick the same NIF and rows left behind by an aborted run do not collide with the next one.
+ */
+public class TestFixtures {
+
+	private static final AtomicLong NEXT_NIF =
+			new AtomicLong(900_000_000L + ThreadLocalRandom.current().nextLong(50_000_000L));
+
+	private final CustomerRepository customerRepository;
+	private final EmployeeRepository employeeRepository;
+	private final JewelryRepository jewelryRepository;
+
+	private final List<Customer> customers = new ArrayList<>();
+	private final List<Employee> employees = new ArrayList<>();
+	private final List<Jewelry> jewelry = new ArrayList<>();
+
+	public TestFixtures(CustomerRepository customerRepository, EmployeeRepository employeeRepository,
+			JewelryRepository jewelryRepository) {
+		this.customerRepository = customerRepository;
+		this.employeeRepository = employeeRepository;
+		this.jewelryRepository = jewelryRepository;
+	}
+
+	/**
+	 * Returns a NIF no other fixture or test has used in this run.
+	 */
+	public static String nextNif() {
+		return String.valueOf(NEXT_NIF.getAndIncrement());
+	}
+
+	public synchronized Customer customer(String name) {
+		String nif = nextNif();
+		Customer customer = customerRepository.save(new Customer(nif, name, "customer." + nif + "@example.com",
+				"912345678", new Address("Rua Direita 1", "Porto", "Porto", "4000-001", "Portugal")));
+		customers.add(customer);
+		return customer;
+	}
+
+	public synchronized Employee salesperson(String name) {
+		Employee employee = employeeRepository.save(new Salesperson(nextNif(), name, LocalDate.now(), 1500.0));
+		employees.add(employee);
+		return employee;
+	}
+
+	public synchronized Jewelry ring(String name, double price) {
+		return track(jewelryRepository.save(new Ring(name, "Gold", 3.0, price, 10, JewelryCategory.CASUAL, "7")));
+	}
+
+	public synchronized Jewelry earring(String name, double price) {
+		return track(jewelryRepository.save(
+				new Earring(name, "Silver", 2.0, price, 10, JewelryCategory.CASUAL, "Hook")));
+	}
+
+	/**
+	 * Deletes everything created since the last call; orders referencing it must be deleted first.
+	 */
+	public synchronized void deleteAll() {
+		jewelryRepository.deleteAll(jewelry);
+		employeeRepository.deleteAll(employees);
+		customerRepository.deleteAll(customers);
+		jewelry.clear();
+		employees.clear();
+		customers.clear();
+	}
+
+	private Jewelry track(Jewelry item) {
+		jewelry.add(item);
+		return item;
+	}
+}
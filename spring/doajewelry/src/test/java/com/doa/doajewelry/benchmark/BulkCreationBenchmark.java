@@ -0,0 +1,82 @@
+package com.doa.doajewelry.benchmark;
+
+import com.doa.doajewelry.entities.Customer;
+import com.doa.doajewelry.entities.Earring;
+import com.doa.doajewelry.entities.Jewelry;
+import com.doa.doajewelry.entities.Necklace;
+import com.doa.doajewelry.entities.Ring;
+import com.doa.doajewelry.entities.embedded.Address;
+import com.doa.doajewelry.entities.enums.JewelryCategory;
+import com.doa.doajewelry.repositories.CustomerRepository;
+import com.doa.doajewelry.repositories.JewelryRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * Measures bulk creation of jewelry and customers through saveAll.
+ * Run it on a revision using identity columns and on one using pooled sequences to compare them:
+ * mvn test -Dtest=BulkCreationBenchmark -Dbenchmark=true
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BulkCreationBenchmark {
+
+	private static final int ROWS = 5_000;
+	private static final int ROUNDS = 5;
+
+	@Autowired
+	private JewelryRepository jewelryRepository;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Test
+	void createJewelry() {
+		run("jewelry", jewelryRepository, BulkCreationBenchmark::jewelry);
+	}
+
+	@Test
+	void createCustomers() {
+		run("customers", customerRepository, BulkCreationBenchmark::customer);
+	}
+
+	private static <E> void run(String name, JpaRepository<E, Long> repository, IntFunction<E> factory) {
+		int next = 0;
+		for (int round = 1; round <= ROUNDS; round++) {
+			List<E> rows = new ArrayList<>(ROWS);
+			for (int i = 0; i < ROWS; i++) {
+				rows.add(factory.apply(next++));
+			}
+
+			long start = System.nanoTime();
+			List<E> saved = repository.saveAll(rows);
+			long nanos = System.nanoTime() - start;
+			System.out.printf("%s round %d: %,d rows in %,d ms (%,.0f rows/s)%n", name, round, ROWS,
+					nanos / 1_000_000, ROWS * 1e9 / nanos);
+
+			repository.deleteAllInBatch(saved);
+		}
+	}
+
+	private static Jewelry jewelry(int i) {
+		switch (i % 3) {
+			case 0:
+				return new Necklace("Necklace " + i, "Gold", 12.0, 900.0, 10, JewelryCategory.LUXURY, 45.0);
+			case 1:
+				return new Ring("Ring " + i, "Silver", 4.0, 120.0, 10, JewelryCategory.CASUAL, "7");
+			default:
+				return new Earring("Earring " + i, "Pearl", 2.0, 250.0, 10, JewelryCategory.CASUAL, "Hook");
+		}
+	}
+
+	private static Customer customer(int i) {
+		return new Customer(String.format("9%08d", i), "Customer " + i, "customer" + i + "@example.com",
+				"912345678", new Address("Rua das Flores " + i, "Porto", "Porto", "4000-000", "Portugal"));
+	}
+}
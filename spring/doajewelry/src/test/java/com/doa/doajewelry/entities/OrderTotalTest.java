@@ -0,0 +1,39 @@
+package com.doa.doajewelry.entities;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.doa.doajewelry.entities.enums.JewelryCategory;
+import org.junit.jupiter.api.Test;
+
+class OrderTotalTest {
+
+	@Test
+	void totalDoesNotDriftOverRepeatedLineChanges() {
+		Order order = new Order();
+		order.addItem(jewelry(1L, 0.1), 3);
+		order.addItem(jewelry(2L, 19.99), 1);
+
+		for (int quantity = 1; quantity <= 1000; quantity++) {
+			order.setItemQuantity(1L, quantity % 7 + 1);
+			order.addItem(jewelry(3L, 0.07), 3);
+			order.removeItem(3L);
+		}
+		order.setItemQuantity(1L, 3);
+
+		assertEquals(20.29, order.getTotalAmount());
+	}
+
+	@Test
+	void totalIsRoundedToCents() {
+		Order order = new Order();
+		order.addItem(jewelry(1L, 0.1), 3);
+
+		assertEquals(0.3, order.getTotalAmount());
+	}
+
+	private static Jewelry jewelry(Long id, double price) {
+		Ring ring = new Ring("Ring " + id, "Gold", 3.0, price, 10, JewelryCategory.CASUAL, "7");
+		ring.setId(id);
+		return ring;
+	}
+}
@@ -0,0 +1,146 @@
+package com.doa.doajewelry.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.doa.doajewelry.entities.Ring;
+import com.doa.doajewelry.entities.enums.JewelryCategory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+class StockReservationRepositoryTest {
+
+	private static final int THREADS = 16;
+	private static final int ATTEMPTS_PER_THREAD = 50;
+	private static final int STOCK = 200;
+	private static final int CROSSED_ROUNDS = 100;
+
+	@Autowired
+	private JewelryRepository jewelryRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Test
+	void concurrentReservationsNeverOversell() throws Exception {
+		Long id = jewelryRepository.save(
+				new Ring("Diamond Ring", "Diamond", 5.0, 1500.0, STOCK, JewelryCategory.LUXURY, "6.5")).getId();
+		try {
+			AtomicInteger reserved = new AtomicInteger();
+			CountDownLatch start = new CountDownLatch(1);
+			ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < THREADS; t++) {
+				futures.add(executor.submit(() -> {
+					start.await();
+					for (int attempt = 0; attempt < ATTEMPTS_PER_THREAD; attempt++) {
+						if (jewelryRepository.reserveStock(Map.of(id, 1)).get(id)) {
+							reserved.incrementAndGet();
+						}
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			executor.shutdown();
+			assertTrue(executor.awaitTermination(2, TimeUnit.MINUTES));
+			for (Future<?> future : futures) {
+				future.get();
+			}
+
+			// Demand is four times the stock, so every unit is sold exactly once
+			assertEquals(STOCK, reserved.get());
+			assertEquals(0, jewelryRepository.findById(id).orElseThrow().getStockQuantity());
+		} finally {
+			jewelryRepository.deleteById(id);
+		}
+	}
+
+	@Test
+	void reservationReportsEachItem() {
+		Long available = jewelryRepository.save(
+				new Ring("Gold Ring", "Gold", 3.0, 500.0, 2, JewelryCategory.CASUAL, "7")).getId();
+		Long soldOut = jewelryRepository.save(
+				new Ring("Silver Ring", "Silver", 2.0, 80.0, 0, JewelryCategory.CASUAL, "6")).getId();
+		try {
+			Map<Long, Boolean> reserved = jewelryRepository.reserveStock(Map.of(available, 2, soldOut, 1));
+
+			assertEquals(Map.of(available, true, soldOut, false), reserved);
+			assertEquals(0, jewelryRepository.findById(available).orElseThrow().getStockQuantity());
+			assertEquals(0, jewelryRepository.findById(soldOut).orElseThrow().getStockQuantity());
+		} finally {
+			jewelryRepository.deleteById(available);
+			jewelryRepository.deleteById(soldOut);
+		}
+	}
+
+	@Test
+	void adjustmentTakesAndReturnsUnitsInOneBatch() {
+		Long taken = jewelryRepository.save(
+				new Ring("Gold Ring", "Gold", 3.0, 500.0, 1, JewelryCategory.CASUAL, "7")).getId();
+		Long returned = jewelryRepository.save(
+				new Ring("Silver Ring", "Silver", 2.0, 80.0, 0, JewelryCategory.CASUAL, "6")).getId();
+		try {
+			Map<Long, Boolean> adjusted = jewelryRepository.adjustStock(Map.of(taken, 1, returned, -2));
+
+			assertEquals(Map.of(taken, true, returned, true), adjusted);
+			assertEquals(0, jewelryRepository.findById(taken).orElseThrow().getStockQuantity());
+			assertEquals(2, jewelryRepository.findById(returned).orElseThrow().getStockQuantity());
+		} finally {
+			jewelryRepository.deleteById(taken);
+			jewelryRepository.deleteById(returned);
+		}
+	}
+
+	@Test
+	void transactionsNamingItemsInOppositeOrderDoNotDeadlock() throws Exception {
+		Long first = jewelryRepository.save(
+				new Ring("Gold Ring", "Gold", 3.0, 500.0, 10, JewelryCategory.CASUAL, "7")).getId();
+		Long second = jewelryRepository.save(
+				new Ring("Silver Ring", "Silver", 2.0, 80.0, 10, JewelryCategory.CASUAL, "6")).getId();
+		try {
+			ExecutorService executor = Executors.newFixedThreadPool(2);
+			for (int round = 0; round < CROSSED_ROUNDS; round++) {
+				CountDownLatch start = new CountDownLatch(1);
+				Future<?> forward = executor.submit(() -> reserveAndRelease(start, first, second));
+				Future<?> backward = executor.submit(() -> reserveAndRelease(start, second, first));
+				start.countDown();
+				// Either transaction would fail with a deadlock if the rows were locked in the order given
+				forward.get(1, TimeUnit.MINUTES);
+				backward.get(1, TimeUnit.MINUTES);
+			}
+			executor.shutdown();
+
+			assertEquals(10, jewelryRepository.findById(first).orElseThrow().getStockQuantity());
+			assertEquals(10, jewelryRepository.findById(second).orElseThrow().getStockQuantity());
+		} finally {
+			jewelryRepository.deleteById(first);
+			jewelryRepository.deleteById(second);
+		}
+	}
+
+	private Void reserveAndRelease(CountDownLatch start, Long a, Long b) throws InterruptedException {
+		Map<Long, Integer> quantities = new LinkedHashMap<>();
+		quantities.put(a, 1);
+		quantities.put(b, 1);
+		start.await();
+		transactionTemplate.executeWithoutResult(status -> {
+			assertEquals(Map.of(a, true, b, true), jewelryRepository.reserveStock(quantities));
+			jewelryRepository.releaseStock(quantities);
+		});
+		return null;
+	}
+}
@@ -0,0 +1,42 @@
+package com.doa.doajewelry.services;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class BloomFilterTest {
+
+	@Test
+	void neverReportsAnAddedValueAsAbsent() {
+		BloomFilter filter = new BloomFilter(10_000, 0.01);
+		for (int i = 0; i < 10_000; i++) {
+			filter.add("customer" + i + "@example.com");
+		}
+
+		for (int i = 0; i < 10_000; i++) {
+			assertTrue(filter.mightContain("customer" + i + "@example.com"));
+		}
+	}
+
+	@Test
+	void reportsMostAbsentValuesAsAbsent() {
+		BloomFilter filter = new BloomFilter(10_000, 0.01);
+		for (int i = 0; i < 10_000; i++) {
+			filter.add("customer" + i + "@example.com");
+		}
+
+		int falsePositives = 0;
+		for (int i = 0; i < 10_000; i++) {
+			if (filter.mightContain("prospect" + i + "@example.com")) {
+				falsePositives++;
+			}
+		}
+		assertTrue(falsePositives < 300, falsePositives + " false positives");
+	}
+
+	@Test
+	void startsEmpty() {
+		assertFalse(new BloomFilter(100, 0.01).mightContain("anyone@example.com"));
+	}
+}
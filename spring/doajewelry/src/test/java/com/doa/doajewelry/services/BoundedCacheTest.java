@@ -0,0 +1,85 @@
+package com.doa.doajewelry.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.doa.doajewelry.dtos.CacheStatsDTO;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class BoundedCacheTest {
+
+	private final AtomicLong now = new AtomicLong();
+	private final AtomicInteger loads = new AtomicInteger();
+	private final BoundedCache<Long, String> cache = new BoundedCache<>(2, Duration.ofSeconds(10), now::get);
+
+	@Test
+	void servesRepeatedReadsFromTheCache() {
+		assertEquals("1", cache.get(1L, this::load));
+		assertEquals("1", cache.get(1L, this::load));
+
+		assertEquals(1, loads.get());
+		CacheStatsDTO stats = cache.stats("test");
+		assertEquals(1L, stats.getHits());
+		assertEquals(1L, stats.getMisses());
+	}
+
+	@Test
+	void evictsTheLeastRecentlyUsedEntryWhenFull() {
+		cache.get(1L, this::load);
+		cache.get(2L, this::load);
+		cache.get(1L, this::load);
+		cache.get(3L, this::load);
+
+		cache.get(1L, this::load);
+		cache.get(2L, this::load);
+
+		assertEquals(4, loads.get());
+		assertEquals(2L, cache.stats("test").getEvictions());
+	}
+
+	@Test
+	void expiresEntriesAfterTheTtl() {
+		cache.get(1L, this::load);
+		now.addAndGet(Duration.ofSeconds(11).toNanos());
+
+		cache.get(1L, this::load);
+
+		assertEquals(2, loads.get());
+		assertEquals(1L, cache.stats("test").getExpirations());
+	}
+
+	@Test
+	void doesNotCacheAValueLoadedBeforeAnInvalidation() {
+		cache.get(1L, key -> {
+			cache.invalidateAll(List.of(key)); // A write lands while the value is being loaded
+			return load(key);
+		});
+
+		cache.get(1L, this::load);
+
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	void loadsAllMissingKeysWithOneCall() {
+		cache.get(1L, this::load);
+		AtomicInteger batches = new AtomicInteger();
+
+		Map<Long, String> values = cache.getAll(List.of(1L, 2L, 3L), missing -> {
+			batches.incrementAndGet();
+			return Map.of(2L, "2");
+		});
+
+		assertEquals(Map.of(1L, "1", 2L, "2"), values);
+		assertEquals(1, batches.get());
+	}
+
+	private String load(Long key) {
+		loads.incrementAndGet();
+		return String.valueOf(key);
+	}
+}
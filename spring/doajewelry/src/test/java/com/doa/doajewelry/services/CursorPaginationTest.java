@@ -0,0 +1,43 @@
+package com.doa.doajewelry.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.doa.doajewelry.dtos.CursorPageDTO;
+import java.util.List;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+class CursorPaginationTest {
+
+	private final CursorPagination pagination = new CursorPagination(2, 3);
+
+	@Test
+	void nextCursorResumesAfterLastItem() {
+		CursorPageDTO<Long> page = pagination.page(List.of(10L, 20L, 30L), null, Function.identity(),
+				Function.identity(), 7L);
+
+		assertEquals(List.of(10L, 20L), page.getItems());
+		assertEquals(20L, pagination.afterId(page.getNextCursor()));
+		assertEquals(7L, page.getTotalCount());
+	}
+
+	@Test
+	void lastPageHasNoCursor() {
+		CursorPageDTO<Long> page = pagination.page(List.of(10L), 2, Function.identity(), Function.identity(), null);
+
+		assertEquals(List.of(10L), page.getItems());
+		assertNull(page.getNextCursor());
+		assertNull(page.getTotalCount());
+	}
+
+	@Test
+	void pageSizeIsCapped() {
+		assertEquals(4, pagination.limit(50).max());
+		assertEquals(0L, pagination.afterId(null));
+		assertThrows(ResponseStatusException.class, () -> pagination.limit(0));
+		assertThrows(ResponseStatusException.class, () -> pagination.afterId("not a cursor"));
+	}
+}
@@ -0,0 +1,83 @@
+package com.doa.doajewelry.services;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.doa.doajewelry.TestFixtures;
+import com.doa.doajewelry.dtos.CustomerDTO;
+import com.doa.doajewelry.dtos.CustomerValidationDTO;
+import com.doa.doajewelry.exceptions.DuplicateEmailException;
+import com.doa.doajewelry.repositories.CustomerRepository;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+class CustomerValidationTest {
+
+	@Autowired
+	private CustomerService customerService;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	private String takenNif;
+	private String takenEmail;
+	private Long customerId;
+
+	@BeforeEach
+	void setUp() {
+		takenNif = TestFixtures.nextNif();
+		takenEmail = "Taken." + takenNif + "@example.com";
+		customerId = customerService.createCustomer(customer(takenNif, takenEmail)).getId();
+	}
+
+	@AfterEach
+	void tearDown() {
+		customerRepository.deleteById(customerId);
+	}
+
+	@Test
+	void rejectsAnEmailThatDiffersOnlyInCase() {
+		assertThrows(DuplicateEmailException.class,
+				() -> customerService.createCustomer(customer(TestFixtures.nextNif(), takenEmail.toUpperCase())));
+	}
+
+	@Test
+	void validatesABatchAgainstStoredCustomersAndItself() {
+		String freshNif = TestFixtures.nextNif();
+		String repeatedNif = TestFixtures.nextNif();
+		List<CustomerValidationDTO> results = customerService.validateCustomers(List.of(
+				customer(takenNif, "fresh.one." + freshNif + "@example.com"),
+				customer(freshNif, takenEmail.toLowerCase()),
+				customer(repeatedNif, "fresh.two." + repeatedNif + "@example.com"),
+				customer(repeatedNif, "Fresh.Two." + repeatedNif + "@example.com")));
+
+		assertFalse(results.get(0).isNifAvailable());
+		assertTrue(results.get(0).isEmailAvailable());
+		assertTrue(results.get(1).isNifAvailable());
+		assertFalse(results.get(1).isEmailAvailable());
+		assertTrue(results.get(2).isNifAvailable());
+		assertTrue(results.get(2).isEmailAvailable());
+		assertFalse(results.get(3).isNifAvailable());
+		assertFalse(results.get(3).isEmailAvailable());
+	}
+
+	private static CustomerDTO customer(String nif, String email) {
+		CustomerDTO dto = new CustomerDTO();
+		dto.setNif(nif);
+		dto.setName("Customer Validation");
+		dto.setEmail(email);
+		dto.setPhoneNumber("912345678");
+		dto.setStreet("Rua Direita 1");
+		dto.setCity("Porto");
+		dto.setState("Porto");
+		dto.setZipCode("4000-001");
+		dto.setCountry("Portugal");
+		return dto;
+	}
+}
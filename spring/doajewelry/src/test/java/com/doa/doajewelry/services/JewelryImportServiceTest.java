@@ -0,0 +1,55 @@
+package com.doa.doajewelry.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.doa.doajewelry.dtos.JewelryDTO;
+import com.doa.doajewelry.entities.enums.JewelryCategory;
+import com.doa.doajewelry.entities.enums.JewelryType;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class JewelryImportServiceTest {
+
+	@Test
+	void parsesEachTypeFromTheSampleDataLayout() {
+		JewelryDTO necklace = JewelryImportService.parseCsvRow("Necklace,12,Elegant Necklace,GOLD,50.0,1000.0,9,LUXURY,18.0");
+		JewelryDTO earring = JewelryImportService.parseCsvRow("Earring,14,Silver Earring,SILVER,10.0,200.0,20,CASUAL,Hook");
+		JewelryDTO ring = JewelryImportService.parseCsvRow("Ring,13,Diamond Ring,DIAMOND,5.0,5000.0,4,LUXURY,7.0");
+
+		assertEquals(JewelryType.NECKLACE, necklace.getJewelryType());
+		assertEquals("Elegant Necklace", necklace.getName());
+		assertEquals(1000.0, necklace.getPrice());
+		assertEquals(9, necklace.getStockQuantity());
+		assertEquals(JewelryCategory.LUXURY, necklace.getCategory());
+		assertEquals(18.0, necklace.getLength());
+		assertNull(necklace.getId());
+		assertEquals("Hook", earring.getClaspType());
+		assertEquals("7.0", ring.getSize());
+	}
+
+	@Test
+	void keepsCommasAndQuotesInsideQuotedFields() {
+		assertEquals(List.of("Ring", "", "Band, \"Classic\"", "GOLD"),
+				JewelryImportService.splitCsvLine("Ring,,\"Band, \"\"Classic\"\"\",GOLD"));
+	}
+
+	@Test
+	void leavesMissingValuesToTheValidator() {
+		JewelryDTO dto = JewelryImportService.parseCsvRow("Necklace,,Plain Necklace,GOLD,,100.0,1,CASUAL,");
+
+		assertNull(dto.getWeight());
+		assertNull(dto.getLength());
+	}
+
+	@Test
+	void rejectsMalformedRows() {
+		assertThrows(IllegalArgumentException.class,
+				() -> JewelryImportService.parseCsvRow("Ring,1,Diamond Ring,DIAMOND,5.0,1500.0,3,LUXURY"));
+		assertThrows(IllegalArgumentException.class,
+				() -> JewelryImportService.parseCsvRow("Ring,1,Diamond Ring,DIAMOND,heavy,1500.0,3,LUXURY,6.5"));
+		assertThrows(IllegalArgumentException.class,
+				() -> JewelryImportService.parseCsvRow("Bracelet,1,Gold Bracelet,GOLD,5.0,1500.0,3,LUXURY,6.5"));
+	}
+}
@@ -0,0 +1,100 @@
+package com.doa.doajewelry.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.doa.doajewelry.TestFixtures;
+import com.doa.doajewelry.dtos.CursorPageDTO;
+import com.doa.doajewelry.dtos.OrderDTO;
+import com.doa.doajewelry.entities.Customer;
+import com.doa.doajewelry.entities.Employee;
+import com.doa.doajewelry.entities.Jewelry;
+import com.doa.doajewelry.entities.Order;
+import com.doa.doajewelry.entities.enums.OrderStatus;
+import com.doa.doajewelry.repositories.OrderRepository;
+import jakarta.persistence.EntityManagerFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(TestFixtures.class)
+class OrderListingQueryCountTest {
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Customer customer;
+	private Employee employee;
+	private List<Jewelry> jewelry;
+	private final List<Order> orders = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		customer = fixtures.customer("Query Count");
+		employee = fixtures.salesperson("Query Count");
+		jewelry = List.of(fixtures.ring("Count Ring", 500.0), fixtures.earring("Count Earring", 80.0));
+		for (int i = 0; i < 40; i++) {
+			Order order = new Order(LocalDate.now(), OrderStatus.PENDING, customer, employee);
+			jewelry.forEach(order::addItem);
+			orders.add(orderRepository.save(order));
+		}
+	}
+
+	@AfterEach
+	void tearDown() {
+		orderRepository.deleteAll(orders);
+		fixtures.deleteAll();
+	}
+
+	@Test
+	void listingOrdersTakesTheSameNumberOfStatementsForAnyPageSize() {
+		// The page starts just before the fixture so that every row on it has items
+		String cursor = cursorBefore(orders.get(0).getId());
+
+		long small = statementsFor(() -> orderService.getAllOrders(cursor, 5, false));
+		long large = statementsFor(() -> orderService.getAllOrders(cursor, 40, false));
+		long byStatus = statementsFor(() -> orderService.getAllOrdersByStatus(OrderStatus.PENDING, cursor, 40, false));
+
+		assertEquals(small, large);
+		assertEquals(small, byStatus);
+	}
+
+	@Test
+	void listingOrdersIncludesEveryItem() {
+		CursorPageDTO<OrderDTO> page = orderService.getAllOrders(cursorBefore(orders.get(0).getId()), 40, false);
+
+		assertEquals(40, page.getItems().size());
+		page.getItems().forEach(order -> assertEquals(2, order.getJewelryIds().size()));
+	}
+
+	private long statementsFor(Runnable listing) {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		listing.run();
+		return statistics.getPrepareStatementCount();
+	}
+
+	private static String cursorBefore(Long id) {
+		return Base64.getUrlEncoder().withoutPadding()
+				.encodeToString(String.valueOf(id - 1).getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,132 @@
+package com.doa.doajewelry.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.doa.doajewelry.TestFixtures;
+import com.doa.doajewelry.dtos.OrderDTO;
+import com.doa.doajewelry.dtos.OrderLineDTO;
+import com.doa.doajewelry.entities.Customer;
+import com.doa.doajewelry.entities.Employee;
+import com.doa.doajewelry.entities.Jewelry;
+import com.doa.doajewelry.entities.enums.OrderStatus;
+import com.doa.doajewelry.repositories.JewelryRepository;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+@SpringBootTest
+@Import(TestFixtures.class)
+class OrderTotalsTest {
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private JewelryRepository jewelryRepository;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	private Customer customer;
+	private Employee employee;
+	private Jewelry ring;
+	private Jewelry earring;
+	private final List<Long> orderIds = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		customer = fixtures.customer("Order Totals");
+		employee = fixtures.salesperson("Order Totals");
+		ring = fixtures.ring("Totals Ring", 500.0);
+		earring = fixtures.earring("Totals Earring", 80.0);
+	}
+
+	@AfterEach
+	void tearDown() {
+		orderIds.forEach(orderService::deleteOrder);
+		fixtures.deleteAll();
+	}
+
+	@Test
+	void totalKeepsThePricesItemsWereSoldAt() {
+		Long id = orderService.createOrder(order(Set.of(ring.getId(), earring.getId()))).getId();
+		orderIds.add(id);
+
+		setPrice(ring, 900.0);
+
+		assertEquals(580.0, orderService.getOrder(id).getTotalAmount());
+	}
+
+	@Test
+	void updatingAnOrderOnlyPricesTheNewItems() {
+		Long id = orderService.createOrder(order(Set.of(ring.getId()))).getId();
+		orderIds.add(id);
+		setPrice(ring, 900.0);
+
+		OrderDTO updated = orderService.updateOrder(id, order(Set.of(ring.getId(), earring.getId())));
+		assertEquals(580.0, updated.getTotalAmount());
+
+		updated = orderService.updateOrder(id, order(Set.of(earring.getId())));
+		assertEquals(80.0, updated.getTotalAmount());
+	}
+
+	@Test
+	void updatingAnOrderOnlyMovesStockOfChangedItems() {
+		Long id = orderService.createOrder(order(Set.of(ring.getId()))).getId();
+		orderIds.add(id);
+
+		orderService.updateOrder(id, order(Set.of(ring.getId(), earring.getId())));
+		assertEquals(9, stockOf(ring));
+		assertEquals(9, stockOf(earring));
+
+		orderService.updateOrder(id, order(Set.of(earring.getId())));
+		assertEquals(10, stockOf(ring));
+		assertEquals(9, stockOf(earring));
+	}
+
+	@Test
+	void linesReserveAndChargeTheirWholeQuantity() {
+		OrderDTO dto = order(null);
+		dto.setItems(List.of(new OrderLineDTO(earring.getId(), 3), new OrderLineDTO(ring.getId(), 1)));
+		Long id = orderService.createOrder(dto).getId();
+		orderIds.add(id);
+
+		assertEquals(740.0, orderService.getOrder(id).getTotalAmount());
+		assertEquals(7, stockOf(earring));
+		assertEquals(9, stockOf(ring));
+
+		dto.setItems(List.of(new OrderLineDTO(earring.getId(), 5), new OrderLineDTO(ring.getId(), 1)));
+		OrderDTO updated = orderService.updateOrder(id, dto);
+
+		assertEquals(900.0, updated.getTotalAmount());
+		assertEquals(5, stockOf(earring));
+		assertEquals(9, stockOf(ring));
+	}
+
+	private int stockOf(Jewelry jewelry) {
+		return jewelryRepository.findById(jewelry.getId()).orElseThrow().getStockQuantity();
+	}
+
+	private void setPrice(Jewelry jewelry, double price) {
+		Jewelry stored = jewelryRepository.findById(jewelry.getId()).orElseThrow();
+		stored.setPrice(price);
+		jewelryRepository.save(stored);
+	}
+
+	private OrderDTO order(Set<Long> jewelryIds) {
+		OrderDTO dto = new OrderDTO();
+		dto.setDate(LocalDate.now());
+		dto.setStatus(OrderStatus.PENDING);
+		dto.setCustomerId(customer.getId());
+		dto.setEmployeeId(employee.getId());
+		dto.setJewelryIds(jewelryIds);
+		return dto;
+	}
+}
@@ -0,0 +1,119 @@
+package com.doa.doajewelry.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.doa.doajewelry.TestFixtures;
+import com.doa.doajewelry.dtos.OrderDTO;
+import com.doa.doajewelry.dtos.PaidBalanceMismatchDTO;
+import com.doa.doajewelry.dtos.PaymentDTO;
+import com.doa.doajewelry.entities.Customer;
+import com.doa.doajewelry.entities.Employee;
+import com.doa.doajewelry.entities.Jewelry;
+import com.doa.doajewelry.entities.enums.OrderStatus;
+import com.doa.doajewelry.entities.enums.PaymentMethod;
+import com.doa.doajewelry.entities.enums.PaymentStatus;
+import com.doa.doajewelry.repositories.OrderRepository;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@SpringBootTest
+@Import(TestFixtures.class)
+class PaidBalanceTest {
+
+	@Autowired
+	private PaymentService paymentService;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Customer customer;
+	private Employee employee;
+	private Jewelry ring;
+	private Long orderId;
+
+	@BeforeEach
+	void setUp() {
+		customer = fixtures.customer("Paid Balance");
+		employee = fixtures.salesperson("Paid Balance");
+		ring = fixtures.ring("Balance Ring", 500.0);
+
+		OrderDTO order = new OrderDTO();
+		order.setDate(LocalDate.now());
+		order.setStatus(OrderStatus.PENDING);
+		order.setCustomerId(customer.getId());
+		order.setEmployeeId(employee.getId());
+		order.setJewelryIds(Set.of(ring.getId()));
+		orderId = orderService.createOrder(order).getId();
+	}
+
+	@AfterEach
+	void tearDown() {
+		orderService.deleteOrder(orderId);
+		fixtures.deleteAll();
+	}
+
+	@Test
+	void paymentChangesKeepThePaidAmountInStep() {
+		PaymentDTO partial = paymentService.createPayment(payment(200.0));
+		assertEquals(PaymentStatus.PENDING, partial.getStatus());
+		assertEquals(0.0, paidAmount());
+
+		PaymentDTO completing = paymentService.createPayment(payment(500.0));
+		assertEquals(PaymentStatus.COMPLETED, completing.getStatus());
+		assertEquals(500.0, paidAmount());
+
+		paymentService.updatePayment(completing.getId(), payment(300.0));
+		assertEquals(0.0, paidAmount());
+
+		paymentService.updatePayment(completing.getId(), payment(500.0));
+		paymentService.refundPayment(completing.getId());
+		assertEquals(0.0, paidAmount());
+
+		assertTrue(paymentService.findPaidBalanceMismatches().isEmpty());
+	}
+
+	@Test
+	void rebuildRepairsBalancesChangedOutsideTheServices() {
+		paymentService.createPayment(payment(500.0));
+		jdbcTemplate.update("UPDATE orders SET paid_amount = 123 WHERE id = ?", orderId);
+
+		List<PaidBalanceMismatchDTO> mismatches = paymentService.rebuildPaidBalances();
+
+		assertEquals(1, mismatches.size());
+		assertEquals(orderId, mismatches.get(0).getOrderId());
+		assertEquals(123.0, mismatches.get(0).getRecordedPaidAmount());
+		assertEquals(500.0, mismatches.get(0).getCompletedPayments());
+		assertEquals(500.0, paidAmount());
+		assertTrue(paymentService.findPaidBalanceMismatches().isEmpty());
+	}
+
+	private Double paidAmount() {
+		return orderRepository.findById(orderId).orElseThrow().getPaidAmount();
+	}
+
+	private PaymentDTO payment(double amount) {
+		PaymentDTO dto = new PaymentDTO();
+		dto.setAmount(amount);
+		dto.setMethod(PaymentMethod.CASH);
+		dto.setOrderId(orderId);
+		return dto;
+	}
+}
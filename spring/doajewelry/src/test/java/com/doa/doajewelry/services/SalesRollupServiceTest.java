@@ -0,0 +1,122 @@
+package com.doa.doajewelry.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.doa.doajewelry.TestFixtures;
+import com.doa.doajewelry.dtos.DailySalesDTO;
+import com.doa.doajewelry.dtos.OrderDTO;
+import com.doa.doajewelry.entities.Customer;
+import com.doa.doajewelry.entities.Employee;
+import com.doa.doajewelry.entities.Jewelry;
+import com.doa.doajewelry.entities.enums.OrderStatus;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+@SpringBootTest
+@Import(TestFixtures.class)
+class SalesRollupServiceTest {
+
+	private static final LocalDate DAY = LocalDate.of(2024, 3, 1);
+
+	@Autowired
+	private SalesRollupService salesRollup;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private EmployeeService employeeService;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	private Customer customer;
+	private Employee employee;
+	private List<Jewelry> jewelry;
+	private final List<Long> orderIds = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		customer = fixtures.customer("Sales Rollup");
+		employee = fixtures.salesperson("Sales Rollup");
+		jewelry = List.of(fixtures.ring("Rollup Ring", 500.0), fixtures.earring("Rollup Earring", 80.0));
+	}
+
+	@AfterEach
+	void tearDown() {
+		orderIds.forEach(orderService::deleteOrder);
+		salesRollup.rebuild();
+		fixtures.deleteAll();
+	}
+
+	@Test
+	void orderChangesKeepTheRollupUpToDate() {
+		Long ring = jewelry.get(0).getId();
+		Long earring = jewelry.get(1).getId();
+		Long first = placeOrder(DAY, Set.of(ring, earring));
+		placeOrder(DAY.plusDays(1), Set.of(earring));
+
+		assertEquals(660.0, salesRollup.getTotalSales(employee.getId()));
+		assertEquals(660.0, employeeService.getEmployee(employee.getId()).getTotalSales());
+
+		OrderDTO update = new OrderDTO();
+		update.setDate(DAY);
+		update.setStatus(OrderStatus.ACCEPTED);
+		update.setCustomerId(customer.getId());
+		update.setEmployeeId(employee.getId());
+		update.setJewelryIds(Set.of(ring));
+		orderService.updateOrder(first, update);
+		assertEquals(580.0, salesRollup.getTotalSales(employee.getId()));
+
+		orderService.deleteOrder(first);
+		orderIds.remove(first);
+		assertEquals(80.0, salesRollup.getTotalSales(employee.getId()));
+	}
+
+	@Test
+	void dailyBucketsSplitSalesByOrderDate() {
+		placeOrder(DAY, Set.of(jewelry.get(0).getId()));
+		placeOrder(DAY, Set.of(jewelry.get(1).getId()));
+		placeOrder(DAY.plusDays(2), Set.of(jewelry.get(1).getId()));
+
+		List<DailySalesDTO> days = employeeService.getDailySales(employee.getId(), DAY, DAY.plusDays(6));
+
+		assertEquals(2, days.size());
+		assertEquals(DAY, days.get(0).getDay());
+		assertEquals(580.0, days.get(0).getTotalSales());
+		assertEquals(2L, days.get(0).getOrderCount());
+		assertEquals(80.0, days.get(1).getTotalSales());
+	}
+
+	@Test
+	void rebuildMatchesTheIncrementalTotals() {
+		placeOrder(DAY, Set.of(jewelry.get(0).getId(), jewelry.get(1).getId()));
+		placeOrder(DAY.plusDays(1), Set.of(jewelry.get(1).getId()));
+		Double incremental = salesRollup.getTotalSales(employee.getId());
+
+		salesRollup.rebuild();
+
+		assertEquals(incremental, salesRollup.getTotalSales(employee.getId()));
+		assertEquals(2, employeeService.getDailySales(employee.getId(), DAY, DAY.plusDays(1)).size());
+	}
+
+	private Long placeOrder(LocalDate date, Set<Long> jewelryIds) {
+		OrderDTO dto = new OrderDTO();
+		dto.setDate(date);
+		dto.setStatus(OrderStatus.PENDING);
+		dto.setCustomerId(customer.getId());
+		dto.setEmployeeId(employee.getId());
+		dto.setJewelryIds(jewelryIds);
+		Long id = orderService.createOrder(dto).getId();
+		orderIds.add(id);
+		return id;
+	}
+}
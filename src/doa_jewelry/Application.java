@@ -2,9 +2,12 @@ package doa_jewelry;
 
 import doa_jewelry.startup.StartupInitializer;
 
+import java.util.Arrays;
+
 public class Application {
     public static void main(String[] args) {
-        StartupInitializer initializer = new StartupInitializer();
+        boolean parallelBootstrap = Arrays.asList(args).contains("--parallel-bootstrap");
+        StartupInitializer initializer = new StartupInitializer(parallelBootstrap);
         initializer.initializeData();
 
         System.out.println("DOA Jewelry Store system initialized.");
@@ -45,6 +45,16 @@ public class JewelryController {
         }
     }
 
+    // Retrieve the most ordered jewelry items and handle potential exceptions
+    public List<Jewelry> getMostOrderedJewelry(int limit) {
+        try {
+            return jewelryService.getMostOrderedJewelry(limit); // Call the service to rank the jewelry items
+        } catch (RepositoryException e) {
+            System.err.println("Error retrieving most ordered jewelry: " + e.getMessage());
+            return List.of(); // Return an empty list if an error occurs
+        }
+    }
+
     // Delete a jewelry item by its ID and handle potential exceptions
     public void deleteJewelry(Long id) {
         try {
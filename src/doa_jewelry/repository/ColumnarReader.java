@@ -0,0 +1,178 @@
+package doa_jewelry.repository;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+// Reads a snapshot written by ColumnarWriter through a read-only memory mapping; columns must be read back in
+// the order they were written and each one is copied out with a single bulk read
+public class ColumnarReader implements Closeable {
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final int rowCount;
+
+    private ColumnarReader(FileChannel channel, ByteBuffer buffer) throws IOException {
+        this.channel = channel;
+        this.buffer = buffer;
+        if (buffer.remaining() < 3 * Integer.BYTES || buffer.getInt() != ColumnarWriter.MAGIC) {
+            throw new IOException("Not a binary snapshot");
+        }
+        int version = buffer.getInt();
+        if (version != ColumnarWriter.VERSION) {
+            throw new IOException("Unsupported binary snapshot version " + version);
+        }
+        this.rowCount = buffer.getInt();
+    }
+
+    public static ColumnarReader open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Binary snapshot larger than 2 GB: " + path);
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            return new ColumnarReader(channel, buffer);
+        } catch (IOException e) {
+            channel.close();
+            throw new IOException("Error opening binary snapshot " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    // Number of entities in the snapshot
+    public int rowCount() {
+        return rowCount;
+    }
+
+    public long[] readLongs() throws IOException {
+        int length = column(ColumnarWriter.LONG);
+        require((long) length * Long.BYTES);
+        long[] values = new long[length];
+        buffer.asLongBuffer().get(values);
+        skip(values.length * Long.BYTES);
+        return values;
+    }
+
+    public int[] readInts() throws IOException {
+        return getInts(column(ColumnarWriter.INT));
+    }
+
+    public double[] readDoubles() throws IOException {
+        int length = column(ColumnarWriter.DOUBLE);
+        require((long) length * Double.BYTES);
+        double[] values = new double[length];
+        buffer.asDoubleBuffer().get(values);
+        skip(values.length * Double.BYTES);
+        return values;
+    }
+
+    public byte[] readBytes() throws IOException {
+        return getBytes(column(ColumnarWriter.BYTE));
+    }
+
+    public LocalDate[] readDates() throws IOException {
+        int[] epochDays = getInts(column(ColumnarWriter.DATE));
+        LocalDate[] values = new LocalDate[epochDays.length];
+        for (int i = 0; i < epochDays.length; i++) {
+            values[i] = epochDays[i] == ColumnarWriter.NULL_DATE ? null : LocalDate.ofEpochDay(epochDays[i]);
+        }
+        return values;
+    }
+
+    // Resolves the stored dictionary by constant name, failing on names the enum no longer has
+    public <T extends Enum<T>> T[] readEnums(T[] constants) throws IOException {
+        int length = column(ColumnarWriter.ENUM);
+        require(1);
+        int dictionarySize = buffer.get();
+        Object[] dictionary = new Object[dictionarySize];
+        for (int code = 0; code < dictionarySize; code++) {
+            require(Short.BYTES);
+            String name = new String(getBytes(buffer.getShort()), StandardCharsets.UTF_8);
+            for (T constant : constants) {
+                if (constant.name().equals(name)) {
+                    dictionary[code] = constant;
+                }
+            }
+            if (dictionary[code] == null) {
+                throw new IOException("Unknown constant in binary snapshot: " + name);
+            }
+        }
+
+        byte[] codes = getBytes(length);
+        T[] values = Arrays.copyOf(constants, length);
+        for (int i = 0; i < length; i++) {
+            if (codes[i] >= dictionarySize) {
+                throw new IOException("Corrupt enum column in binary snapshot");
+            }
+            @SuppressWarnings("unchecked")
+            T value = codes[i] < 0 ? null : (T) dictionary[codes[i]];
+            values[i] = value;
+        }
+        return values;
+    }
+
+    public String[] readStrings() throws IOException {
+        int[] lengths = getInts(column(ColumnarWriter.STRING));
+        require(Integer.BYTES);
+        byte[] bytes = getBytes(buffer.getInt());
+
+        String[] values = new String[lengths.length];
+        int offset = 0;
+        for (int i = 0; i < lengths.length; i++) {
+            if (lengths[i] != ColumnarWriter.NULL_LENGTH) {
+                values[i] = new String(bytes, offset, lengths[i], StandardCharsets.UTF_8);
+                offset += lengths[i];
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // Reads a column header and returns its length
+    private int column(byte expectedType) throws IOException {
+        require(1 + Integer.BYTES);
+        byte type = buffer.get();
+        int length = buffer.getInt();
+        if (type != expectedType) {
+            throw new IOException("Expected column type " + expectedType + " but found " + type);
+        }
+        return length;
+    }
+
+    private int[] getInts(int length) throws IOException {
+        require((long) length * Integer.BYTES);
+        int[] values = new int[length];
+        buffer.asIntBuffer().get(values);
+        skip(length * Integer.BYTES);
+        return values;
+    }
+
+    private byte[] getBytes(int length) throws IOException {
+        require(length);
+        byte[] values = new byte[length];
+        buffer.get(values);
+        return values;
+    }
+
+    private void skip(int bytes) {
+        buffer.position(buffer.position() + bytes);
+    }
+
+    private void require(long bytes) throws IOException {
+        if (bytes < 0 || buffer.remaining() < bytes) {
+            throw new IOException("Binary snapshot is truncated");
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package doa_jewelry.repository;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+// Writes a binary snapshot one column at a time: a header with the row count, then each column as a type tag,
+// its length and its values. Primitives are stored fixed-width, dates as epoch days, enums as one-byte codes
+// into a dictionary of constant names and strings as a length column followed by their UTF-8 bytes.
+public class ColumnarWriter {
+
+    static final int MAGIC = 0x444F4143; // "DOAC"
+    static final int VERSION = 1;
+    static final byte LONG = 1;
+    static final byte INT = 2;
+    static final byte DOUBLE = 3;
+    static final byte BYTE = 4;
+    static final byte DATE = 5;
+    static final byte ENUM = 6;
+    static final byte STRING = 7;
+    static final int NULL_DATE = Integer.MIN_VALUE; // Epoch day written for a missing date
+    static final int NULL_LENGTH = -1; // Byte length written for a missing string
+
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+    public ColumnarWriter(FileChannel channel, int rowCount) {
+        this.channel = channel;
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(rowCount);
+    }
+
+    public void writeLongs(long[] values) throws IOException {
+        header(LONG, values.length);
+        for (int offset = 0; offset < values.length; ) {
+            int count = Math.min(values.length - offset, room(Long.BYTES));
+            buffer.asLongBuffer().put(values, offset, count);
+            buffer.position(buffer.position() + count * Long.BYTES);
+            offset += count;
+        }
+    }
+
+    public void writeInts(int[] values) throws IOException {
+        header(INT, values.length);
+        putInts(values);
+    }
+
+    public void writeDoubles(double[] values) throws IOException {
+        header(DOUBLE, values.length);
+        for (int offset = 0; offset < values.length; ) {
+            int count = Math.min(values.length - offset, room(Double.BYTES));
+            buffer.asDoubleBuffer().put(values, offset, count);
+            buffer.position(buffer.position() + count * Double.BYTES);
+            offset += count;
+        }
+    }
+
+    public void writeBytes(byte[] values) throws IOException {
+        header(BYTE, values.length);
+        putBytes(values);
+    }
+
+    public void writeDates(LocalDate[] values) throws IOException {
+        int[] epochDays = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            epochDays[i] = values[i] == null ? NULL_DATE : Math.toIntExact(values[i].toEpochDay());
+        }
+        header(DATE, epochDays.length);
+        putInts(epochDays);
+    }
+
+    // Stores the constant names once, so reordering the enum does not invalidate existing snapshots
+    public <T extends Enum<T>> void writeEnums(T[] values, T[] constants) throws IOException {
+        header(ENUM, values.length);
+        room(1);
+        buffer.put((byte) constants.length);
+        for (T constant : constants) {
+            byte[] name = constant.name().getBytes(StandardCharsets.UTF_8);
+            room(Short.BYTES + name.length);
+            buffer.putShort((short) name.length).put(name);
+        }
+
+        byte[] codes = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            codes[i] = values[i] == null ? -1 : (byte) values[i].ordinal();
+        }
+        putBytes(codes);
+    }
+
+    public void writeStrings(String[] values) throws IOException {
+        byte[][] encoded = new byte[values.length][];
+        int[] lengths = new int[values.length];
+        int total = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == null) {
+                lengths[i] = NULL_LENGTH;
+            } else {
+                encoded[i] = values[i].getBytes(StandardCharsets.UTF_8);
+                lengths[i] = encoded[i].length;
+                total += lengths[i];
+            }
+        }
+
+        header(STRING, values.length);
+        putInts(lengths);
+        room(Integer.BYTES);
+        buffer.putInt(total);
+        for (byte[] bytes : encoded) {
+            if (bytes != null) {
+                putBytes(bytes);
+            }
+        }
+    }
+
+    // Writes out whatever is still buffered; call once after the last column
+    public void flush() throws IOException {
+        drain();
+    }
+
+    private void header(byte type, int length) throws IOException {
+        room(1 + Integer.BYTES);
+        buffer.put(type).putInt(length);
+    }
+
+    private void putInts(int[] values) throws IOException {
+        for (int offset = 0; offset < values.length; ) {
+            int count = Math.min(values.length - offset, room(Integer.BYTES));
+            buffer.asIntBuffer().put(values, offset, count);
+            buffer.position(buffer.position() + count * Integer.BYTES);
+            offset += count;
+        }
+    }
+
+    private void putBytes(byte[] values) throws IOException {
+        for (int offset = 0; offset < values.length; ) {
+            int count = Math.min(values.length - offset, room(1));
+            buffer.put(values, offset, count);
+            offset += count;
+        }
+    }
+
+    // Makes space for at least the given number of bytes and returns how many values of that width fit
+    private int room(int width) throws IOException {
+        if (buffer.remaining() < width) {
+            drain();
+        }
+        return buffer.remaining() / width;
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
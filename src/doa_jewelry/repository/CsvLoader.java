@@ -0,0 +1,13 @@
+package doa_jewelry.repository;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Strategy for reading a CSV snapshot into a repository
+public interface CsvLoader {
+
+    // Parses every row of the file and hands the entities to the sink in file order
+    <E> void load(Path path, Function<CsvReader, E> parser, Consumer<E> sink) throws IOException;
+}
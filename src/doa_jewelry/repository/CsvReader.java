@@ -0,0 +1,333 @@
+package doa_jewelry.repository;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+// Row-by-row CSV reader over a memory-mapped file; fields are parsed straight from the mapped bytes and
+// only string fields allocate
+public class CsvReader implements Closeable {
+
+    private static final long WINDOW_SIZE = 1L << 30; // Largest region mapped at once
+    private static final long MAX_EXACT_MANTISSA = 1L << 53; // Largest mantissa a double holds exactly
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final FileChannel channel; // Null when reading a single in-memory line
+    private final long endOffset; // File offset where reading stops
+    private ByteBuffer buffer; // Currently mapped window of the file
+    private long windowStart; // File offset of the mapped window
+    private int next; // Buffer offset of the next row
+    private int rowStart;
+    private int rowEnd;
+    private int fieldCount;
+    private int[] fieldStarts = new int[16]; // Buffer offsets of the trimmed fields of the current row
+    private int[] fieldEnds = new int[16];
+    private byte[] scratch = new byte[64]; // Reused when decoding string fields
+
+    private CsvReader(FileChannel channel, long start, long end, ByteBuffer buffer) {
+        this.channel = channel;
+        this.windowStart = start;
+        this.endOffset = end;
+        this.buffer = buffer;
+    }
+
+    // Opens a CSV file for reading through a read-only memory mapping
+    public static CsvReader open(Path path) throws IOException {
+        return open(path, 0, Long.MAX_VALUE);
+    }
+
+    // Opens the rows between two file offsets; start must be at the beginning of a row
+    public static CsvReader open(Path path, long start, long end) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long limit = Math.min(end, channel.size());
+            long length = Math.max(0, Math.min(limit - start, WINDOW_SIZE));
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            return new CsvReader(channel, start, limit, buffer);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // Wraps a single CSV line, e.g. a write-ahead log record
+    public static CsvReader ofLine(String line) {
+        ByteBuffer buffer = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+        return new CsvReader(null, 0, buffer.limit(), buffer);
+    }
+
+    // Advances to the next row, returning false at the end of the file
+    public boolean nextRow() throws IOException {
+        int newline = indexOfNewline(next);
+        if (newline < 0 && windowStart + buffer.limit() < endOffset) {
+            remap(windowStart + next);
+            newline = indexOfNewline(next);
+            if (newline < 0 && windowStart + buffer.limit() < endOffset) {
+                throw new IOException("CSV row longer than " + WINDOW_SIZE + " bytes at offset " + windowStart);
+            }
+        }
+        if (next >= buffer.limit()) {
+            return false;
+        }
+
+        rowStart = next;
+        rowEnd = newline < 0 ? buffer.limit() : newline;
+        next = newline < 0 ? buffer.limit() : newline + 1;
+        if (rowEnd > rowStart && buffer.get(rowEnd - 1) == '\r') {
+            rowEnd--;
+        }
+        splitRow();
+        return true;
+    }
+
+    // Number of fields in the current row; trailing empty fields are dropped, as String.split does
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    // Returns the current row as text, for error messages
+    public String line() {
+        return decode(rowStart, rowEnd);
+    }
+
+    public String getString(int field) {
+        checkField(field);
+        return decode(fieldStarts[field], fieldEnds[field]);
+    }
+
+    public boolean fieldEqualsIgnoreCase(int field, String value) {
+        checkField(field);
+        int start = fieldStarts[field];
+        int length = fieldEnds[field] - start;
+        if (length != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (Character.toUpperCase((char) buffer.get(start + i)) != Character.toUpperCase(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getInt(int field) {
+        long value = getLong(field);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("For input string: \"" + getString(field) + "\"");
+        }
+        return (int) value;
+    }
+
+    public long getLong(int field) {
+        checkField(field);
+        int position = fieldStarts[field];
+        int end = fieldEnds[field];
+        boolean negative = position < end && buffer.get(position) == '-';
+        if (position < end && (buffer.get(position) == '-' || buffer.get(position) == '+')) {
+            position++;
+        }
+        if (position == end || end - position > 18) {
+            // Empty or possibly overflowing: let Long report or handle it
+            return Long.parseLong(getString(field));
+        }
+
+        long value = 0;
+        for (; position < end; position++) {
+            int digit = buffer.get(position) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("For input string: \"" + getString(field) + "\"");
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    // Parses plain decimal notation exactly when the mantissa and exponent fit a double; anything else
+    // goes through Double.parseDouble
+    public double getDouble(int field) {
+        checkField(field);
+        int position = fieldStarts[field];
+        int end = fieldEnds[field];
+        boolean negative = position < end && buffer.get(position) == '-';
+        if (position < end && (buffer.get(position) == '-' || buffer.get(position) == '+')) {
+            position++;
+        }
+
+        long mantissa = 0;
+        int digits = 0; // Significant digits in the mantissa
+        int exponent = 0;
+        boolean seenDigit = false;
+        boolean seenPoint = false;
+        for (; position < end; position++) {
+            byte b = buffer.get(position);
+            if (b >= '0' && b <= '9') {
+                seenDigit = true;
+                if (digits == 18) {
+                    return Double.parseDouble(getString(field));
+                }
+                if (mantissa != 0 || b != '0') {
+                    digits++;
+                }
+                mantissa = mantissa * 10 + (b - '0');
+                if (seenPoint) {
+                    exponent--;
+                }
+            } else if (b == '.' && !seenPoint) {
+                seenPoint = true;
+            } else if (b == 'e' || b == 'E') {
+                break;
+            } else {
+                return Double.parseDouble(getString(field));
+            }
+        }
+        if (!seenDigit) {
+            return Double.parseDouble(getString(field));
+        }
+        if (position < end) {
+            if (position + 1 == end || end - position > 5) {
+                return Double.parseDouble(getString(field));
+            }
+            boolean negativeExponent = buffer.get(position + 1) == '-';
+            int exponentStart = position + (buffer.get(position + 1) == '-' || buffer.get(position + 1) == '+' ? 2 : 1);
+            if (exponentStart == end) {
+                return Double.parseDouble(getString(field));
+            }
+            int explicitExponent = 0;
+            for (int i = exponentStart; i < end; i++) {
+                int digit = buffer.get(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    return Double.parseDouble(getString(field));
+                }
+                explicitExponent = explicitExponent * 10 + digit;
+            }
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+        }
+
+        if (mantissa == 0) {
+            return negative ? -0.0 : 0.0;
+        }
+        if (mantissa > MAX_EXACT_MANTISSA || exponent < -22 || exponent > 22) {
+            return Double.parseDouble(getString(field));
+        }
+        double value = exponent >= 0 ? mantissa * POWERS_OF_TEN[exponent] : mantissa / POWERS_OF_TEN[-exponent];
+        return negative ? -value : value;
+    }
+
+    // Parses an ISO yyyy-MM-dd date without allocating; other layouts go through LocalDate.parse
+    public LocalDate getDate(int field) {
+        checkField(field);
+        int start = fieldStarts[field];
+        if (fieldEnds[field] - start == 10 && buffer.get(start + 4) == '-' && buffer.get(start + 7) == '-') {
+            int year = digits(start, 4);
+            int month = digits(start + 5, 2);
+            int day = digits(start + 8, 2);
+            if (year >= 0 && month >= 0 && day >= 0) {
+                return LocalDate.of(year, month, day);
+            }
+        }
+        return LocalDate.parse(getString(field));
+    }
+
+    // Matches the field against the constant names case-insensitively, like valueOf(toUpperCase())
+    public <T extends Enum<T>> T getEnum(int field, T[] values) {
+        for (T value : values) {
+            if (fieldEqualsIgnoreCase(field, value.name())) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("No enum constant "
+                + values.getClass().getComponentType().getCanonicalName() + "." + getString(field).toUpperCase());
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private void splitRow() {
+        fieldCount = 0;
+        int fieldStart = rowStart;
+        for (int i = rowStart; i < rowEnd; i++) {
+            if (buffer.get(i) == ',') {
+                addField(fieldStart, i);
+                fieldStart = i + 1;
+            }
+        }
+        addField(fieldStart, rowEnd);
+        while (fieldCount > 0 && fieldStarts[fieldCount - 1] == fieldEnds[fieldCount - 1]) {
+            fieldCount--;
+        }
+    }
+
+    private void addField(int start, int end) {
+        while (start < end && (buffer.get(start) & 0xFF) <= ' ') {
+            start++;
+        }
+        while (end > start && (buffer.get(end - 1) & 0xFF) <= ' ') {
+            end--;
+        }
+        if (fieldCount == fieldStarts.length) {
+            fieldStarts = Arrays.copyOf(fieldStarts, fieldCount * 2);
+            fieldEnds = Arrays.copyOf(fieldEnds, fieldCount * 2);
+        }
+        fieldStarts[fieldCount] = start;
+        fieldEnds[fieldCount] = end;
+        fieldCount++;
+    }
+
+    private void checkField(int field) {
+        if (field < 0 || field >= fieldCount) {
+            throw new IndexOutOfBoundsException("Field " + field + " out of bounds for row: " + line());
+        }
+    }
+
+    // Reads a fixed number of ASCII digits, returning -1 if any byte is not a digit
+    private int digits(int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private int indexOfNewline(int from) {
+        for (int i = from; i < buffer.limit(); i++) {
+            if (buffer.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void remap(long position) throws IOException {
+        windowStart = position;
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(endOffset - position, WINDOW_SIZE));
+        next = 0;
+    }
+
+    private String decode(int start, int end) {
+        int length = end - start;
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        for (int i = 0; i < length; i++) {
+            scratch[i] = buffer.get(start + i);
+        }
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+}
@@ -6,6 +6,8 @@ import doa_jewelry.exception.RepositoryException;
 import doa_jewelry.exception.EntityNotFoundException;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -14,153 +16,233 @@ import java.util.Optional;
 public class CustomerRepository extends MyCrudRepository<Customer> {
 
     private static final String FILE_PATH = "data/customer.csv"; // Path to the CSV file
-    private final List<Customer> customers = new ArrayList<>(); // In-memory list of customers
+    private static final String LOG_PATH = "data/customer.wal"; // Path to the write-ahead log
+    private static final String BINARY_PATH = "data/customer.bin"; // Columnar snapshot, replaces the CSV once imported
+    private final SnapshotWriter snapshotWriter = new SnapshotWriter(FILE_PATH); // Atomic temp-file + rename writes
+    private final SnapshotWriter binaryWriter = new SnapshotWriter(BINARY_PATH);
+    private final Object uniqueFields = new Object(); // Lock key serialising the NIF and email checks of saves
 
-    // Constructor loads data from the CSV file into the in-memory list
+    // Constructor loads data from the CSV file into the in-memory store and replays the log on top
     public CustomerRepository() {
-        loadFromFile();
+        this(new SequentialCsvLoader());
+    }
+
+    // Constructor that reads the CSV file with the given loader, e.g. a ParallelCsvLoader at startup
+    public CustomerRepository(CsvLoader loader) {
+        loadFromFile(loader);
+        attachLog(new WriteAheadLog(LOG_PATH));
+    }
+
+    @Override
+    protected Long idOf(Customer customer) {
+        return customer.getId();
     }
 
     @Override
     public Customer save(Customer customer) throws RepositoryException {
-        // Check if a customer with the same NIF already exists
-        boolean nifExists = customers.stream()
-                .anyMatch(c -> c.getNif().equalsIgnoreCase(customer.getNif()));
-        if (nifExists) {
-            throw new EntityAlreadyExistsException("Customer with NIF " + customer.getNif() + " already exists.");
-        }
+        return mutate(uniqueFields, () -> {
+            // Check if a customer with the same NIF already exists
+            boolean nifExists = anyMatch(c -> c.getNif().equalsIgnoreCase(customer.getNif()));
+            if (nifExists) {
+                throw new EntityAlreadyExistsException("Customer with NIF " + customer.getNif() + " already exists.");
+            }
 
-        // Check if a customer with the same email already exists
-        boolean emailExists = customers.stream()
-                .anyMatch(c -> c.getEmail().equalsIgnoreCase(customer.getEmail()));
-        if (emailExists) {
-            throw new EntityAlreadyExistsException("Customer with email " + customer.getEmail() + " already exists.");
-        }
+            // Check if a customer with the same email already exists
+            boolean emailExists = anyMatch(c -> c.getEmail().equalsIgnoreCase(customer.getEmail()));
+            if (emailExists) {
+                throw new EntityAlreadyExistsException(
+                        "Customer with email " + customer.getEmail() + " already exists.");
+            }
 
-        // Assign a new ID if none is provided
-        if (customer.getId() == null) {
-            Long newId = customers.stream()
-                    .mapToLong(c -> c.getId() != null ? c.getId() : 0L)
-                    .max()
-                    .orElse(0L) + 1;
-            customer.setId(newId);
-        }
+            // Assign a new ID if none is provided
+            if (customer.getId() == null) {
+                customer.setId(nextId());
+            }
 
-        // Add the customer to the in-memory list
-        customers.add(customer);
-        return customer;
+            // Add the customer to the in-memory store
+            index(customer);
+            logUpsert(customer);
+            return customer;
+        });
     }
 
     @Override
     public Customer update(Customer customer) throws RepositoryException {
-        // Find the existing customer by ID
-        Optional<Customer> existingCustomerOpt = findById(customer.getId());
-        if (existingCustomerOpt.isPresent()) {
-            // Update the customer details
-            Customer existingCustomer = existingCustomerOpt.get();
-            existingCustomer.setName(customer.getName());
-            existingCustomer.setNif(customer.getNif());
-            existingCustomer.setEmail(customer.getEmail());
-            existingCustomer.setPhoneNumber(customer.getPhoneNumber());
-            existingCustomer.setAddress(customer.getAddress());
-            return existingCustomer;
-        } else {
-            throw new EntityNotFoundException("Customer not found with ID: " + customer.getId());
-        }
+        return mutate(customer.getId(), () -> {
+            // Find the existing customer by ID
+            Optional<Customer> existingCustomerOpt = findById(customer.getId());
+            if (existingCustomerOpt.isPresent()) {
+                // Update the customer details
+                Customer existingCustomer = existingCustomerOpt.get();
+                existingCustomer.setName(customer.getName());
+                existingCustomer.setNif(customer.getNif());
+                existingCustomer.setEmail(customer.getEmail());
+                existingCustomer.setPhoneNumber(customer.getPhoneNumber());
+                existingCustomer.setAddress(customer.getAddress());
+                logUpsert(existingCustomer);
+                return existingCustomer;
+            } else {
+                throw new EntityNotFoundException("Customer not found with ID: " + customer.getId());
+            }
+        });
     }
 
     @Override
     public void deleteById(Long id) throws RepositoryException {
-        // Remove the customer with the given ID from the list
-        boolean removed = customers.removeIf(c -> c.getId().equals(id));
-        if (!removed) {
-            throw new EntityNotFoundException("Customer not found for ID: " + id);
+        mutate(id, () -> {
+            // Remove the customer with the given ID from the store
+            if (unindex(id) == null) {
+                throw new EntityNotFoundException("Customer not found for ID: " + id);
+            }
+            logDelete(id);
+        });
+    }
+
+    @Override
+    protected Customer fromCsvRow(CsvReader row) throws RepositoryException {
+        if (row.fieldCount() < 6) {
+            throw new RepositoryException("Invalid format for customer");
         }
+
+        // Parse customer data from the CSV row
+        Long id = row.getLong(0);
+
+        Customer customer = new Customer(
+                row.getString(1), // name
+                row.getString(2), // nif
+                row.getString(3), // email
+                row.getString(4), // phoneNumber
+                row.getString(5)  // address
+        );
+
+        customer.setId(id);
+        return customer;
     }
 
     @Override
-    public List<Customer> findAll() {
-        // Return a copy of the in-memory list to prevent external modification
-        return new ArrayList<>(customers);
+    protected String toCsvLine(Customer customer) {
+        return customer.getId() + "," + customer.getName() + "," + customer.getNif() + ","
+                + customer.getEmail() + "," + customer.getPhoneNumber() + "," + customer.getAddress();
     }
 
     @Override
-    public Optional<Customer> findById(Long id) {
-        // Find a customer by their ID
-        return customers.stream().filter(c -> c.getId().equals(id)).findFirst();
+    protected void writeColumns(List<Customer> customers, ColumnarWriter out) throws IOException {
+        long[] ids = new long[customers.size()];
+        String[] names = new String[customers.size()];
+        String[] nifs = new String[customers.size()];
+        String[] emails = new String[customers.size()];
+        String[] phoneNumbers = new String[customers.size()];
+        String[] addresses = new String[customers.size()];
+        for (int i = 0; i < customers.size(); i++) {
+            Customer customer = customers.get(i);
+            ids[i] = customer.getId();
+            names[i] = customer.getName();
+            nifs[i] = customer.getNif();
+            emails[i] = customer.getEmail();
+            phoneNumbers[i] = customer.getPhoneNumber();
+            addresses[i] = customer.getAddress();
+        }
+
+        out.writeLongs(ids);
+        out.writeStrings(names);
+        out.writeStrings(nifs);
+        out.writeStrings(emails);
+        out.writeStrings(phoneNumbers);
+        out.writeStrings(addresses);
     }
 
-    public boolean existsById(Long id) {
-        // Check if a customer exists with the given ID
-        return customers.stream().anyMatch(c -> c.getId().equals(id));
+    @Override
+    protected List<Customer> readColumns(ColumnarReader in) throws IOException {
+        long[] ids = in.readLongs();
+        String[] names = in.readStrings();
+        String[] nifs = in.readStrings();
+        String[] emails = in.readStrings();
+        String[] phoneNumbers = in.readStrings();
+        String[] addresses = in.readStrings();
+
+        List<Customer> customers = new ArrayList<>(in.rowCount());
+        for (int i = 0; i < in.rowCount(); i++) {
+            Customer customer = new Customer(names[i], nifs[i], emails[i], phoneNumbers[i], addresses[i]);
+            customer.setId(ids[i]);
+            customers.add(customer);
+        }
+        return customers;
     }
 
-    // Load customers from the CSV file into the in-memory list
-    private void loadFromFile() {
+    // Load customers from the CSV file into the in-memory store
+    private void loadFromFile(CsvLoader loader) {
         File file = new File(FILE_PATH);
-        if (!file.exists())
-            return;
-
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] data = line.split(",");
-                if (data.length < 6) {
-                    throw new RepositoryException("Invalid format for customer");
-                }
-
-                // Parse customer data from the CSV line
-                Long id = Long.parseLong(data[0]);
-
-                Customer customer = new Customer(
-                        data[1], // name
-                        data[2], // nif
-                        data[3], // email
-                        data[4], // phoneNumber
-                        data[5]  // address
-                );
-
-                customer.setId(id);
-                customers.add(customer);
-            }
+
+        try {
+            // The binary snapshot takes the place of the CSV file once it exists
+            if (loadBinarySnapshot(Paths.get(BINARY_PATH)) || !file.exists()) return;
+
+            loader.load(file.toPath(), this::fromCsvRow, this::index);
         } catch (IOException | RepositoryException e) {
             throw new RuntimeException("Error loading customers from CSV", e);
         }
     }
 
-    // Save the in-memory list of customers to the CSV file
+    // Save the in-memory customers to the binary or CSV snapshot
     private void saveToFile() throws RepositoryException {
+        pauseMutations();
         try {
-            File file = new File(FILE_PATH);
-            File parentDir = file.getParentFile();
-            if (parentDir != null && !parentDir.exists()) {
-                boolean dirCreated = parentDir.mkdirs();
-                if (!dirCreated) {
-                    throw new RepositoryException("Error creating directory for CSV file.");
-                }
+            if (Files.exists(Paths.get(BINARY_PATH))) {
+                saveBinarySnapshot(binaryWriter);
+            } else {
+                snapshotWriter.write(values(), this::toCsvLine);
             }
+            resetLog();
+        } catch (IOException e) {
+            throw new RepositoryException("Error saving customers to CSV", e);
+        } finally {
+            resumeMutations();
+        }
+    }
+
+    // Export the customers to the CSV file, also while the binary snapshot is in use
+    public void exportToCsv() throws RepositoryException {
+        pauseMutations();
+        try {
+            snapshotWriter.write(values(), this::toCsvLine);
+        } catch (IOException e) {
+            throw new RepositoryException("Error exporting customers to CSV", e);
+        } finally {
+            resumeMutations();
+        }
+    }
 
-            try (BufferedWriter bw = new BufferedWriter(new FileWriter(file))) {
-                for (Customer customer : customers) {
-                    // Write each customer's data to the CSV file
-                    bw.write(customer.getId() + "," + customer.getName() + "," + customer.getNif() + ","
-                            + customer.getEmail() + "," + customer.getPhoneNumber() + "," + customer.getAddress());
-                    bw.newLine();
-                }
+    // Keep the customers in the binary snapshot from now on, including logged changes the CSV file lacks; once the
+    // binary snapshot is in use, replace the customers with the contents of the CSV file
+    public void importFromCsv() throws RepositoryException {
+        pauseMutations();
+        try {
+            if (Files.exists(Paths.get(BINARY_PATH))) {
+                reloadFromCsv(Paths.get(FILE_PATH));
             }
+            saveBinarySnapshot(binaryWriter);
+            resetLog();
         } catch (IOException e) {
-            throw new RepositoryException("Error saving customers to CSV", e);
+            throw new RepositoryException("Error importing customers from CSV", e);
+        } finally {
+            resumeMutations();
         }
     }
 
     // Save all customers to the CSV file
+    @Override
     public void saveAll() throws RepositoryException {
-        saveToFile();
+        coalesceSaves(this::saveToFile);
     }
 
     // Delete all customers and clear the CSV file
     public void deleteAll() {
-        customers.clear();
-        saveToFile();
+        pauseMutations();
+        try {
+            clear();
+            saveToFile();
+        } finally {
+            resumeMutations();
+        }
     }
 }
@@ -8,6 +8,8 @@ import doa_jewelry.exception.EntityNotFoundException;
 import doa_jewelry.exception.RepositoryException;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
@@ -17,34 +19,49 @@ import java.util.Optional;
 public class EmployeeRepository extends MyCrudRepository<Employee> {
 
     private static final String FILE_PATH = "data/employees.csv"; // Path to the CSV file for employee data
-    private final List<Employee> employees = new ArrayList<>(); // In-memory list of employees
+    private static final String LOG_PATH = "data/employees.wal"; // Path to the write-ahead log
+    private static final String BINARY_PATH = "data/employees.bin"; // Columnar snapshot, replaces the CSV once imported
+    private final SnapshotWriter snapshotWriter = new SnapshotWriter(FILE_PATH); // Atomic temp-file + rename writes
+    private final SnapshotWriter binaryWriter = new SnapshotWriter(BINARY_PATH);
+    private final Object uniqueFields = new Object(); // Lock key serialising the NIF checks of saves
+    private static final byte MANAGER = 0; // Employee type codes in the binary snapshot
+    private static final byte SALESPERSON = 1;
 
-    // Constructor that loads employees from the CSV file into memory
+    // Constructor that loads employees from the CSV file into memory and replays the log on top
     public EmployeeRepository() {
-        loadFromFile();
+        this(new SequentialCsvLoader());
+    }
+
+    // Constructor that reads the CSV file with the given loader, e.g. a ParallelCsvLoader at startup
+    public EmployeeRepository(CsvLoader loader) {
+        loadFromFile(loader);
+        attachLog(new WriteAheadLog(LOG_PATH));
+    }
+
+    @Override
+    protected Long idOf(Employee employee) {
+        return employee.getId();
     }
 
     @Override
     public Employee save(Employee employee) throws RepositoryException {
-        // Check if an employee with the same NIF already exists
-        boolean nifExists = employees.stream()
-                .anyMatch(e -> e.getNif().equalsIgnoreCase(employee.getNif()));
-        if (nifExists) {
-            throw new EntityAlreadyExistsException("Employee with NIF " + employee.getNif() + " already exists.");
-        }
+        return mutate(uniqueFields, () -> {
+            // Check if an employee with the same NIF already exists
+            boolean nifExists = anyMatch(e -> e.getNif().equalsIgnoreCase(employee.getNif()));
+            if (nifExists) {
+                throw new EntityAlreadyExistsException("Employee with NIF " + employee.getNif() + " already exists.");
+            }
 
-        // Assign a new ID if the employee doesn't have one
-        if (employee.getId() == null) {
-            Long newId = employees.stream()
-                    .mapToLong(e -> e.getId() != null ? e.getId() : 0L)
-                    .max()
-                    .orElse(0L) + 1;
-            employee.setId(newId);
-        }
+            // Assign a new ID if the employee doesn't have one
+            if (employee.getId() == null) {
+                employee.setId(nextId());
+            }
 
-        // Add the employee to the in-memory list
-        employees.add(employee);
-        return employee;
+            // Add the employee to the in-memory store
+            index(employee);
+            logUpsert(employee);
+            return employee;
+        });
     }
 
     @Override
@@ -54,131 +71,217 @@ public class EmployeeRepository extends MyCrudRepository<Employee> {
             throw new RepositoryException("The ID cannot be null for updating an employee.");
         }
 
-        // Find the existing employee by ID
-        Optional<Employee> existingEmployeeOpt = findById(employee.getId());
-        if (existingEmployeeOpt.isPresent()) {
-            Employee existingEmployee = existingEmployeeOpt.get();
-
-            // Update the employee's basic information
-            existingEmployee.setName(employee.getName());
-            existingEmployee.setNif(employee.getNif());
-            existingEmployee.setHireDate(employee.getHireDate());
-            existingEmployee.setSalary(employee.getSalary());
-
-            // Update specific attributes based on the employee type
-            if (existingEmployee instanceof Manager && employee instanceof Manager) {
-                ((Manager) existingEmployee).setSalesGoal(((Manager) employee).getSalesGoal());
-            } else if (!(existingEmployee.getClass().equals(employee.getClass()))) {
-                throw new RepositoryException("Employee type does not match the existing one.");
+        return mutate(employee.getId(), () -> {
+            // Find the existing employee by ID
+            Optional<Employee> existingEmployeeOpt = findById(employee.getId());
+            if (existingEmployeeOpt.isPresent()) {
+                Employee existingEmployee = existingEmployeeOpt.get();
+
+                // Update the employee's basic information
+                existingEmployee.setName(employee.getName());
+                existingEmployee.setNif(employee.getNif());
+                existingEmployee.setHireDate(employee.getHireDate());
+                existingEmployee.setSalary(employee.getSalary());
+
+                // Update specific attributes based on the employee type
+                if (existingEmployee instanceof Manager && employee instanceof Manager) {
+                    ((Manager) existingEmployee).setSalesGoal(((Manager) employee).getSalesGoal());
+                } else if (!(existingEmployee.getClass().equals(employee.getClass()))) {
+                    throw new RepositoryException("Employee type does not match the existing one.");
+                }
+
+                logUpsert(existingEmployee);
+                return existingEmployee;
+            } else {
+                throw new EntityNotFoundException("Employee not found with ID: " + employee.getId());
             }
+        });
+    }
+
+    @Override
+    public void deleteById(Long id) throws RepositoryException {
+        mutate(id, () -> {
+            // Remove the employee with the specified ID
+            if (unindex(id) == null) {
+                throw new EntityNotFoundException("Employee not found with ID: " + id);
+            }
+            logDelete(id);
+        });
+    }
 
-            return existingEmployee;
+    @Override
+    protected Employee fromCsvRow(CsvReader row) {
+        if (row.fieldCount() < 6) {
+            throw new RuntimeException("Insufficient data in line: " + row.line());
+        }
+
+        // Extract employee data
+        Long id = row.getLong(1);
+        String name = row.getString(2);
+        String nif = row.getString(3);
+        LocalDate hireDate = row.getDate(4);
+        double salary = row.getDouble(5);
+
+        // Determine the employee type and create the corresponding object
+        if (row.fieldEqualsIgnoreCase(0, "manager")) {
+            if (row.fieldCount() < 7) {
+                throw new RuntimeException("Insufficient data for Manager in line: " + row.line());
+            }
+            double salesGoal = row.getDouble(6);
+            return new Manager(id, name, nif, hireDate, salary, salesGoal);
+        } else if (row.fieldEqualsIgnoreCase(0, "salesperson")) {
+            return new Salesperson(id, name, nif, hireDate, salary);
         } else {
-            throw new EntityNotFoundException("Employee not found with ID: " + employee.getId());
+            throw new RuntimeException("Unknown employee type: " + row.getString(0));
         }
     }
 
     @Override
-    public void deleteById(Long id) throws RepositoryException {
-        // Remove the employee with the specified ID
-        Optional<Employee> employeeOpt = findById(id);
-        if (employeeOpt.isPresent()) {
-            employees.remove(employeeOpt.get());
-        } else {
-            throw new EntityNotFoundException("Employee not found with ID: " + id);
+    protected String toCsvLine(Employee employee) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(employee.getClass().getSimpleName()).append(",")
+                .append(employee.getId()).append(",")
+                .append(employee.getName()).append(",")
+                .append(employee.getNif()).append(",")
+                .append(employee.getHireDate()).append(",")
+                .append(employee.getSalary());
+
+        if (employee instanceof Manager) {
+            Manager manager = (Manager) employee;
+            sb.append(",").append(manager.getSalesGoal());
         }
+
+        return sb.toString();
     }
 
     @Override
-    public List<Employee> findAll() {
-        // Return a copy of the in-memory list
-        return new ArrayList<>(employees);
+    protected void writeColumns(List<Employee> employees, ColumnarWriter out) throws IOException {
+        byte[] types = new byte[employees.size()];
+        long[] ids = new long[employees.size()];
+        String[] names = new String[employees.size()];
+        String[] nifs = new String[employees.size()];
+        LocalDate[] hireDates = new LocalDate[employees.size()];
+        double[] salaries = new double[employees.size()];
+        double[] salesGoals = new double[employees.size()]; // Zero for salespeople
+        for (int i = 0; i < employees.size(); i++) {
+            Employee employee = employees.get(i);
+            if (employee instanceof Manager) {
+                types[i] = MANAGER;
+                salesGoals[i] = ((Manager) employee).getSalesGoal();
+            } else {
+                types[i] = SALESPERSON;
+            }
+            ids[i] = employee.getId();
+            names[i] = employee.getName();
+            nifs[i] = employee.getNif();
+            hireDates[i] = employee.getHireDate();
+            salaries[i] = employee.getSalary();
+        }
+
+        out.writeBytes(types);
+        out.writeLongs(ids);
+        out.writeStrings(names);
+        out.writeStrings(nifs);
+        out.writeDates(hireDates);
+        out.writeDoubles(salaries);
+        out.writeDoubles(salesGoals);
     }
 
     @Override
-    public Optional<Employee> findById(Long id) {
-        // Find an employee by their ID
-        return employees.stream().filter(e -> e.getId().equals(id)).findFirst();
+    protected List<Employee> readColumns(ColumnarReader in) throws IOException {
+        byte[] types = in.readBytes();
+        long[] ids = in.readLongs();
+        String[] names = in.readStrings();
+        String[] nifs = in.readStrings();
+        LocalDate[] hireDates = in.readDates();
+        double[] salaries = in.readDoubles();
+        double[] salesGoals = in.readDoubles();
+
+        List<Employee> employees = new ArrayList<>(in.rowCount());
+        for (int i = 0; i < in.rowCount(); i++) {
+            if (types[i] == MANAGER) {
+                employees.add(new Manager(ids[i], names[i], nifs[i], hireDates[i], salaries[i], salesGoals[i]));
+            } else {
+                employees.add(new Salesperson(ids[i], names[i], nifs[i], hireDates[i], salaries[i]));
+            }
+        }
+        return employees;
     }
 
     // Loads employees from the CSV file into memory
-    private void loadFromFile() {
+    private void loadFromFile(CsvLoader loader) {
         File file = new File(FILE_PATH);
-        if (!file.exists()) return;
-
-        try (BufferedReader br = new BufferedReader(new FileReader(FILE_PATH))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] data = line.split(",");
-                if (data.length < 6) {
-                    throw new RuntimeException("Insufficient data in line: " + line);
-                }
 
-                // Extract employee data
-                String type = data[0].trim();
-                Long id = Long.parseLong(data[1].trim());
-                String name = data[2].trim();
-                String nif = data[3].trim();
-                LocalDate hireDate = LocalDate.parse(data[4].trim());
-                double salary = Double.parseDouble(data[5].trim());
-
-                // Determine the employee type and create the corresponding object
-                Employee employee;
-                switch (type.toLowerCase()) {
-                    case "manager":
-                        if (data.length < 7) {
-                            throw new RuntimeException("Insufficient data for Manager in line: " + line);
-                        }
-                        double salesGoal = Double.parseDouble(data[6].trim());
-                        employee = new Manager(id, name, nif, hireDate, salary, salesGoal);
-                        break;
-                    case "salesperson":
-                        employee = new Salesperson(id, name, nif, hireDate, salary);
-                        break;
-                    default:
-                        throw new RuntimeException("Unknown employee type: " + type);
-                }
+        try {
+            // The binary snapshot takes the place of the CSV file once it exists
+            if (loadBinarySnapshot(Paths.get(BINARY_PATH)) || !file.exists()) return;
 
-                employees.add(employee);
-            }
+            loader.load(file.toPath(), this::fromCsvRow, this::index);
         } catch (IOException e) {
             throw new RuntimeException("Error loading employees from file", e);
         }
     }
 
-    // Saves the in-memory list of employees to the CSV file
+    // Saves the in-memory employees to the binary or CSV snapshot
     private void saveToFile() throws RepositoryException {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(FILE_PATH))) {
-            for (Employee employee : employees) {
-                StringBuilder sb = new StringBuilder();
-                sb.append(employee.getClass().getSimpleName()).append(",")
-                        .append(employee.getId()).append(",")
-                        .append(employee.getName()).append(",")
-                        .append(employee.getNif()).append(",")
-                        .append(employee.getHireDate()).append(",")
-                        .append(employee.getSalary());
-
-                if (employee instanceof Manager) {
-                    Manager manager = (Manager) employee;
-                    sb.append(",").append(manager.getSalesGoal());
-                }
-
-                bw.write(sb.toString());
-                bw.newLine();
+        pauseMutations();
+        try {
+            if (Files.exists(Paths.get(BINARY_PATH))) {
+                saveBinarySnapshot(binaryWriter);
+            } else {
+                snapshotWriter.write(values(), this::toCsvLine);
             }
+            resetLog();
         } catch (IOException e) {
             throw new RepositoryException("Error saving employees to file", e);
+        } finally {
+            resumeMutations();
+        }
+    }
+
+    // Export the employees to the CSV file, also while the binary snapshot is in use
+    public void exportToCsv() throws RepositoryException {
+        pauseMutations();
+        try {
+            snapshotWriter.write(values(), this::toCsvLine);
+        } catch (IOException e) {
+            throw new RepositoryException("Error exporting employees to CSV", e);
+        } finally {
+            resumeMutations();
+        }
+    }
+
+    // Keep the employees in the binary snapshot from now on, including logged changes the CSV file lacks; once the
+    // binary snapshot is in use, replace the employees with the contents of the CSV file
+    public void importFromCsv() throws RepositoryException {
+        pauseMutations();
+        try {
+            if (Files.exists(Paths.get(BINARY_PATH))) {
+                reloadFromCsv(Paths.get(FILE_PATH));
+            }
+            saveBinarySnapshot(binaryWriter);
+            resetLog();
+        } catch (IOException e) {
+            throw new RepositoryException("Error importing employees from CSV", e);
+        } finally {
+            resumeMutations();
         }
     }
 
     // Saves all employee data to the CSV file
+    @Override
     public void saveAll() throws RepositoryException {
-        saveToFile();
+        coalesceSaves(this::saveToFile);
     }
 
     // Deletes all employees from memory and clears the CSV file
     public void deleteAll() {
-        employees.clear();
-        saveToFile();
+        pauseMutations();
+        try {
+            clear();
+            saveToFile();
+        } finally {
+            resumeMutations();
+        }
     }
 }
@@ -0,0 +1,17 @@
+package doa_jewelry.repository;
+
+// Hands out primary keys for a repository; implementations must be safe to call from several threads
+public interface IdAllocator {
+
+    // Returns the next unused ID
+    long next();
+
+    // Reserves a contiguous block of IDs and returns the first one of the block
+    long reserve(int count);
+
+    // Makes sure IDs up to and including the given one are never handed out
+    void observe(long id);
+
+    // Forgets every allocated ID and starts again from 1
+    void reset();
+}
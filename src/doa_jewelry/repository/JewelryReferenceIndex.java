@@ -0,0 +1,83 @@
+package doa_jewelry.repository;
+
+import doa_jewelry.entity.Order;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+// Reverse index from jewelry ID to the order lines referencing it, maintained by OrderRepository
+public class JewelryReferenceIndex {
+
+    private final Map<Long, List<Order.Item>> countedItemsByOrder = new HashMap<>(); // Copy of the lines counted per order
+    private final Map<Long, Integer> lineCounts = new HashMap<>(); // Jewelry ID -> number of order lines referencing it
+    private final Map<Long, Long> unitCounts = new HashMap<>(); // Jewelry ID -> total units ordered
+
+    // Checks whether any order line references the jewelry item
+    public boolean isReferenced(Long jewelryId) {
+        return lineCounts.containsKey(jewelryId);
+    }
+
+    // Returns the total units of the jewelry item across all orders
+    public long countUnits(Long jewelryId) {
+        return unitCounts.getOrDefault(jewelryId, 0L);
+    }
+
+    // Returns up to limit jewelry IDs ordered by total units, most ordered first
+    public List<Long> findMostOrdered(int limit) {
+        PriorityQueue<Map.Entry<Long, Long>> top = new PriorityQueue<>(Map.Entry.comparingByValue());
+        for (Map.Entry<Long, Long> entry : unitCounts.entrySet()) {
+            top.offer(entry);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<Long> result = new ArrayList<>();
+        while (!top.isEmpty()) {
+            result.add(0, top.poll().getKey());
+        }
+        return result;
+    }
+
+    // Counts the lines of a newly stored order
+    void add(Order order) {
+        List<Order.Item> counted = new ArrayList<>();
+        if (order.getItems() != null) {
+            for (Order.Item item : order.getItems()) {
+                counted.add(new Order.Item(item.getJewelryId(), item.getQuantity()));
+                lineCounts.merge(item.getJewelryId(), 1, Integer::sum);
+                unitCounts.merge(item.getJewelryId(), (long) item.getQuantity(), Long::sum);
+            }
+        }
+        countedItemsByOrder.put(order.getId(), counted);
+    }
+
+    // Uncounts the lines recorded for an order
+    void remove(Long orderId) {
+        List<Order.Item> counted = countedItemsByOrder.remove(orderId);
+        if (counted == null) {
+            return;
+        }
+        for (Order.Item item : counted) {
+            lineCounts.computeIfPresent(item.getJewelryId(), (id, count) -> count > 1 ? count - 1 : null);
+            unitCounts.computeIfPresent(item.getJewelryId(), (id, units) -> {
+                long remaining = units - item.getQuantity();
+                return lineCounts.containsKey(id) ? remaining : null;
+            });
+        }
+    }
+
+    // Recounts an order whose lines may have changed
+    void refresh(Order order) {
+        remove(order.getId());
+        add(order);
+    }
+
+    void clear() {
+        countedItemsByOrder.clear();
+        lineCounts.clear();
+        unitCounts.clear();
+    }
+}
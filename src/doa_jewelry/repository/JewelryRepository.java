@@ -3,9 +3,12 @@ package doa_jewelry.repository;
 import doa_jewelry.entity.*;
 import doa_jewelry.exception.EntityAlreadyExistsException;
 import doa_jewelry.exception.EntityNotFoundException;
+import doa_jewelry.exception.InsufficientUnitsException;
 import doa_jewelry.exception.RepositoryException;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -14,27 +17,45 @@ import java.util.Optional;
 public class JewelryRepository extends MyCrudRepository<Jewelry> {
 
     private static final String FILE_PATH = "data/jewelry.csv"; // Path to the CSV file
-    private final List<Jewelry> jewelries = new ArrayList<>(); // In-memory list of jewelry items
+    private static final String LOG_PATH = "data/jewelry.wal"; // Path to the write-ahead log
+    private static final String BINARY_PATH = "data/jewelry.bin"; // Columnar snapshot, replaces the CSV once imported
+    private final SnapshotWriter snapshotWriter = new SnapshotWriter(FILE_PATH); // Atomic temp-file + rename writes
+    private final SnapshotWriter binaryWriter = new SnapshotWriter(BINARY_PATH);
+    private static final byte NECKLACE = 0; // Jewelry type codes in the binary snapshot
+    private static final byte RING = 1;
+    private static final byte EARRING = 2;
+    private static final MaterialType[] MATERIALS = MaterialType.values(); // Cached to avoid a copy per row
+    private static final JewelryCategory[] CATEGORIES = JewelryCategory.values();
 
-    // Constructor loads jewelry data from the CSV file into memory
+    // Constructor loads jewelry data from the CSV file into memory and replays the log on top
     public JewelryRepository() {
-        loadFromFile();
+        this(new SequentialCsvLoader());
+    }
+
+    // Constructor that reads the CSV file with the given loader, e.g. a ParallelCsvLoader at startup
+    public JewelryRepository(CsvLoader loader) {
+        loadFromFile(loader);
+        attachLog(new WriteAheadLog(LOG_PATH));
+    }
+
+    @Override
+    protected Long idOf(Jewelry jewelry) {
+        return jewelry.getId();
     }
 
     @Override
     public Jewelry save(Jewelry jewelry) throws RepositoryException {
         // Assign a new ID if the jewelry item doesn't have one
         if (jewelry.getId() == null) {
-            Long newId = jewelries.stream()
-                    .mapToLong(j -> j.getId() != null ? j.getId() : 0L)
-                    .max()
-                    .orElse(0L) + 1;
-            jewelry.setId(newId);
+            jewelry.setId(nextId());
         }
 
-        // Add the jewelry item to the in-memory list
-        jewelries.add(jewelry);
-        return jewelry;
+        return mutate(jewelry.getId(), () -> {
+            // Add the jewelry item to the in-memory store
+            index(jewelry);
+            logUpsert(jewelry);
+            return jewelry;
+        });
     }
 
     @Override
@@ -44,154 +65,289 @@ public class JewelryRepository extends MyCrudRepository<Jewelry> {
             throw new RepositoryException("Jewelry ID cannot be null for update.");
         }
 
-        // Find the existing jewelry item by ID
-        Optional<Jewelry> existingJewelryOpt = findById(jewelry.getId());
-        if (existingJewelryOpt.isPresent()) {
-            Jewelry existingJewelry = existingJewelryOpt.get();
-
-
-            // Update basic properties
-            existingJewelry.setName(jewelry.getName());
-            existingJewelry.setMaterial(jewelry.getMaterial());
-            existingJewelry.setWeight(jewelry.getWeight());
-            existingJewelry.setPrice(jewelry.getPrice());
-            existingJewelry.setStockQuantity(jewelry.getStockQuantity());
-            existingJewelry.setCategory(jewelry.getCategory());
-
-            // Update specific properties based on the type of jewelry
-            if (existingJewelry instanceof Necklace && jewelry instanceof Necklace) {
-                ((Necklace) existingJewelry).setLength(((Necklace) jewelry).getLength());
-            } else if (existingJewelry instanceof Ring && jewelry instanceof Ring) {
-                ((Ring) existingJewelry).setSize(((Ring) jewelry).getSize());
-            } else if (existingJewelry instanceof Earring && jewelry instanceof Earring) {
-                ((Earring) existingJewelry).setClaspType(((Earring) jewelry).getClaspType());
+        return mutate(jewelry.getId(), () -> {
+            // Find the existing jewelry item by ID
+            Optional<Jewelry> existingJewelryOpt = findById(jewelry.getId());
+            if (existingJewelryOpt.isPresent()) {
+                Jewelry existingJewelry = existingJewelryOpt.get();
+
+
+                // Update basic properties
+                existingJewelry.setName(jewelry.getName());
+                existingJewelry.setMaterial(jewelry.getMaterial());
+                existingJewelry.setWeight(jewelry.getWeight());
+                existingJewelry.setPrice(jewelry.getPrice());
+                existingJewelry.setStockQuantity(jewelry.getStockQuantity());
+                existingJewelry.setCategory(jewelry.getCategory());
+
+                // Update specific properties based on the type of jewelry
+                if (existingJewelry instanceof Necklace && jewelry instanceof Necklace) {
+                    ((Necklace) existingJewelry).setLength(((Necklace) jewelry).getLength());
+                } else if (existingJewelry instanceof Ring && jewelry instanceof Ring) {
+                    ((Ring) existingJewelry).setSize(((Ring) jewelry).getSize());
+                } else if (existingJewelry instanceof Earring && jewelry instanceof Earring) {
+                    ((Earring) existingJewelry).setClaspType(((Earring) jewelry).getClaspType());
+                } else {
+                    throw new RepositoryException("Jewelry type does not match the existing one.");
+                }
+
+                logUpsert(existingJewelry);
+                return existingJewelry;
             } else {
-                throw new RepositoryException("Jewelry type does not match the existing one.");
+                throw new EntityNotFoundException("Jewelry not found with ID: " + jewelry.getId());
             }
+        });
+    }
 
-            return existingJewelry;
+    // Atomically takes units out of stock, leaving it unchanged if there are not enough
+    public Jewelry decreaseStock(Long id, int quantity) throws RepositoryException {
+        return mutate(id, () -> {
+            Jewelry jewelry = findById(id)
+                    .orElseThrow(() -> new EntityNotFoundException("Jewelry not found with ID: " + id));
+            if (jewelry.getStockQuantity() < quantity) {
+                throw new InsufficientUnitsException("Insufficient stock for jewelry ID: " + id);
+            }
+            jewelry.setStockQuantity(jewelry.getStockQuantity() - quantity);
+            logUpsert(jewelry);
+            return jewelry;
+        });
+    }
+
+    // Atomically puts units back into stock
+    public Jewelry increaseStock(Long id, int quantity) throws RepositoryException {
+        return mutate(id, () -> {
+            Jewelry jewelry = findById(id)
+                    .orElseThrow(() -> new EntityNotFoundException("Jewelry not found with ID: " + id));
+            jewelry.setStockQuantity(jewelry.getStockQuantity() + quantity);
+            logUpsert(jewelry);
+            return jewelry;
+        });
+    }
+
+    @Override
+    public void deleteById(Long id) throws RepositoryException {
+        mutate(id, () -> {
+            // Remove the jewelry item by ID
+            if (unindex(id) == null) {
+                throw new EntityNotFoundException("Jewelry not found with ID: " + id);
+            }
+            logDelete(id);
+        });
+    }
+
+    @Override
+    protected Jewelry fromCsvRow(CsvReader row) {
+        if (row.fieldCount() < 8) {
+            throw new RuntimeException("Insufficient data in line: " + row.line());
+        }
+
+        // Parse basic jewelry data
+        Long id = row.getLong(1);
+        String name = row.getString(2);
+        MaterialType material = row.getEnum(3, MATERIALS);
+        double weight = row.getDouble(4);
+        double price = row.getDouble(5);
+        int stockQuantity = row.getInt(6);
+        JewelryCategory category = row.getEnum(7, CATEGORIES);
+
+        // Create the appropriate jewelry object based on the type
+        if (row.fieldEqualsIgnoreCase(0, "necklace")) {
+            if (row.fieldCount() < 9) {
+                throw new RuntimeException("Insufficient data for Necklace in line: " + row.line());
+            }
+            double length = row.getDouble(8);
+            return new Necklace(id, name, material, weight, price, stockQuantity, category, length);
+        } else if (row.fieldEqualsIgnoreCase(0, "ring")) {
+            if (row.fieldCount() < 9) {
+                throw new RuntimeException("Insufficient data for Ring in line: " + row.line());
+            }
+            double size = row.getDouble(8);
+            return new Ring(id, name, material, weight, price, stockQuantity, category, size);
+        } else if (row.fieldEqualsIgnoreCase(0, "earring")) {
+            if (row.fieldCount() < 9) {
+                throw new RuntimeException("Insufficient data for Earring in line: " + row.line());
+            }
+            String claspType = row.getString(8);
+            return new Earring(id, name, material, weight, price, stockQuantity, category, claspType);
         } else {
-            throw new EntityNotFoundException("Jewelry not found with ID: " + jewelry.getId());
+            throw new RuntimeException("Unknown jewelry type: " + row.getString(0));
         }
     }
 
     @Override
-    public void deleteById(Long id) throws RepositoryException {
-        // Find and remove the jewelry item by ID
-        Jewelry jewelry = findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Jewelry not found with ID: " + id));
-        jewelries.remove(jewelry);
+    protected String toCsvLine(Jewelry jewelry) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(jewelry.getClass().getSimpleName()).append(",")
+                .append(jewelry.getId()).append(",")
+                .append(jewelry.getName()).append(",")
+                .append(jewelry.getMaterial().name()).append(",")
+                .append(jewelry.getWeight()).append(",")
+                .append(jewelry.getPrice()).append(",")
+                .append(jewelry.getStockQuantity()).append(",")
+                .append(jewelry.getCategory().name());
+
+        // Append additional fields based on jewelry type
+        if (jewelry instanceof Necklace) {
+            sb.append(",").append(((Necklace) jewelry).getLength());
+        } else if (jewelry instanceof Ring) {
+            sb.append(",").append(((Ring) jewelry).getSize());
+        } else if (jewelry instanceof Earring) {
+            sb.append(",").append(((Earring) jewelry).getClaspType());
+        }
+
+        return sb.toString();
     }
 
     @Override
-    public List<Jewelry> findAll() {
-        // Return a copy of the in-memory list to prevent external modifications
-        return new ArrayList<>(jewelries);
+    protected void writeColumns(List<Jewelry> items, ColumnarWriter out) throws IOException {
+        byte[] types = new byte[items.size()];
+        long[] ids = new long[items.size()];
+        String[] names = new String[items.size()];
+        MaterialType[] materials = new MaterialType[items.size()];
+        double[] weights = new double[items.size()];
+        double[] prices = new double[items.size()];
+        int[] stockQuantities = new int[items.size()];
+        JewelryCategory[] categories = new JewelryCategory[items.size()];
+        double[] measures = new double[items.size()]; // Necklace length or ring size
+        String[] claspTypes = new String[items.size()]; // Earrings only
+        for (int i = 0; i < items.size(); i++) {
+            Jewelry jewelry = items.get(i);
+            if (jewelry instanceof Necklace) {
+                types[i] = NECKLACE;
+                measures[i] = ((Necklace) jewelry).getLength();
+            } else if (jewelry instanceof Ring) {
+                types[i] = RING;
+                measures[i] = ((Ring) jewelry).getSize();
+            } else if (jewelry instanceof Earring) {
+                types[i] = EARRING;
+                claspTypes[i] = ((Earring) jewelry).getClaspType();
+            } else {
+                throw new RepositoryException("Unknown jewelry type: " + jewelry.getClass().getSimpleName());
+            }
+            ids[i] = jewelry.getId();
+            names[i] = jewelry.getName();
+            materials[i] = jewelry.getMaterial();
+            weights[i] = jewelry.getWeight();
+            prices[i] = jewelry.getPrice();
+            stockQuantities[i] = jewelry.getStockQuantity();
+            categories[i] = jewelry.getCategory();
+        }
+
+        out.writeBytes(types);
+        out.writeLongs(ids);
+        out.writeStrings(names);
+        out.writeEnums(materials, MATERIALS);
+        out.writeDoubles(weights);
+        out.writeDoubles(prices);
+        out.writeInts(stockQuantities);
+        out.writeEnums(categories, CATEGORIES);
+        out.writeDoubles(measures);
+        out.writeStrings(claspTypes);
     }
 
     @Override
-    public Optional<Jewelry> findById(Long id) {
-        // Find a jewelry item by its ID
-        return jewelries.stream().filter(j -> j.getId().equals(id)).findFirst();
+    protected List<Jewelry> readColumns(ColumnarReader in) throws IOException {
+        byte[] types = in.readBytes();
+        long[] ids = in.readLongs();
+        String[] names = in.readStrings();
+        MaterialType[] materials = in.readEnums(MATERIALS);
+        double[] weights = in.readDoubles();
+        double[] prices = in.readDoubles();
+        int[] stockQuantities = in.readInts();
+        JewelryCategory[] categories = in.readEnums(CATEGORIES);
+        double[] measures = in.readDoubles();
+        String[] claspTypes = in.readStrings();
+
+        List<Jewelry> items = new ArrayList<>(in.rowCount());
+        for (int i = 0; i < in.rowCount(); i++) {
+            if (types[i] == NECKLACE) {
+                items.add(new Necklace(ids[i], names[i], materials[i], weights[i], prices[i], stockQuantities[i],
+                        categories[i], measures[i]));
+            } else if (types[i] == RING) {
+                items.add(new Ring(ids[i], names[i], materials[i], weights[i], prices[i], stockQuantities[i],
+                        categories[i], measures[i]));
+            } else {
+                items.add(new Earring(ids[i], names[i], materials[i], weights[i], prices[i], stockQuantities[i],
+                        categories[i], claspTypes[i]));
+            }
+        }
+        return items;
     }
 
     // Load jewelry data from the CSV file into memory
-    private void loadFromFile() {
+    private void loadFromFile(CsvLoader loader) {
         File file = new File(FILE_PATH);
-        if (!file.exists()) return;
-
-        try (BufferedReader br = new BufferedReader(new FileReader(FILE_PATH))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] data = line.split(",");
-                if (data.length < 8) {
-                    throw new RuntimeException("Insufficient data in line: " + line);
-                }
 
-                // Parse basic jewelry data
-                String type = data[0].trim();
-                Long id = Long.parseLong(data[1].trim());
-                String name = data[2].trim();
-                MaterialType material = MaterialType.valueOf(data[3].trim().toUpperCase());
-                double weight = Double.parseDouble(data[4].trim());
-                double price = Double.parseDouble(data[5].trim());
-                int stockQuantity = Integer.parseInt(data[6].trim());
-                JewelryCategory category = JewelryCategory.valueOf(data[7].trim().toUpperCase());
-
-                // Create the appropriate jewelry object based on the type
-                Jewelry jewelry;
-                switch (type.toLowerCase()) {
-                    case "necklace":
-                        if (data.length < 9) {
-                            throw new RuntimeException("Insufficient data for Necklace in line: " + line);
-                        }
-                        double length = Double.parseDouble(data[8].trim());
-                        jewelry = new Necklace(id, name, material, weight, price, stockQuantity, category, length);
-                        break;
-                    case "ring":
-                        if (data.length < 9) {
-                            throw new RuntimeException("Insufficient data for Ring in line: " + line);
-                        }
-                        double size = Double.parseDouble(data[8].trim());
-                        jewelry = new Ring(id, name, material, weight, price, stockQuantity, category, size);
-                        break;
-                    case "earring":
-                        if (data.length < 9) {
-                            throw new RuntimeException("Insufficient data for Earring in line: " + line);
-                        }
-                        String claspType = data[8].trim();
-                        jewelry = new Earring(id, name, material, weight, price, stockQuantity, category, claspType);
-                        break;
-                    default:
-                        throw new RuntimeException("Unknown jewelry type: " + type);
-                }
+        try {
+            // The binary snapshot takes the place of the CSV file once it exists
+            if (loadBinarySnapshot(Paths.get(BINARY_PATH)) || !file.exists()) return;
 
-                jewelries.add(jewelry);
-            }
+            loader.load(file.toPath(), this::fromCsvRow, this::index);
         } catch (IOException e) {
             throw new RuntimeException("Error loading jewelry from file", e);
         }
     }
 
-    // Save all jewelry data from memory to the CSV file
+    // Save all jewelry data from memory to the binary or CSV snapshot
     private void saveToFile() throws RepositoryException {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(FILE_PATH))) {
-            for (Jewelry jewelry : jewelries) {
-                StringBuilder sb = new StringBuilder();
-                sb.append(jewelry.getClass().getSimpleName()).append(",")
-                        .append(jewelry.getId()).append(",")
-                        .append(jewelry.getName()).append(",")
-                        .append(jewelry.getMaterial().name()).append(",")
-                        .append(jewelry.getWeight()).append(",")
-                        .append(jewelry.getPrice()).append(",")
-                        .append(jewelry.getStockQuantity()).append(",")
-                        .append(jewelry.getCategory().name());
-
-                // Append additional fields based on jewelry type
-                if (jewelry instanceof Necklace) {
-                    sb.append(",").append(((Necklace) jewelry).getLength());
-                } else if (jewelry instanceof Ring) {
-                    sb.append(",").append(((Ring) jewelry).getSize());
-                } else if (jewelry instanceof Earring) {
-                    sb.append(",").append(((Earring) jewelry).getClaspType());
-                }
-
-                bw.write(sb.toString());
-                bw.newLine();
+        pauseMutations();
+        try {
+            if (Files.exists(Paths.get(BINARY_PATH))) {
+                saveBinarySnapshot(binaryWriter);
+            } else {
+                snapshotWriter.write(values(), this::toCsvLine);
             }
+            resetLog();
         } catch (IOException e) {
             throw new RepositoryException("Error saving jewelry to file", e);
+        } finally {
+            resumeMutations();
+        }
+    }
+
+    // Export the jewelry items to the CSV file, also while the binary snapshot is in use
+    public void exportToCsv() throws RepositoryException {
+        pauseMutations();
+        try {
+            snapshotWriter.write(values(), this::toCsvLine);
+        } catch (IOException e) {
+            throw new RepositoryException("Error exporting jewelry to CSV", e);
+        } finally {
+            resumeMutations();
+        }
+    }
+
+    // Keep the jewelry items in the binary snapshot from now on, including logged changes the CSV file lacks; once the
+    // binary snapshot is in use, replace the jewelry items with the contents of the CSV file
+    public void importFromCsv() throws RepositoryException {
+        pauseMutations();
+        try {
+            if (Files.exists(Paths.get(BINARY_PATH))) {
+                reloadFromCsv(Paths.get(FILE_PATH));
+            }
+            saveBinarySnapshot(binaryWriter);
+            resetLog();
+        } catch (IOException e) {
+            throw new RepositoryException("Error importing jewelry from CSV", e);
+        } finally {
+            resumeMutations();
         }
     }
 
     // Save all jewelry items to the CSV file
+    @Override
     public void saveAll() throws RepositoryException {
-        saveToFile();
+        coalesceSaves(this::saveToFile);
     }
 
     // Clear all jewelry data and save an empty CSV file
     public void deleteAll() {
-        jewelries.clear();
-        saveToFile();
+        pauseMutations();
+        try {
+            clear();
+            saveToFile();
+        } finally {
+            resumeMutations();
+        }
     }
 }
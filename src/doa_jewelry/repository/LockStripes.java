@@ -0,0 +1,38 @@
+package doa_jewelry.repository;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Fixed set of locks that keys are hashed onto, so operations on different entities rarely contend
+public class LockStripes {
+
+    private static final int DEFAULT_STRIPES = 64;
+
+    private final Lock[] locks;
+
+    public LockStripes() {
+        this(DEFAULT_STRIPES);
+    }
+
+    // The stripe count is rounded up to a power of two
+    public LockStripes(int stripes) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("Cannot create " + stripes + " lock stripes.");
+        }
+        int size = 1;
+        while (size < stripes) {
+            size <<= 1;
+        }
+        locks = new Lock[size];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    // Returns the lock guarding the given key
+    public Lock forKey(Object key) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16; // Mix in the high bits for keys whose hash codes differ only there
+        return locks[hash & (locks.length - 1)];
+    }
+}
@@ -1,14 +1,61 @@
 package doa_jewelry.repository;
 
 import doa_jewelry.exception.RepositoryException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Optional;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
+// Locking: the store and its indexes sit behind a read/write lock held only for the map operations. Changes to
+// one entity run through mutate, under the stripe lock for its key, so changes to different entities proceed in
+// parallel. Snapshots pause every mutation so that the captured state and the log truncation agree.
 public abstract class MyCrudRepository<E> {
 
+    // Primary-key index shared by all repositories; LinkedHashMap keeps insertion order for findAll
+    private final Map<Long, E> store = new LinkedHashMap<>();
+    private IdAllocator idAllocator = new SequenceIdAllocator(); // Seeded from the loaded entities as they are indexed
+    private final List<SecondaryIndex<E>> secondaryIndexes = new ArrayList<>(); // Kept in sync with the store
+    private WriteAheadLog log; // Mutations since the last snapshot; null until attached
+    private final ReadWriteLock indexLock = new ReentrantReadWriteLock(); // Guards the store and secondary indexes
+    private final ReadWriteLock snapshotLock = new ReentrantReadWriteLock(); // Shared by mutations, taken by snapshots
+    private final LockStripes entityLocks = new LockStripes(); // Serialises read-modify-write on one entity
+    private final SaveCoalescer saves = new SaveCoalescer(); // Merges concurrent saveAll calls
+
+    // Returns the primary key of the given entity
+    protected abstract Long idOf(E entity);
+
+    // Parses the current row of a CSV reader into an entity
+    protected abstract E fromCsvRow(CsvReader row) throws RepositoryException;
+
+    // Formats an entity as one CSV row
+    protected abstract String toCsvLine(E entity);
+
+    // Writes the given entities as the columns of a binary snapshot
+    protected abstract void writeColumns(List<E> entities, ColumnarWriter out) throws IOException;
+
+    // Reads the entities back from a binary snapshot, column by column in the order writeColumns wrote them
+    protected abstract List<E> readColumns(ColumnarReader in) throws IOException;
+
+    // Writes every stored entity to the CSV snapshot
+    public abstract void saveAll() throws RepositoryException;
+
     public E save(E entity) throws RepositoryException {
-        return entity;
+        return mutate(idOf(entity), () -> {
+            index(entity);
+            return entity;
+        });
     }
 
     public E update(E entity) throws RepositoryException {
@@ -17,21 +64,271 @@ public abstract class MyCrudRepository<E> {
     }
 
     public void deleteById(Long id) throws RepositoryException {
-        // Implement delete logic
+        mutate(id, () -> {
+            unindex(id);
+        });
     }
 
     public Optional<E> findById(Long id) throws RepositoryException {
-        // Implement findById logic
-        return Optional.empty();
+        return readLocked(() -> Optional.ofNullable(store.get(id)));
     }
 
     public List<E> findAll() throws RepositoryException {
-        // Implement findAll logic
-        return new ArrayList<>();
+        // Return a copy of the in-memory store to prevent external modification
+        return readLocked(() -> new ArrayList<>(store.values()));
     }
 
     public boolean existsById(Long id) {
-        // Implement existsById logic
-        return false;
+        return readLocked(() -> store.containsKey(id));
+    }
+
+    // Returns the number of stored entities without copying them
+    public int count() {
+        return readLocked(store::size);
+    }
+
+    // Returns the next free primary key
+    public Long nextId() {
+        return idAllocator.next();
+    }
+
+    // Reserves a block of primary keys for a batch import and returns the first one
+    public Long reserveIds(int count) {
+        return idAllocator.reserve(count);
+    }
+
+    // Replaces the ID allocator, seeding it with the IDs already stored
+    public void setIdAllocator(IdAllocator idAllocator) {
+        writeLocked(() -> {
+            for (Long id : store.keySet()) {
+                idAllocator.observe(id);
+            }
+            this.idAllocator = idAllocator;
+        });
+    }
+
+    // Registers a secondary index on a foreign key; call from a field initializer so it sees every entity
+    protected SecondaryIndex<E> createIndex(Function<E, Long> keyOf) {
+        SecondaryIndex<E> secondaryIndex = new SecondaryIndex<>(keyOf, this::idOf);
+        secondaryIndexes.add(secondaryIndex);
+        return secondaryIndex;
+    }
+
+    // Checks whether any stored entity matches, e.g. for uniqueness checks
+    protected boolean anyMatch(Predicate<E> predicate) {
+        return readLocked(() -> store.values().stream().anyMatch(predicate));
+    }
+
+    // Adds an entity to the primary-key and secondary indexes
+    protected void index(E entity) {
+        writeLocked(() -> {
+            Long id = idOf(entity);
+            store.put(id, entity);
+            idAllocator.observe(id);
+            for (SecondaryIndex<E> secondaryIndex : secondaryIndexes) {
+                secondaryIndex.add(entity);
+            }
+        });
+    }
+
+    // Stores an entity in place of the one with the same ID, keeping its position in findAll
+    protected void replace(E entity) {
+        writeLocked(() -> {
+            Long id = idOf(entity);
+            E previous = store.get(id);
+            if (previous == null) {
+                index(entity);
+                return;
+            }
+            store.put(id, entity);
+            for (SecondaryIndex<E> secondaryIndex : secondaryIndexes) {
+                secondaryIndex.remove(previous);
+            }
+            reindex(entity);
+        });
+    }
+
+    // Re-files an updated entity in the secondary indexes whose key changed
+    protected void reindex(E entity) {
+        writeLocked(() -> {
+            for (SecondaryIndex<E> secondaryIndex : secondaryIndexes) {
+                secondaryIndex.refresh(entity);
+            }
+        });
+    }
+
+    // Removes an entity from all indexes, returning it or null if absent
+    protected E unindex(Long id) {
+        return writeLocked(() -> {
+            E removed = store.remove(id);
+            if (removed != null) {
+                for (SecondaryIndex<E> secondaryIndex : secondaryIndexes) {
+                    secondaryIndex.remove(removed);
+                }
+            }
+            return removed;
+        });
+    }
+
+    // Runs a query against the store and indexes, concurrently with other queries
+    protected <T> T readLocked(Supplier<T> query) {
+        indexLock.readLock().lock();
+        try {
+            return query.get();
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    // Runs a change to the store and indexes exclusively; reentrant, so subclasses can extend index and friends
+    protected <T> T writeLocked(Supplier<T> change) {
+        indexLock.writeLock().lock();
+        try {
+            return change.get();
+        } finally {
+            indexLock.writeLock().unlock();
+        }
+    }
+
+    protected void writeLocked(Runnable change) {
+        writeLocked(() -> {
+            change.run();
+            return null;
+        });
+    }
+
+    // Runs a read-modify-write of the entity with the given key under its stripe lock, then takes a snapshot
+    // if the log has grown enough. The mutation must not call saveAll, which waits for every mutation to end.
+    protected <T> T mutate(Object key, Supplier<T> mutation) throws RepositoryException {
+        T result;
+        snapshotLock.readLock().lock();
+        try {
+            Lock lock = entityLocks.forKey(key == null ? this : key);
+            lock.lock();
+            try {
+                result = mutation.get();
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+        compactLogIfNeeded();
+        return result;
+    }
+
+    protected void mutate(Object key, Runnable mutation) throws RepositoryException {
+        mutate(key, () -> {
+            mutation.run();
+            return null;
+        });
+    }
+
+    // Runs a save unless one that started after this call covers it; must not be called while mutations are paused
+    protected void coalesceSaves(Runnable save) throws RepositoryException {
+        saves.save(save);
+    }
+
+    // Blocks every mutation until resumeMutations, so a snapshot sees a stable store
+    protected void pauseMutations() {
+        snapshotLock.writeLock().lock();
+    }
+
+    protected void resumeMutations() {
+        snapshotLock.writeLock().unlock();
+    }
+
+    // Parses a single CSV line into an entity
+    protected E fromCsvLine(String line) throws RepositoryException {
+        CsvReader row = CsvReader.ofLine(line);
+        try {
+            if (!row.nextRow()) {
+                throw new RepositoryException("Empty CSV line.");
+            }
+        } catch (IOException e) {
+            throw new RepositoryException("Error reading CSV line: " + line, e);
+        }
+        return fromCsvRow(row);
+    }
+
+    // Loads a binary snapshot into the store, returning false if there is none
+    protected boolean loadBinarySnapshot(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return false;
+        }
+        try (ColumnarReader in = ColumnarReader.open(path)) {
+            for (E entity : readColumns(in)) {
+                index(entity);
+            }
+        }
+        return true;
+    }
+
+    // Writes the store as a binary snapshot
+    protected void saveBinarySnapshot(SnapshotWriter writer) throws IOException {
+        writer.writeWith(channel -> {
+            List<E> entities = new ArrayList<>(store.values());
+            ColumnarWriter out = new ColumnarWriter(channel, entities.size());
+            writeColumns(entities, out);
+            out.flush();
+        });
+    }
+
+    // Replaces the store with the rows of a CSV file
+    protected void reloadFromCsv(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            throw new RepositoryException("CSV file not found: " + path);
+        }
+        clear();
+        new SequentialCsvLoader().load(path, this::fromCsvRow, this::index);
+    }
+
+    // Replays the log over the loaded snapshot, then records every further mutation in it
+    protected void attachLog(WriteAheadLog log) throws RepositoryException {
+        log.replay(line -> replace(fromCsvLine(line)), this::unindex);
+        this.log = log;
+    }
+
+    // Records a saved or updated entity; mutate takes a snapshot once the log is long enough
+    protected void logUpsert(E entity) throws RepositoryException {
+        if (log != null) {
+            log.appendUpsert(toCsvLine(entity));
+        }
+    }
+
+    // Records a deleted entity; mutate takes a snapshot once the log is long enough
+    protected void logDelete(Long id) throws RepositoryException {
+        if (log != null) {
+            log.appendDelete(id);
+        }
+    }
+
+    // Empties the log after a snapshot has captured its records
+    protected void resetLog() throws RepositoryException {
+        if (log != null) {
+            log.truncate();
+        }
+    }
+
+    private void compactLogIfNeeded() throws RepositoryException {
+        if (log != null && log.needsCompaction()) {
+            saveAll();
+        }
+    }
+
+    // Returns a live view of the stored entities in insertion order; only iterate it while mutations are paused
+    protected Collection<E> values() {
+        return store.values();
+    }
+
+    // Removes every entity from the index and restarts the ID sequence
+    protected void clear() {
+        writeLocked(() -> {
+            store.clear();
+            idAllocator.reset();
+            for (SecondaryIndex<E> secondaryIndex : secondaryIndexes) {
+                secondaryIndex.clear();
+            }
+        });
     }
 }
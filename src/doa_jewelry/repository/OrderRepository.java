@@ -7,6 +7,8 @@ import doa_jewelry.exception.EntityNotFoundException;
 import doa_jewelry.exception.RepositoryException;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
@@ -16,148 +18,322 @@ import java.util.Optional;
 public class OrderRepository extends MyCrudRepository<Order> {
 
     private static final String FILE_PATH = "data/orders.csv"; // Path to the CSV file
-    private final List<Order> orders = new ArrayList<>(); // In-memory list of orders
+    private static final String LOG_PATH = "data/orders.wal"; // Path to the write-ahead log
+    private static final String BINARY_PATH = "data/orders.bin"; // Columnar snapshot, replaces the CSV once imported
+    private final SnapshotWriter snapshotWriter = new SnapshotWriter(FILE_PATH); // Atomic temp-file + rename writes
+    private final SnapshotWriter binaryWriter = new SnapshotWriter(BINARY_PATH);
+    private static final OrderStatus[] STATUSES = OrderStatus.values(); // Cached to avoid a copy per row
+    private final SecondaryIndex<Order> ordersByCustomer = createIndex(Order::getCustomerId); // customerId -> orders
+    private final JewelryReferenceIndex jewelryReferences = new JewelryReferenceIndex(); // jewelryId -> order lines
 
-    // Constructor that loads orders from the CSV file into memory
+    // Constructor that loads orders from the CSV file into memory and replays the log on top
     public OrderRepository() {
-        loadFromFile();
+        this(new SequentialCsvLoader());
+    }
+
+    // Constructor that reads the CSV file with the given loader, e.g. a ParallelCsvLoader at startup
+    public OrderRepository(CsvLoader loader) {
+        loadFromFile(loader);
+        attachLog(new WriteAheadLog(LOG_PATH));
+    }
+
+    @Override
+    protected Long idOf(Order order) {
+        return order.getId();
+    }
+
+    // The overrides keep the jewelry references under the same write lock as the store
+    @Override
+    protected void index(Order order) {
+        writeLocked(() -> {
+            super.index(order);
+            jewelryReferences.add(order);
+        });
+    }
+
+    @Override
+    protected void reindex(Order order) {
+        writeLocked(() -> {
+            super.reindex(order);
+            jewelryReferences.refresh(order);
+        });
+    }
+
+    @Override
+    protected Order unindex(Long id) {
+        return writeLocked(() -> {
+            Order removed = super.unindex(id);
+            jewelryReferences.remove(id);
+            return removed;
+        });
+    }
+
+    @Override
+    protected void clear() {
+        writeLocked(() -> {
+            super.clear();
+            jewelryReferences.clear();
+        });
     }
 
     @Override
     public Order save(Order order) throws RepositoryException {
         // Assign a new ID if the order doesn't have one
         if (order.getId() == null) {
-            Long newId = generateNewId();
-            order.setId(newId);
-        } else if (existsById(order.getId())) {
-            // Check if the order ID already exists
-            throw new EntityAlreadyExistsException("Order already exists with ID: " + order.getId());
+            order.setId(nextId());
         }
 
-        // Add the order to the in-memory list
-        orders.add(order);
-        return order;
+        return mutate(order.getId(), () -> {
+            // Check if the order ID already exists
+            if (existsById(order.getId())) {
+                throw new EntityAlreadyExistsException("Order already exists with ID: " + order.getId());
+            }
+
+            // Add the order to the in-memory store
+            index(order);
+            logUpsert(order);
+            return order;
+        });
     }
 
     @Override
     public Order update(Order order) throws RepositoryException {
-        // Find the existing order by ID
-        Optional<Order> existingOrderOpt = findById(order.getId());
-        if (existingOrderOpt.isPresent()) {
-            Order existingOrder = existingOrderOpt.get();
-
-            // Update the order properties
-            existingOrder.setCustomerId(order.getCustomerId());
-            existingOrder.setDate(order.getDate());
-            existingOrder.setItems(order.getItems());
-            existingOrder.setTotalAmount(order.getTotalAmount());
-            existingOrder.setStatus(order.getStatus());
-            return existingOrder;
-        } else {
-            throw new EntityNotFoundException("Order not found with ID: " + order.getId());
-        }
+        return mutate(order.getId(), () -> {
+            // Find the existing order by ID
+            Optional<Order> existingOrderOpt = findById(order.getId());
+            if (existingOrderOpt.isPresent()) {
+                Order existingOrder = existingOrderOpt.get();
+
+                // Update the order properties
+                existingOrder.setCustomerId(order.getCustomerId());
+                existingOrder.setDate(order.getDate());
+                existingOrder.setItems(order.getItems());
+                existingOrder.setTotalAmount(order.getTotalAmount());
+                existingOrder.setStatus(order.getStatus());
+                reindex(existingOrder);
+                logUpsert(existingOrder);
+                return existingOrder;
+            } else {
+                throw new EntityNotFoundException("Order not found with ID: " + order.getId());
+            }
+        });
     }
 
     @Override
     public void deleteById(Long id) throws RepositoryException {
-        // Find the order by ID and remove it
-        Order order = findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Order not found with ID: " + id));
-        orders.remove(order);
+        mutate(id, () -> {
+            // Remove the order by ID
+            if (unindex(id) == null) {
+                throw new EntityNotFoundException("Order not found with ID: " + id);
+            }
+            logDelete(id);
+        });
     }
 
-    @Override
-    public List<Order> findAll() {
-        // Return a copy of the in-memory list to prevent external modifications
-        return new ArrayList<>(orders);
+    // Find all orders placed by a customer
+    public List<Order> findAllByCustomerId(Long customerId) {
+        return readLocked(() -> ordersByCustomer.find(customerId));
     }
 
-    @Override
-    public Optional<Order> findById(Long id) {
-        // Find an order by its ID
-        return orders.stream().filter(o -> o.getId().equals(id)).findFirst();
+    // Check whether any order line references a jewelry item
+    public boolean isJewelryReferenced(Long jewelryId) {
+        return readLocked(() -> jewelryReferences.isReferenced(jewelryId));
+    }
+
+    // Find the IDs of the most ordered jewelry items by total units, most ordered first
+    public List<Long> findMostOrderedJewelryIds(int limit) {
+        return readLocked(() -> jewelryReferences.findMostOrdered(limit));
     }
 
     // Generate a new unique ID for an order
     public Long generateNewId() {
-        return orders.stream()
-                .mapToLong(o -> o.getId() != null ? o.getId() : 0L)
-                .max()
-                .orElse(0L) + 1;
+        return nextId();
     }
 
-    // Load orders from the CSV file into the in-memory list
-    private void loadFromFile() {
-        File file = new File(FILE_PATH);
-        if (!file.exists()) return;
-
-        try (BufferedReader br = new BufferedReader(new FileReader(FILE_PATH))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] data = line.split(",");
-                if (data.length < 5) {
-                    throw new RuntimeException("Insufficient data in line: " + line);
-                }
-
-                // Parse the basic order data
-                Long id = Long.parseLong(data[0].trim());
-                Long customerId = Long.parseLong(data[1].trim());
-                LocalDate date = LocalDate.parse(data[2].trim());
-                OrderStatus status = OrderStatus.valueOf(data[3].trim().toUpperCase());
-                double totalAmount = Double.parseDouble(data[4].trim());
-
-                // Parse the order items
-                List<Order.Item> items = new ArrayList<>();
-                for (int i = 5; i < data.length; i += 2) {
-                    if (i + 1 >= data.length) {
-                        throw new RuntimeException("Insufficient data for items in line: " + line);
-                    }
-                    Long jewelryId = Long.parseLong(data[i].trim());
-                    int quantity = Integer.parseInt(data[i + 1].trim());
-                    items.add(new Order.Item(jewelryId, quantity));
-                }
-
-                // Create the order object and add it to the list
-                Order order = new Order(id, customerId, date, items, totalAmount, status);
-                orders.add(order);
+    @Override
+    protected Order fromCsvRow(CsvReader row) {
+        if (row.fieldCount() < 5) {
+            throw new RuntimeException("Insufficient data in line: " + row.line());
+        }
+
+        // Parse the basic order data
+        Long id = row.getLong(0);
+        Long customerId = row.getLong(1);
+        LocalDate date = row.getDate(2);
+        OrderStatus status = row.getEnum(3, STATUSES);
+        double totalAmount = row.getDouble(4);
+
+        // Parse the order items
+        List<Order.Item> items = new ArrayList<>((row.fieldCount() - 5) / 2);
+        for (int i = 5; i < row.fieldCount(); i += 2) {
+            if (i + 1 >= row.fieldCount()) {
+                throw new RuntimeException("Insufficient data for items in line: " + row.line());
+            }
+            Long jewelryId = row.getLong(i);
+            int quantity = row.getInt(i + 1);
+            items.add(new Order.Item(jewelryId, quantity));
+        }
+
+        // Create the order object
+        return new Order(id, customerId, date, items, totalAmount, status);
+    }
+
+    @Override
+    protected String toCsvLine(Order order) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(order.getId()).append(",")
+                .append(order.getCustomerId()).append(",")
+                .append(order.getDate()).append(",")
+                .append(order.getStatus().name()).append(",")
+                .append(order.getTotalAmount());
+
+        // Append the items to the line
+        for (Order.Item item : order.getItems()) {
+            sb.append(",").append(item.getJewelryId()).append(",").append(item.getQuantity());
+        }
+
+        return sb.toString();
+    }
+
+    @Override
+    protected void writeColumns(List<Order> orders, ColumnarWriter out) throws IOException {
+        long[] ids = new long[orders.size()];
+        long[] customerIds = new long[orders.size()];
+        LocalDate[] dates = new LocalDate[orders.size()];
+        OrderStatus[] statuses = new OrderStatus[orders.size()];
+        double[] totalAmounts = new double[orders.size()];
+        int[] itemCounts = new int[orders.size()];
+        int lineCount = 0;
+        for (int i = 0; i < orders.size(); i++) {
+            Order order = orders.get(i);
+            ids[i] = order.getId();
+            customerIds[i] = order.getCustomerId();
+            dates[i] = order.getDate();
+            statuses[i] = order.getStatus();
+            totalAmounts[i] = order.getTotalAmount();
+            itemCounts[i] = order.getItems().size();
+            lineCount += itemCounts[i];
+        }
+
+        // Order lines of all orders, flattened in order
+        long[] jewelryIds = new long[lineCount];
+        int[] quantities = new int[lineCount];
+        int line = 0;
+        for (Order order : orders) {
+            for (Order.Item item : order.getItems()) {
+                jewelryIds[line] = item.getJewelryId();
+                quantities[line] = item.getQuantity();
+                line++;
+            }
+        }
+
+        out.writeLongs(ids);
+        out.writeLongs(customerIds);
+        out.writeDates(dates);
+        out.writeEnums(statuses, STATUSES);
+        out.writeDoubles(totalAmounts);
+        out.writeInts(itemCounts);
+        out.writeLongs(jewelryIds);
+        out.writeInts(quantities);
+    }
+
+    @Override
+    protected List<Order> readColumns(ColumnarReader in) throws IOException {
+        long[] ids = in.readLongs();
+        long[] customerIds = in.readLongs();
+        LocalDate[] dates = in.readDates();
+        OrderStatus[] statuses = in.readEnums(STATUSES);
+        double[] totalAmounts = in.readDoubles();
+        int[] itemCounts = in.readInts();
+        long[] jewelryIds = in.readLongs();
+        int[] quantities = in.readInts();
+
+        List<Order> orders = new ArrayList<>(in.rowCount());
+        int line = 0;
+        for (int i = 0; i < in.rowCount(); i++) {
+            List<Order.Item> items = new ArrayList<>(itemCounts[i]);
+            for (int end = line + itemCounts[i]; line < end; line++) {
+                items.add(new Order.Item(jewelryIds[line], quantities[line]));
             }
+            orders.add(new Order(ids[i], customerIds[i], dates[i], items, totalAmounts[i], statuses[i]));
+        }
+        return orders;
+    }
+
+    // Load orders from the CSV file into the in-memory store
+    private void loadFromFile(CsvLoader loader) {
+        File file = new File(FILE_PATH);
+
+        try {
+            // The binary snapshot takes the place of the CSV file once it exists
+            if (loadBinarySnapshot(Paths.get(BINARY_PATH)) || !file.exists()) return;
+
+            loader.load(file.toPath(), this::fromCsvRow, this::index);
         } catch (IOException e) {
             throw new RuntimeException("Error loading orders from file", e);
         }
     }
 
-    // Save all orders from the in-memory list to the CSV file
+    // Save all orders from the in-memory store to the binary or CSV snapshot
     private void saveToFile() throws RepositoryException {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(FILE_PATH))) {
-            for (Order order : orders) {
-                StringBuilder sb = new StringBuilder();
-                sb.append(order.getId()).append(",")
-                        .append(order.getCustomerId()).append(",")
-                        .append(order.getDate()).append(",")
-                        .append(order.getStatus().name()).append(",")
-                        .append(order.getTotalAmount());
-
-                // Append the items to the line
-                for (Order.Item item : order.getItems()) {
-                    sb.append(",").append(item.getJewelryId()).append(",").append(item.getQuantity());
-                }
-
-                bw.write(sb.toString());
-                bw.newLine();
+        pauseMutations();
+        try {
+            if (Files.exists(Paths.get(BINARY_PATH))) {
+                saveBinarySnapshot(binaryWriter);
+            } else {
+                snapshotWriter.write(values(), this::toCsvLine);
             }
+            resetLog();
         } catch (IOException e) {
             throw new RepositoryException("Error saving orders to file", e);
+        } finally {
+            resumeMutations();
+        }
+    }
+
+    // Export the orders to the CSV file, also while the binary snapshot is in use
+    public void exportToCsv() throws RepositoryException {
+        pauseMutations();
+        try {
+            snapshotWriter.write(values(), this::toCsvLine);
+        } catch (IOException e) {
+            throw new RepositoryException("Error exporting orders to CSV", e);
+        } finally {
+            resumeMutations();
+        }
+    }
+
+    // Keep the orders in the binary snapshot from now on, including logged changes the CSV file lacks; once the
+    // binary snapshot is in use, replace the orders with the contents of the CSV file
+    public void importFromCsv() throws RepositoryException {
+        pauseMutations();
+        try {
+            if (Files.exists(Paths.get(BINARY_PATH))) {
+                reloadFromCsv(Paths.get(FILE_PATH));
+            }
+            saveBinarySnapshot(binaryWriter);
+            resetLog();
+        } catch (IOException e) {
+            throw new RepositoryException("Error importing orders from CSV", e);
+        } finally {
+            resumeMutations();
         }
     }
 
     // Save all orders to the CSV file
+    @Override
     public void saveAll() throws RepositoryException {
-        saveToFile();
+        coalesceSaves(this::saveToFile);
     }
 
     // Delete all orders and clear the CSV file
     public void deleteAll() {
-        orders.clear();
-        saveToFile();
+        pauseMutations();
+        try {
+            clear();
+            saveToFile();
+        } finally {
+            resumeMutations();
+        }
     }
 }
@@ -0,0 +1,114 @@
+package doa_jewelry.repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Splits large files into line-aligned chunks parsed on a fork-join pool, then hands the entities to the
+// sink in file order; small files are parsed on the calling thread
+public class ParallelCsvLoader implements CsvLoader {
+
+    private static final long MIN_CHUNK_SIZE = 4L << 20; // Files below this size are not split
+
+    private final ForkJoinPool pool;
+
+    public ParallelCsvLoader(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public <E> void load(Path path, Function<CsvReader, E> parser, Consumer<E> sink) throws IOException {
+        long[] boundaries = chunkBoundaries(path);
+        if (boundaries.length == 2) {
+            new SequentialCsvLoader().load(path, parser, sink);
+            return;
+        }
+
+        List<ForkJoinTask<List<E>>> chunks = new ArrayList<>();
+        for (int i = 0; i + 1 < boundaries.length; i++) {
+            long start = boundaries[i];
+            long end = boundaries[i + 1];
+            chunks.add(pool.submit(() -> parseChunk(path, start, end, parser)));
+        }
+
+        try {
+            for (ForkJoinTask<List<E>> chunk : chunks) {
+                for (E entity : chunk.join()) {
+                    sink.accept(entity);
+                }
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            for (ForkJoinTask<List<E>> chunk : chunks) {
+                chunk.cancel(false);
+            }
+        }
+    }
+
+    private static <E> List<E> parseChunk(Path path, long start, long end, Function<CsvReader, E> parser) {
+        List<E> entities = new ArrayList<>();
+        try (CsvReader reader = CsvReader.open(path, start, end)) {
+            while (reader.nextRow()) {
+                entities.add(parser.apply(reader));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return entities;
+    }
+
+    // Returns the chunk start offsets plus the file size; every inner offset is just past a newline
+    private long[] chunkBoundaries(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long chunkSize = Math.max(MIN_CHUNK_SIZE, size / (pool.getParallelism() * 4L) + 1);
+
+            List<Long> boundaries = new ArrayList<>();
+            boundaries.add(0L);
+            ByteBuffer probe = ByteBuffer.allocate(4096);
+            long position = chunkSize;
+            while (position < size) {
+                long lineStart = nextLineStart(channel, position, probe);
+                if (lineStart >= size) {
+                    break;
+                }
+                boundaries.add(lineStart);
+                position = lineStart + chunkSize;
+            }
+            boundaries.add(size);
+
+            long[] result = new long[boundaries.size()];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = boundaries.get(i);
+            }
+            return result;
+        }
+    }
+
+    // Finds the offset just past the first newline at or after position
+    private static long nextLineStart(FileChannel channel, long position, ByteBuffer probe) throws IOException {
+        while (true) {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read <= 0) {
+                return Long.MAX_VALUE;
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+    }
+}
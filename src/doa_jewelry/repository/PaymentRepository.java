@@ -7,6 +7,8 @@ import doa_jewelry.exception.EntityNotFoundException;
 import doa_jewelry.exception.RepositoryException;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
@@ -16,131 +18,231 @@ import java.util.Optional;
 public class PaymentRepository extends MyCrudRepository<Payment> {
 
     private static final String FILE_PATH = "data/payments.csv"; // Path to the CSV file for payment data
-    private final List<Payment> payments = new ArrayList<>(); // In-memory list of payments
-
-    // Constructor that loads payments from the CSV file into memory
+    private static final String LOG_PATH = "data/payments.wal"; // Path to the write-ahead log
+    private static final String BINARY_PATH = "data/payments.bin"; // Columnar snapshot, replaces the CSV once imported
+    private final SnapshotWriter snapshotWriter = new SnapshotWriter(FILE_PATH); // Atomic temp-file + rename writes
+    private final SnapshotWriter binaryWriter = new SnapshotWriter(BINARY_PATH);
+    private static final PaymentMethod[] METHODS = PaymentMethod.values(); // Cached to avoid a copy per row
+    private final SecondaryIndex<Payment> paymentsByOrder = createIndex(Payment::getOrderId); // orderId -> payments
+
+    // Constructor that loads payments from the CSV file into memory and replays the log on top
     public PaymentRepository() {
-        loadFromFile();
+        this(new SequentialCsvLoader());
+    }
+
+    // Constructor that reads the CSV file with the given loader, e.g. a ParallelCsvLoader at startup
+    public PaymentRepository(CsvLoader loader) {
+        loadFromFile(loader);
+        attachLog(new WriteAheadLog(LOG_PATH));
+    }
+
+    @Override
+    protected Long idOf(Payment payment) {
+        return payment.getId();
     }
 
     @Override
     public Payment save(Payment payment) throws RepositoryException {
         // Assign a new ID if the payment doesn't have one
         if (payment.getId() == null) {
-            payment.setId(generateNewId());
-        } else if (existsById(payment.getId())) {
-            // Check if a payment with the same ID already exists
-            throw new EntityAlreadyExistsException("Payment already exists with ID: " + payment.getId());
+            payment.setId(nextId());
         }
 
-        // Add the payment to the in-memory list
-        payments.add(payment);
-        return payment;
+        return mutate(payment.getId(), () -> {
+            // Check if a payment with the same ID already exists
+            if (existsById(payment.getId())) {
+                throw new EntityAlreadyExistsException("Payment already exists with ID: " + payment.getId());
+            }
+
+            // Add the payment to the in-memory store
+            index(payment);
+            logUpsert(payment);
+            return payment;
+        });
     }
 
     @Override
     public Payment update(Payment payment) throws RepositoryException {
-        // Find the existing payment by ID
-        Optional<Payment> existingPaymentOpt = findById(payment.getId());
-        if (existingPaymentOpt.isPresent()) {
-            Payment existingPayment = existingPaymentOpt.get();
-
-            // Update the payment properties
-            existingPayment.setAmount(payment.getAmount());
-            existingPayment.setDate(payment.getDate());
-            existingPayment.setMethod(payment.getMethod());
-            existingPayment.setOrderId(payment.getOrderId());
-            return existingPayment;
-        } else {
-            throw new EntityNotFoundException("Payment not found with ID: " + payment.getId());
-        }
+        return mutate(payment.getId(), () -> {
+            // Find the existing payment by ID
+            Optional<Payment> existingPaymentOpt = findById(payment.getId());
+            if (existingPaymentOpt.isPresent()) {
+                Payment existingPayment = existingPaymentOpt.get();
+
+                // Update the payment properties
+                existingPayment.setAmount(payment.getAmount());
+                existingPayment.setDate(payment.getDate());
+                existingPayment.setMethod(payment.getMethod());
+                existingPayment.setOrderId(payment.getOrderId());
+                reindex(existingPayment);
+                logUpsert(existingPayment);
+                return existingPayment;
+            } else {
+                throw new EntityNotFoundException("Payment not found with ID: " + payment.getId());
+            }
+        });
     }
 
     @Override
     public void deleteById(Long id) throws RepositoryException {
-        // Find the payment by ID and remove it
-        Payment payment = findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Payment not found with ID: " + id));
-        payments.remove(payment);
+        mutate(id, () -> {
+            // Remove the payment by ID
+            if (unindex(id) == null) {
+                throw new EntityNotFoundException("Payment not found with ID: " + id);
+            }
+            logDelete(id);
+        });
+    }
+
+    // Find all payments made for an order
+    public List<Payment> findAllByOrderId(Long orderId) {
+        return readLocked(() -> paymentsByOrder.find(orderId));
+    }
+
+    @Override
+    protected Payment fromCsvRow(CsvReader row) {
+        if (row.fieldCount() != 5) {
+            throw new RuntimeException("Insufficient data in line: " + row.line());
+        }
+
+        // Parse payment data from the CSV row
+        Long id = row.getLong(0);
+        double amount = row.getDouble(1);
+        LocalDate date = row.getDate(2);
+        PaymentMethod method = row.getEnum(3, METHODS);
+        Long orderId = row.getLong(4);
+
+        // Create a Payment object
+        Payment payment = new Payment(amount, date, method, orderId);
+        payment.setId(id);
+        return payment;
     }
 
     @Override
-    public List<Payment> findAll() {
-        // Return a copy of the in-memory list to prevent external modifications
-        return new ArrayList<>(payments);
+    protected String toCsvLine(Payment payment) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(payment.getId()).append(",")
+                .append(payment.getAmount()).append(",")
+                .append(payment.getDate()).append(",")
+                .append(payment.getMethod().name()).append(",")
+                .append(payment.getOrderId());
+        return sb.toString();
     }
 
     @Override
-    public Optional<Payment> findById(Long id) {
-        // Find a payment by its ID
-        return payments.stream().filter(p -> p.getId().equals(id)).findFirst();
+    protected void writeColumns(List<Payment> payments, ColumnarWriter out) throws IOException {
+        long[] ids = new long[payments.size()];
+        double[] amounts = new double[payments.size()];
+        LocalDate[] dates = new LocalDate[payments.size()];
+        PaymentMethod[] methods = new PaymentMethod[payments.size()];
+        long[] orderIds = new long[payments.size()];
+        for (int i = 0; i < payments.size(); i++) {
+            Payment payment = payments.get(i);
+            ids[i] = payment.getId();
+            amounts[i] = payment.getAmount();
+            dates[i] = payment.getDate();
+            methods[i] = payment.getMethod();
+            orderIds[i] = payment.getOrderId();
+        }
+
+        out.writeLongs(ids);
+        out.writeDoubles(amounts);
+        out.writeDates(dates);
+        out.writeEnums(methods, METHODS);
+        out.writeLongs(orderIds);
     }
 
-    // Generate a new unique ID for a payment
-    private Long generateNewId() {
-        return payments.stream()
-                .mapToLong(p -> p.getId() != null ? p.getId() : 0L)
-                .max()
-                .orElse(0L) + 1;
+    @Override
+    protected List<Payment> readColumns(ColumnarReader in) throws IOException {
+        long[] ids = in.readLongs();
+        double[] amounts = in.readDoubles();
+        LocalDate[] dates = in.readDates();
+        PaymentMethod[] methods = in.readEnums(METHODS);
+        long[] orderIds = in.readLongs();
+
+        List<Payment> payments = new ArrayList<>(in.rowCount());
+        for (int i = 0; i < in.rowCount(); i++) {
+            Payment payment = new Payment(amounts[i], dates[i], methods[i], orderIds[i]);
+            payment.setId(ids[i]);
+            payments.add(payment);
+        }
+        return payments;
     }
 
-    // Load payments from the CSV file into the in-memory list
-    private void loadFromFile() {
+    // Load payments from the CSV file into the in-memory store
+    private void loadFromFile(CsvLoader loader) {
         File file = new File(FILE_PATH);
-        if (!file.exists()) return;
-
-        try (BufferedReader br = new BufferedReader(new FileReader(FILE_PATH))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] data = line.split(",");
-                if (data.length != 5) {
-                    throw new RuntimeException("Insufficient data in line: " + line);
-                }
-
-                // Parse payment data from the CSV line
-                Long id = Long.parseLong(data[0].trim());
-                double amount = Double.parseDouble(data[1].trim());
-                LocalDate date = LocalDate.parse(data[2].trim());
-                PaymentMethod method = PaymentMethod.valueOf(data[3].trim().toUpperCase());
-                Long orderId = Long.parseLong(data[4].trim());
-
-                // Create a Payment object and add it to the list
-                Payment payment = new Payment(amount, date, method, orderId);
-                payment.setId(id);
-                payments.add(payment);
-            }
+
+        try {
+            // The binary snapshot takes the place of the CSV file once it exists
+            if (loadBinarySnapshot(Paths.get(BINARY_PATH)) || !file.exists()) return;
+
+            loader.load(file.toPath(), this::fromCsvRow, this::index);
         } catch (IOException e) {
             throw new RuntimeException("Error loading payments from file", e);
         }
     }
 
-    // Save all payments from the in-memory list to the CSV file
+    // Save all payments from the in-memory store to the binary or CSV snapshot
     private void saveToFile() throws RepositoryException {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(FILE_PATH))) {
-            for (Payment payment : payments) {
-                StringBuilder sb = new StringBuilder();
-                sb.append(payment.getId()).append(",")
-                        .append(payment.getAmount()).append(",")
-                        .append(payment.getDate()).append(",")
-                        .append(payment.getMethod().name()).append(",")
-                        .append(payment.getOrderId());
-                bw.write(sb.toString());
-                bw.newLine();
+        pauseMutations();
+        try {
+            if (Files.exists(Paths.get(BINARY_PATH))) {
+                saveBinarySnapshot(binaryWriter);
+            } else {
+                snapshotWriter.write(values(), this::toCsvLine);
             }
+            resetLog();
         } catch (IOException e) {
             throw new RepositoryException("Error saving payments to file", e);
+        } finally {
+            resumeMutations();
+        }
+    }
+
+    // Export the payments to the CSV file, also while the binary snapshot is in use
+    public void exportToCsv() throws RepositoryException {
+        pauseMutations();
+        try {
+            snapshotWriter.write(values(), this::toCsvLine);
+        } catch (IOException e) {
+            throw new RepositoryException("Error exporting payments to CSV", e);
+        } finally {
+            resumeMutations();
+        }
+    }
+
+    // Keep the payments in the binary snapshot from now on, including logged changes the CSV file lacks; once the
+    // binary snapshot is in use, replace the payments with the contents of the CSV file
+    public void importFromCsv() throws RepositoryException {
+        pauseMutations();
+        try {
+            if (Files.exists(Paths.get(BINARY_PATH))) {
+                reloadFromCsv(Paths.get(FILE_PATH));
+            }
+            saveBinarySnapshot(binaryWriter);
+            resetLog();
+        } catch (IOException e) {
+            throw new RepositoryException("Error importing payments from CSV", e);
+        } finally {
+            resumeMutations();
         }
     }
 
     // Save all payments to the CSV file
+    @Override
     public void saveAll() throws RepositoryException {
-        saveToFile();
+        coalesceSaves(this::saveToFile);
     }
 
     // Delete all payments and clear the CSV file
     public void deleteAll() {
-        payments.clear();
-        saveToFile();
-
+        pauseMutations();
+        try {
+            clear();
+            saveToFile();
+        } finally {
+            resumeMutations();
+        }
     }
 }
@@ -0,0 +1,48 @@
+package doa_jewelry.repository;
+
+import doa_jewelry.exception.RepositoryException;
+
+// Merges concurrent save requests: a caller that arrives while a save is running waits for it, and every caller
+// that queued meanwhile is covered by one follow-up save. Must be entered before the repository's snapshot lock,
+// otherwise callers are already serialised by the time they get here.
+public class SaveCoalescer {
+
+    private final Object lock = new Object();
+    private long requested; // Number of save requests received
+    private long covered; // Requests captured by the last completed save
+    private boolean saving;
+
+    // Runs the save and returns true, or returns false if a save that started after this call already covered it
+    public boolean save(Runnable save) throws RepositoryException {
+        long covering;
+        synchronized (lock) {
+            long ticket = ++requested;
+            while (saving && covered < ticket) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RepositoryException("Interrupted while waiting for a save", e);
+                }
+            }
+            if (covered >= ticket) {
+                return false;
+            }
+            saving = true;
+            covering = requested;
+        }
+
+        try {
+            save.run();
+            synchronized (lock) {
+                covered = covering;
+            }
+            return true;
+        } finally {
+            synchronized (lock) {
+                saving = false;
+                lock.notifyAll();
+            }
+        }
+    }
+}
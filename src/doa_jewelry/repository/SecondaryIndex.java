@@ -0,0 +1,67 @@
+package doa_jewelry.repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+// Non-unique index from a foreign key (e.g. orderId) to the entities that reference it
+public class SecondaryIndex<E> {
+
+    private final Function<E, Long> keyOf; // Extracts the indexed foreign key
+    private final Function<E, Long> idOf; // Extracts the primary key
+    private final Map<Long, Map<Long, E>> entriesByKey = new HashMap<>(); // Foreign key -> entities in insertion order
+    private final Map<Long, Long> keyById = new HashMap<>(); // Primary key -> foreign key it is filed under
+
+    SecondaryIndex(Function<E, Long> keyOf, Function<E, Long> idOf) {
+        this.keyOf = keyOf;
+        this.idOf = idOf;
+    }
+
+    // Returns the entities filed under the given key
+    public List<E> find(Long key) {
+        Map<Long, E> entries = entriesByKey.get(key);
+        return entries == null ? new ArrayList<>() : new ArrayList<>(entries.values());
+    }
+
+    // Files an entity under its current key
+    void add(E entity) {
+        Long id = idOf.apply(entity);
+        Long key = keyOf.apply(entity);
+        keyById.put(id, key);
+        entriesByKey.computeIfAbsent(key, k -> new LinkedHashMap<>()).put(id, entity);
+    }
+
+    // Removes an entity from the key it was filed under
+    void remove(E entity) {
+        Long id = idOf.apply(entity);
+        if (!keyById.containsKey(id)) {
+            return;
+        }
+        Long key = keyById.remove(id);
+        Map<Long, E> entries = entriesByKey.get(key);
+        if (entries != null) {
+            entries.remove(id);
+            if (entries.isEmpty()) {
+                entriesByKey.remove(key);
+            }
+        }
+    }
+
+    // Moves an entity to a new key if it changed since it was filed
+    void refresh(E entity) {
+        Long id = idOf.apply(entity);
+        if (!keyById.containsKey(id) || !Objects.equals(keyById.get(id), keyOf.apply(entity))) {
+            remove(entity);
+            add(entity);
+        }
+    }
+
+    void clear() {
+        entriesByKey.clear();
+        keyById.clear();
+    }
+}
@@ -0,0 +1,32 @@
+package doa_jewelry.repository;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Default ID allocator backed by a monotonic atomic counter holding the last ID handed out
+public class SequenceIdAllocator implements IdAllocator {
+
+    private final AtomicLong last = new AtomicLong(); // Highest ID allocated or observed so far
+
+    @Override
+    public long next() {
+        return last.incrementAndGet();
+    }
+
+    @Override
+    public long reserve(int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Cannot reserve " + count + " IDs.");
+        }
+        return last.getAndAdd(count) + 1;
+    }
+
+    @Override
+    public void observe(long id) {
+        last.accumulateAndGet(id, Math::max);
+    }
+
+    @Override
+    public void reset() {
+        last.set(0);
+    }
+}
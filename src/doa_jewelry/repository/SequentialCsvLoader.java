@@ -0,0 +1,19 @@
+package doa_jewelry.repository;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Default loader: parses the file row by row on the calling thread
+public class SequentialCsvLoader implements CsvLoader {
+
+    @Override
+    public <E> void load(Path path, Function<CsvReader, E> parser, Consumer<E> sink) throws IOException {
+        try (CsvReader reader = CsvReader.open(path)) {
+            while (reader.nextRow()) {
+                sink.accept(parser.apply(reader));
+            }
+        }
+    }
+}
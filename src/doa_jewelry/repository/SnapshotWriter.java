@@ -0,0 +1,112 @@
+package doa_jewelry.repository;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Function;
+
+// Writes a snapshot crash-safely: the content is streamed to a temp file, forced to disk once and renamed over
+// the original. Snapshots go to disk one at a time; concurrent saves of one repository are merged earlier, by
+// SaveCoalescer.
+public class SnapshotWriter {
+
+    // Produces the content of a snapshot
+    public interface Body {
+        void writeTo(FileChannel channel) throws IOException;
+    }
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final Object DISK = new Object(); // Snapshots of different files are written one at a time
+
+    private final Path path;
+    private final Path tempPath;
+
+    public SnapshotWriter(String path) {
+        this.path = Paths.get(path);
+        this.tempPath = Paths.get(path + ".tmp");
+    }
+
+    // Writes the rows as CSV lines through a large direct buffer
+    public <E> void write(Iterable<E> rows, Function<E, String> format) throws IOException {
+        writeWith(channel -> writeRows(channel, rows, format));
+    }
+
+    // Writes the body as the new snapshot
+    public void writeWith(Body body) throws IOException {
+        synchronized (DISK) {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+
+            try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                body.writeTo(channel);
+                channel.force(true);
+            }
+
+            try {
+                Files.move(tempPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+            syncDirectory(parent);
+        }
+    }
+
+    private static <E> void writeRows(FileChannel channel, Iterable<E> rows, Function<E, String> format)
+            throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+        for (E row : rows) {
+            encode(encoder, CharBuffer.wrap(format.apply(row)), buffer, channel);
+            encode(encoder, CharBuffer.wrap(System.lineSeparator()), buffer, channel);
+        }
+        drain(buffer, channel);
+    }
+
+    private static void encode(CharsetEncoder encoder, CharBuffer chars, ByteBuffer buffer, FileChannel channel)
+            throws IOException {
+        while (true) {
+            CoderResult result = encoder.encode(chars, buffer, true);
+            if (result.isOverflow()) {
+                drain(buffer, channel);
+            } else if (result.isError()) {
+                result.throwException();
+            } else {
+                encoder.reset();
+                return;
+            }
+        }
+    }
+
+    private static void drain(ByteBuffer buffer, FileChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // Makes the rename itself durable where the platform allows syncing a directory
+    private static void syncDirectory(Path directory) {
+        if (directory == null) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Not supported on every platform; the data itself is already on disk
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package doa_jewelry.repository;
+
+import doa_jewelry.exception.RepositoryException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+// Append-only log of repository mutations, replayed over the CSV snapshot on startup and emptied by each snapshot.
+// Unless syncOnAppend is set, records only reach the OS page cache, so writes already acknowledged to the caller
+// can be lost if the machine (not just the JVM) goes down before the kernel flushes them.
+public class WriteAheadLog {
+
+    private static final String UPSERT = "U"; // Record prefix for a saved or updated entity, followed by its CSV row
+    private static final String DELETE = "D"; // Record prefix for a deleted entity, followed by its ID
+    private static final int DEFAULT_COMPACT_THRESHOLD = 10_000; // Records appended before a snapshot is taken
+
+    private final Path path;
+    private final int compactThreshold;
+    private final boolean syncOnAppend; // Force each record to the device, not just the OS page cache
+    private FileChannel channel; // Opened lazily in append mode
+    private int records; // Records currently in the log
+
+    public WriteAheadLog(String path) {
+        this(path, DEFAULT_COMPACT_THRESHOLD, false);
+    }
+
+    public WriteAheadLog(String path, int compactThreshold, boolean syncOnAppend) {
+        this.path = Paths.get(path);
+        this.compactThreshold = compactThreshold;
+        this.syncOnAppend = syncOnAppend;
+    }
+
+    // Replays every complete record in order; a torn last record left by a crash is cut off so later appends start clean
+    public synchronized void replay(Consumer<String> upsert, Consumer<Long> delete) throws RepositoryException {
+        if (!Files.exists(path)) {
+            return;
+        }
+
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(path);
+        } catch (IOException e) {
+            throw new RepositoryException("Error reading write-ahead log " + path, e);
+        }
+
+        int complete = bytes.length; // Length of the log up to and including its last '\n'
+        while (complete > 0 && bytes[complete - 1] != '\n') {
+            complete--;
+        }
+        if (complete < bytes.length) {
+            try (FileChannel torn = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                torn.truncate(complete);
+            } catch (IOException e) {
+                throw new RepositoryException("Error truncating torn record in write-ahead log " + path, e);
+            }
+        }
+        String content = new String(bytes, 0, complete, StandardCharsets.UTF_8);
+
+        int start = 0;
+        int end;
+        while ((end = content.indexOf('\n', start)) >= 0) {
+            String record = content.substring(start, end);
+            start = end + 1;
+            if (record.isEmpty()) {
+                continue;
+            }
+
+            int separator = record.indexOf(',');
+            String type = separator < 0 ? record : record.substring(0, separator);
+            String payload = separator < 0 ? "" : record.substring(separator + 1);
+            if (UPSERT.equals(type)) {
+                upsert.accept(payload);
+            } else if (DELETE.equals(type)) {
+                delete.accept(Long.parseLong(payload));
+            } else {
+                throw new RepositoryException("Unknown record in write-ahead log " + path + ": " + record);
+            }
+            records++;
+        }
+    }
+
+    // Records a saved or updated entity as its CSV row
+    public synchronized void appendUpsert(String csvLine) throws RepositoryException {
+        append(UPSERT + "," + csvLine + "\n");
+    }
+
+    // Records the deletion of an entity
+    public synchronized void appendDelete(Long id) throws RepositoryException {
+        append(DELETE + "," + id + "\n");
+    }
+
+    // Checks whether the log has grown enough to be folded into a snapshot
+    public synchronized boolean needsCompaction() {
+        return records >= compactThreshold;
+    }
+
+    // Empties the log once its records are captured by a snapshot
+    public synchronized void truncate() throws RepositoryException {
+        try {
+            if (channel != null) {
+                channel.truncate(0);
+            } else {
+                Files.deleteIfExists(path);
+            }
+            records = 0;
+        } catch (IOException e) {
+            throw new RepositoryException("Error truncating write-ahead log " + path, e);
+        }
+    }
+
+    // Writes one record with a single sequential append
+    private void append(String record) throws RepositoryException {
+        try {
+            if (channel == null) {
+                Path parent = path.getParent();
+                if (parent != null) {
+                    Files.createDirectories(parent);
+                }
+                channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.APPEND);
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(record.getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (syncOnAppend) {
+                channel.force(false);
+            }
+            records++;
+        } catch (IOException e) {
+            throw new RepositoryException("Error appending to write-ahead log " + path, e);
+        }
+    }
+}
@@ -1,13 +1,12 @@
 package doa_jewelry.service;
 
 import doa_jewelry.entity.Jewelry;
-import doa_jewelry.entity.Order;
 import doa_jewelry.exception.RepositoryException;
-import doa_jewelry.exception.InsufficientUnitsException;
 import doa_jewelry.exception.EntityNotFoundException;
 import doa_jewelry.repository.JewelryRepository;
 import doa_jewelry.repository.OrderRepository;
 
+import java.util.ArrayList;
 import java.util.List;
 
 // Service responsible for handling business logic related to jewelry items
@@ -40,36 +39,36 @@ public class JewelryService {
     // Deletes a jewelry item if it is not part of any existing orders
     public void deleteJewelry(Long id) throws RepositoryException {
         // Check if the jewelry item is part of any orders
-        boolean isInOrders = orderRepository.findAll().stream()
-                .anyMatch(order -> order.getItems().stream()
-                        .anyMatch(item -> item.getJewelryId().equals(id)));
-        if (isInOrders) {
+        if (orderRepository.isJewelryReferenced(id)) {
             throw new RepositoryException("Cannot delete jewelry item that is part of existing orders.");
         }
         // Delete the jewelry item if not part of any orders
         jewelryRepository.deleteById(id);
     }
 
+    // Retrieves the most ordered jewelry items by total units sold, most ordered first
+    public List<Jewelry> getMostOrderedJewelry(int limit) throws RepositoryException {
+        List<Jewelry> result = new ArrayList<>();
+        for (Long jewelryId : orderRepository.findMostOrderedJewelryIds(limit)) {
+            jewelryRepository.findById(jewelryId).ifPresent(result::add);
+        }
+        return result;
+    }
+
     // Updates the details of an existing jewelry item
     public Jewelry updateJewelry(Jewelry jewelry) throws RepositoryException {
         return jewelryRepository.update(jewelry);
     }
 
-    // Decreases the stock of a jewelry item; throws an exception if there is insufficient stock
+    // Decreases the stock of a jewelry item as one atomic check-and-decrement; throws an exception if there is
+    // insufficient stock
     public void decreaseStock(Long jewelryId, int quantity) throws RepositoryException {
-        Jewelry jewelry = getJewelryById(jewelryId);
-        if (jewelry.getStockQuantity() < quantity) {
-            throw new InsufficientUnitsException("Insufficient stock for jewelry ID: " + jewelryId);
-        }
-        jewelry.setStockQuantity(jewelry.getStockQuantity() - quantity);
-        jewelryRepository.update(jewelry);
+        jewelryRepository.decreaseStock(jewelryId, quantity);
     }
 
     // Increases the stock of a jewelry item
     public void increaseStock(Long jewelryId, int quantity) throws RepositoryException {
-        Jewelry jewelry = getJewelryById(jewelryId);
-        jewelry.setStockQuantity(jewelry.getStockQuantity() + quantity);
-        jewelryRepository.update(jewelry);
+        jewelryRepository.increaseStock(jewelryId, quantity);
     }
 
     // Saves all jewelry data to persistent storage
@@ -6,13 +6,12 @@ import doa_jewelry.entity.OrderStatus;
 import doa_jewelry.entity.Payment;
 import doa_jewelry.exception.EntityAlreadyExistsException;
 import doa_jewelry.exception.EntityNotFoundException;
-import doa_jewelry.exception.InsufficientUnitsException;
 import doa_jewelry.exception.RepositoryException;
 import doa_jewelry.repository.OrderRepository;
 import doa_jewelry.repository.CustomerRepository;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 // Service responsible for handling the business logic related to orders
 public class OrderService {
@@ -52,23 +51,27 @@ public class OrderService {
             throw new EntityAlreadyExistsException("Order already exists with ID: " + order.getId());
         }
 
-        // Calculate the total amount and validate stock
-        double totalAmount = 0.0;
-        for (Order.Item item : order.getItems()) {
-            Jewelry jewelry = jewelryService.getJewelryById(item.getJewelryId());
-            if (jewelry.getStockQuantity() < item.getQuantity()) {
-                throw new InsufficientUnitsException("Insufficient stock for jewelry ID: " + item.getJewelryId());
+        // Reserve stock; each reservation is an atomic check-and-decrement
+        reserveStock(order.getItems());
+        try {
+            // Calculate the total amount
+            double totalAmount = 0.0;
+            for (Order.Item item : order.getItems()) {
+                Jewelry jewelry = jewelryService.getJewelryById(item.getJewelryId());
+                totalAmount += jewelry.getPrice() * item.getQuantity();
             }
-            jewelryService.decreaseStock(item.getJewelryId(), item.getQuantity());
-            totalAmount += jewelry.getPrice() * item.getQuantity();
-        }
 
-        // Set order total amount and initial status
-        order.setTotalAmount(totalAmount);
-        order.setStatus(OrderStatus.PENDING);
+            // Set order total amount and initial status
+            order.setTotalAmount(totalAmount);
+            order.setStatus(OrderStatus.PENDING);
 
-        // Save the order
-        return orderRepository.save(order);
+            // Save the order
+            return orderRepository.save(order);
+        } catch (RuntimeException e) {
+            // The order was never stored, so the units reserved for it go back into stock
+            releaseStock(order.getItems());
+            throw e;
+        }
     }
 
     // Retrieves an order by its ID; throws an exception if not found
@@ -117,14 +120,7 @@ public class OrderService {
                 }
             } else if (order.getStatus() == OrderStatus.PENDING && existingOrder.getStatus() != OrderStatus.PENDING) {
                 // Deduct stock for orders reverting to pending
-                for (Order.Item item : existingOrder.getItems()) {
-                    Jewelry jewelry = jewelryService.getJewelryById(item.getJewelryId());
-                    if (jewelry.getStockQuantity() < item.getQuantity()) {
-                        throw new InsufficientUnitsException(
-                                "Insufficient stock for jewelry ID: " + item.getJewelryId());
-                    }
-                    jewelryService.decreaseStock(item.getJewelryId(), item.getQuantity());
-                }
+                reserveStock(existingOrder.getItems());
             }
         }
 
@@ -141,16 +137,34 @@ public class OrderService {
 
     // Retrieves all orders associated with a specific customer
     public List<Order> getOrdersByCustomerId(Long customerId) throws RepositoryException {
-        return orderRepository.findAll().stream()
-                .filter(order -> order.getCustomerId().equals(customerId))
-                .collect(Collectors.toList());
+        return orderRepository.findAllByCustomerId(customerId);
     }
 
     // Checks if a specific jewelry item is part of any orders
     public boolean isJewelryInOrders(Long jewelryId) {
-        return orderRepository.findAll().stream()
-                .anyMatch(order -> order.getItems().stream()
-                        .anyMatch(item -> item.getJewelryId().equals(jewelryId)));
+        return orderRepository.isJewelryReferenced(jewelryId);
+    }
+
+    // Takes every item out of stock, or none of them: if one item runs short, the ones already reserved
+    // are put back before the exception is rethrown
+    private void reserveStock(List<Order.Item> items) throws RepositoryException {
+        List<Order.Item> reserved = new ArrayList<>();
+        try {
+            for (Order.Item item : items) {
+                jewelryService.decreaseStock(item.getJewelryId(), item.getQuantity());
+                reserved.add(item);
+            }
+        } catch (RepositoryException e) {
+            releaseStock(reserved);
+            throw e;
+        }
+    }
+
+    // Puts the given items back into stock
+    private void releaseStock(List<Order.Item> items) throws RepositoryException {
+        for (Order.Item item : items) {
+            jewelryService.increaseStock(item.getJewelryId(), item.getQuantity());
+        }
     }
 
     // Saves all orders to persistent storage
@@ -10,7 +10,6 @@ import doa_jewelry.repository.OrderRepository;
 import doa_jewelry.repository.PaymentRepository;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 // Service responsible for handling business logic related to payments
 public class PaymentService {
@@ -128,9 +127,7 @@ public class PaymentService {
 
     // Retrieves all payments associated with a specific order
     public List<Payment> getPaymentsByOrderId(Long orderId) {
-        return paymentRepository.findAll().stream()
-                .filter(p -> p.getOrderId().equals(orderId))
-                .collect(Collectors.toList());
+        return paymentRepository.findAllByOrderId(orderId);
     }
 
     // Calculates the total amount paid for a specific order
@@ -10,6 +10,12 @@ import doa_jewelry.service.*;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
 
 /**
  * StartupInitializer initializes the system with predefined data such as employees, customers, jewelry items, orders, and payments.
@@ -25,12 +31,45 @@ public class StartupInitializer {
     private final PaymentController paymentController;
 
     public StartupInitializer() {
+        this(false);
+    }
+
+    /**
+     * @param parallelBootstrap load the five CSV files at the same time, splitting large ones into chunks
+     *                          parsed on the common fork-join pool
+     */
+    public StartupInitializer(boolean parallelBootstrap) {
         // Initialize repositories for data storage and retrieval
-        EmployeeRepository employeeRepository = new EmployeeRepository();
-        CustomerRepository customerRepository = new CustomerRepository();
-        JewelryRepository jewelryRepository = new JewelryRepository();
-        OrderRepository orderRepository = new OrderRepository();
-        PaymentRepository paymentRepository = new PaymentRepository();
+        EmployeeRepository employeeRepository;
+        CustomerRepository customerRepository;
+        JewelryRepository jewelryRepository;
+        OrderRepository orderRepository;
+        PaymentRepository paymentRepository;
+
+        if (parallelBootstrap) {
+            CsvLoader loader = new ParallelCsvLoader(ForkJoinPool.commonPool());
+            ExecutorService executor = Executors.newFixedThreadPool(5);
+            try {
+                Future<EmployeeRepository> employees = executor.submit(() -> timed("employees", () -> new EmployeeRepository(loader)));
+                Future<CustomerRepository> customers = executor.submit(() -> timed("customers", () -> new CustomerRepository(loader)));
+                Future<JewelryRepository> jewelry = executor.submit(() -> timed("jewelry", () -> new JewelryRepository(loader)));
+                Future<OrderRepository> orders = executor.submit(() -> timed("orders", () -> new OrderRepository(loader)));
+                Future<PaymentRepository> payments = executor.submit(() -> timed("payments", () -> new PaymentRepository(loader)));
+                employeeRepository = await(employees);
+                customerRepository = await(customers);
+                jewelryRepository = await(jewelry);
+                orderRepository = await(orders);
+                paymentRepository = await(payments);
+            } finally {
+                executor.shutdown();
+            }
+        } else {
+            employeeRepository = timed("employees", EmployeeRepository::new);
+            customerRepository = timed("customers", CustomerRepository::new);
+            jewelryRepository = timed("jewelry", JewelryRepository::new);
+            orderRepository = timed("orders", OrderRepository::new);
+            paymentRepository = timed("payments", PaymentRepository::new);
+        }
 
         // Create services and inject their respective repositories
         PaymentService paymentService = new PaymentService(paymentRepository, orderRepository);
@@ -47,6 +86,33 @@ public class StartupInitializer {
         paymentController = new PaymentController(paymentService);
     }
 
+    /**
+     * Builds a repository and reports how long loading its data took.
+     */
+    private static <R extends MyCrudRepository<?>> R timed(String name, Supplier<R> factory) {
+        long start = System.nanoTime();
+        R repository = factory.get();
+        System.out.printf("Loaded %s: %d rows in %d ms%n", name, repository.count(), (System.nanoTime() - start) / 1_000_000);
+        return repository;
+    }
+
+    /**
+     * Waits for a repository loaded in the background, rethrowing its failure.
+     */
+    private static <R> R await(Future<R> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RepositoryException("Interrupted while loading data", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RepositoryException("Error loading data", e.getCause());
+        }
+    }
+
     /**
      * Initializes the system with sample data and demonstrates various operations.
      */
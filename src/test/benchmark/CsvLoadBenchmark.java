@@ -0,0 +1,121 @@
+package test.benchmark;
+
+import doa_jewelry.entity.Order;
+import doa_jewelry.entity.OrderStatus;
+import doa_jewelry.repository.CsvLoader;
+import doa_jewelry.repository.CsvReader;
+import doa_jewelry.repository.ParallelCsvLoader;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+// Compares loading orders.csv with BufferedReader + String.split against CsvReader, sequentially and
+// through ParallelCsvLoader.
+// Usage: java test.benchmark.CsvLoadBenchmark [rows] [rounds]
+public class CsvLoadBenchmark {
+
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        Path file = Files.createTempFile("orders", ".csv");
+        try {
+            writeOrders(file, rows);
+            System.out.printf("%,d orders, %,d bytes%n", rows, Files.size(file));
+
+            for (int round = 1; round <= rounds; round++) {
+                long start = System.nanoTime();
+                int split = loadWithSplit(file).size();
+                long splitNanos = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                int mapped = loadWithCsvReader(file).size();
+                long mappedNanos = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                int parallel = loadWithParallelLoader(file).size();
+                long parallelNanos = System.nanoTime() - start;
+
+                if (split != mapped || split != parallel) {
+                    throw new IllegalStateException("Row counts differ: " + split + ", " + mapped + ", " + parallel);
+                }
+                System.out.printf("round %d: split %,d ms, CsvReader %,d ms, ParallelCsvLoader %,d ms%n",
+                        round, splitNanos / 1_000_000, mappedNanos / 1_000_000, parallelNanos / 1_000_000);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void writeOrders(Path file, int rows) throws IOException {
+        LocalDate date = LocalDate.of(2024, 1, 1);
+        OrderStatus[] statuses = OrderStatus.values();
+        try (BufferedWriter bw = new BufferedWriter(new FileWriter(file.toFile()))) {
+            for (int id = 1; id <= rows; id++) {
+                bw.write(id + "," + (id % 5000 + 1) + "," + date.plusDays(id % 365) + ","
+                        + statuses[id % statuses.length].name() + "," + (id % 1000) * 12.5
+                        + "," + (id % 300 + 1) + ",1," + (id % 70 + 1) + ",2");
+                bw.newLine();
+            }
+        }
+    }
+
+    // The loading path the repositories used before CsvReader
+    private static List<Order> loadWithSplit(Path file) throws IOException {
+        List<Order> orders = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(new FileReader(file.toFile()))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                String[] data = line.split(",");
+                Long id = Long.parseLong(data[0].trim());
+                Long customerId = Long.parseLong(data[1].trim());
+                LocalDate date = LocalDate.parse(data[2].trim());
+                OrderStatus status = OrderStatus.valueOf(data[3].trim().toUpperCase());
+                double totalAmount = Double.parseDouble(data[4].trim());
+                List<Order.Item> items = new ArrayList<>();
+                for (int i = 5; i + 1 < data.length; i += 2) {
+                    items.add(new Order.Item(Long.parseLong(data[i].trim()), Integer.parseInt(data[i + 1].trim())));
+                }
+                orders.add(new Order(id, customerId, date, items, totalAmount, status));
+            }
+        }
+        return orders;
+    }
+
+    private static List<Order> loadWithCsvReader(Path file) throws IOException {
+        List<Order> orders = new ArrayList<>();
+        try (CsvReader row = CsvReader.open(file)) {
+            while (row.nextRow()) {
+                orders.add(parseOrder(row));
+            }
+        }
+        return orders;
+    }
+
+    private static List<Order> loadWithParallelLoader(Path file) throws IOException {
+        CsvLoader loader = new ParallelCsvLoader(ForkJoinPool.commonPool());
+        List<Order> orders = new ArrayList<>();
+        loader.load(file, CsvLoadBenchmark::parseOrder, orders::add);
+        return orders;
+    }
+
+    private static Order parseOrder(CsvReader row) {
+        List<Order.Item> items = new ArrayList<>((row.fieldCount() - 5) / 2);
+        for (int i = 5; i + 1 < row.fieldCount(); i += 2) {
+            items.add(new Order.Item(row.getLong(i), row.getInt(i + 1)));
+        }
+        return new Order(row.getLong(0), row.getLong(1), row.getDate(2), items,
+                row.getDouble(4), row.getEnum(3, STATUSES));
+    }
+}
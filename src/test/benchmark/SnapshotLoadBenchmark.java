@@ -0,0 +1,76 @@
+package test.benchmark;
+
+import doa_jewelry.entity.OrderStatus;
+import doa_jewelry.repository.OrderRepository;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+
+// Measures OrderRepository startup from orders.csv against the binary snapshot created by importFromCsv.
+// The repositories use data/ relative to the working directory, so run it from an empty scratch directory.
+// Usage: java test.benchmark.SnapshotLoadBenchmark [rows] [rounds]
+public class SnapshotLoadBenchmark {
+
+    private static final Path CSV = Paths.get("data/orders.csv");
+    private static final Path BINARY = Paths.get("data/orders.bin");
+
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        if (Files.exists(CSV) || Files.exists(BINARY)) {
+            System.err.println("data/orders.csv already exists; run from an empty directory");
+            System.exit(1);
+        }
+        Files.createDirectories(CSV.getParent());
+        try {
+            writeOrders(rows);
+            new OrderRepository().importFromCsv();
+            System.out.printf("%,d orders: CSV %,d bytes, binary %,d bytes%n", rows, Files.size(CSV),
+                    Files.size(BINARY));
+
+            Path hidden = Paths.get("data/orders.bin.off");
+            for (int round = 1; round <= rounds; round++) {
+                Files.move(BINARY, hidden);
+                System.gc(); // Keep the previous round's garbage out of the measurement
+                long start = System.nanoTime();
+                int fromCsv = new OrderRepository().count();
+                long csvNanos = System.nanoTime() - start;
+                Files.move(hidden, BINARY);
+
+                System.gc();
+                start = System.nanoTime();
+                int fromBinary = new OrderRepository().count();
+                long binaryNanos = System.nanoTime() - start;
+
+                if (fromCsv != fromBinary) {
+                    throw new IllegalStateException("Row counts differ: " + fromCsv + ", " + fromBinary);
+                }
+                System.out.printf("round %d: CSV %,d ms, binary %,d ms (%.1fx)%n", round, csvNanos / 1_000_000,
+                        binaryNanos / 1_000_000, (double) csvNanos / binaryNanos);
+            }
+        } finally {
+            Files.deleteIfExists(CSV);
+            Files.deleteIfExists(BINARY);
+            Files.deleteIfExists(Paths.get("data/orders.wal"));
+        }
+    }
+
+    private static void writeOrders(int rows) throws IOException {
+        LocalDate date = LocalDate.of(2024, 1, 1);
+        OrderStatus[] statuses = OrderStatus.values();
+        try (BufferedWriter bw = new BufferedWriter(new FileWriter(CSV.toFile()))) {
+            for (int id = 1; id <= rows; id++) {
+                bw.write(id + "," + (id % 5000 + 1) + "," + date.plusDays(id % 365) + ","
+                        + statuses[id % statuses.length].name() + "," + (id % 1000) * 12.5
+                        + "," + (id % 300 + 1) + ",1," + (id % 70 + 1) + ",2");
+                bw.newLine();
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package test.repository;
+
+import doa_jewelry.entity.PaymentMethod;
+import doa_jewelry.repository.CsvReader;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.junit.Assert.*;
+
+public class CsvReaderTest {
+
+    @Test
+    public void testParsesFieldsFromLine() throws IOException {
+        CsvReader row = CsvReader.ofLine(" 7 ,1500.25,2024-11-19, credit_card ,-3,1e3");
+        assertTrue(row.nextRow());
+
+        assertEquals(6, row.fieldCount());
+        assertEquals(7L, row.getLong(0));
+        assertEquals(1500.25, row.getDouble(1), 0.0);
+        assertEquals(LocalDate.of(2024, 11, 19), row.getDate(2));
+        assertEquals(PaymentMethod.CREDIT_CARD, row.getEnum(3, PaymentMethod.values()));
+        assertEquals(-3, row.getInt(4));
+        assertEquals(1000.0, row.getDouble(5), 0.0);
+        assertFalse(row.nextRow());
+    }
+
+    @Test
+    public void testKeepsNonAsciiCharactersAtFieldEdges() throws IOException {
+        CsvReader row = CsvReader.ofLine("1,José,Óscar, Ângela ,Rua São João");
+        assertTrue(row.nextRow());
+
+        assertEquals("José", row.getString(1));
+        assertEquals("Óscar", row.getString(2));
+        assertEquals("Ângela", row.getString(3));
+        assertEquals("Rua São João", row.getString(4));
+    }
+
+    @Test
+    public void testDoublesMatchDoubleParseDouble() throws IOException {
+        String[] values = {"0.1", "0.3", "123456.789", "-42.5", "9007199254740993", "1.7976931348623157E308", "4.9E-324"};
+        for (String value : values) {
+            CsvReader row = CsvReader.ofLine(value);
+            assertTrue(row.nextRow());
+            assertEquals(value, Double.parseDouble(value), row.getDouble(0), 0.0);
+        }
+    }
+
+    @Test
+    public void testReadsEveryRowOfMappedFile() throws IOException {
+        Path file = Files.createTempFile("csv-reader", ".csv");
+        try {
+            Files.write(file, "1,Anna,,\r\n2,Bruno\n3,Carla".getBytes());
+            try (CsvReader row = CsvReader.open(file)) {
+                assertTrue(row.nextRow());
+                assertEquals(2, row.fieldCount());
+                assertEquals("Anna", row.getString(1));
+                assertTrue(row.nextRow());
+                assertEquals("Bruno", row.getString(1));
+                assertTrue(row.nextRow());
+                assertEquals("Carla", row.getString(1));
+                assertFalse(row.nextRow());
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -52,4 +52,18 @@ public class CustomerRepositoryTest {
 
         assertTrue(customerRepository.findAll().isEmpty());
     }
+
+    @Test
+    public void testChangesSurviveRestartWithoutSaveAll() {
+        Customer customer = new Customer("John Doe", "123456789", "john@example.com", "555-1234", "123 Main St");
+        Customer savedCustomer = customerRepository.save(customer);
+        savedCustomer.setPhoneNumber("555-9999");
+        customerRepository.update(savedCustomer);
+
+        CustomerRepository reopened = new CustomerRepository();
+        Customer retrievedCustomer = reopened.findById(savedCustomer.getId()).orElse(null);
+
+        assertNotNull(retrievedCustomer);
+        assertEquals("555-9999", retrievedCustomer.getPhoneNumber());
+    }
 }
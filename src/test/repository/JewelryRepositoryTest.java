@@ -6,6 +6,10 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
 import static org.junit.Assert.*;
 
 public class JewelryRepositoryTest {
@@ -52,4 +56,40 @@ public class JewelryRepositoryTest {
 
         assertTrue(jewelryRepository.findAll().isEmpty());
     }
+
+    @Test
+    public void testFindAllKeepsInsertionOrder() {
+        Jewelry ring = jewelryRepository.save(new Ring("Diamond Ring", MaterialType.DIAMOND, 5.0, 1500.0, 10, JewelryCategory.LUXURY, 6.5));
+        Jewelry necklace = jewelryRepository.save(new Necklace("Gold Necklace", MaterialType.GOLD, 10.0, 2000.0, 5, JewelryCategory.LUXURY, 18.0));
+        Jewelry earring = jewelryRepository.save(new Earring("Silver Earring", MaterialType.SILVER, 10.0, 200.0, 20, JewelryCategory.CASUAL, "Hook"));
+
+        jewelryRepository.deleteById(necklace.getId());
+
+        assertEquals(2, jewelryRepository.findAll().size());
+        assertEquals(ring.getId(), jewelryRepository.findAll().get(0).getId());
+        assertEquals(earring.getId(), jewelryRepository.findAll().get(1).getId());
+        assertFalse(jewelryRepository.existsById(necklace.getId()));
+    }
+
+    @Test
+    public void testBinarySnapshotRoundTrip() throws IOException {
+        jewelryRepository.save(new Ring("Diamond Ring", MaterialType.DIAMOND, 5.0, 1500.0, 10, JewelryCategory.LUXURY, 6.5));
+        jewelryRepository.save(new Necklace("Gold Necklace", MaterialType.GOLD, 10.0, 2000.0, 5, JewelryCategory.LUXURY, 18.0));
+        jewelryRepository.save(new Earring("Silver Earring", MaterialType.SILVER, 10.0, 200.0, 20, JewelryCategory.CASUAL, "Hook"));
+        jewelryRepository.saveAll();
+
+        try {
+            jewelryRepository.importFromCsv();
+            JewelryRepository reloaded = new JewelryRepository();
+
+            assertEquals(3, reloaded.count());
+            for (Jewelry expected : jewelryRepository.findAll()) {
+                Jewelry actual = reloaded.findById(expected.getId()).orElse(null);
+                assertNotNull(actual);
+                assertEquals(expected.toString(), actual.toString());
+            }
+        } finally {
+            Files.deleteIfExists(Paths.get("data/jewelry.bin"));
+        }
+    }
 }
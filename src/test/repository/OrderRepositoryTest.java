@@ -7,6 +7,9 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
@@ -82,4 +85,92 @@ public class OrderRepositoryTest {
 
         assertTrue(orderRepository.findAll().isEmpty());
     }
+
+    @Test
+    public void testReservedIdsAreNotReused() {
+        Long first = orderRepository.reserveIds(10);
+
+        Order order = new Order();
+        order.setCustomerId(1L);
+        order.setDate(LocalDate.now());
+        order.setItems(Arrays.asList(new Order.Item(1L, 1)));
+        order.setTotalAmount(100.0);
+        order.setStatus(OrderStatus.PENDING);
+
+        Order savedOrder = orderRepository.save(order);
+
+        assertEquals(Long.valueOf(first + 10), savedOrder.getId());
+    }
+
+    @Test
+    public void testJewelryReferencesFollowOrderChanges() {
+        Order order = new Order();
+        order.setCustomerId(1L);
+        order.setDate(LocalDate.now());
+        order.setItems(Arrays.asList(new Order.Item(1L, 2), new Order.Item(2L, 5)));
+        order.setTotalAmount(1000.0);
+        order.setStatus(OrderStatus.PENDING);
+        Order savedOrder = orderRepository.save(order);
+
+        assertTrue(orderRepository.isJewelryReferenced(1L));
+        assertEquals(Arrays.asList(2L, 1L), orderRepository.findMostOrderedJewelryIds(10));
+
+        savedOrder.setItems(Arrays.asList(new Order.Item(2L, 5)));
+        orderRepository.update(savedOrder);
+        assertFalse(orderRepository.isJewelryReferenced(1L));
+
+        orderRepository.deleteById(savedOrder.getId());
+        assertFalse(orderRepository.isJewelryReferenced(2L));
+        assertTrue(orderRepository.findMostOrderedJewelryIds(10).isEmpty());
+    }
+
+    @Test
+    public void testBinarySnapshotKeepsChangesAfterImport() throws IOException {
+        Order order = new Order();
+        order.setCustomerId(1L);
+        order.setDate(LocalDate.now());
+        order.setItems(Arrays.asList(new Order.Item(1L, 2), new Order.Item(2L, 5)));
+        order.setTotalAmount(1000.0);
+        order.setStatus(OrderStatus.PENDING);
+        orderRepository.save(order);
+        orderRepository.saveAll();
+
+        try {
+            orderRepository.importFromCsv();
+            Order second = new Order(null, 2L, LocalDate.now(), Arrays.asList(new Order.Item(3L, 1)), 50.0,
+                    OrderStatus.ACCEPTED);
+            orderRepository.save(second);
+            orderRepository.saveAll();
+
+            OrderRepository reloaded = new OrderRepository();
+            assertEquals(2, reloaded.count());
+            assertEquals(7, reloaded.findAll().get(0).getItems().stream().mapToInt(Order.Item::getQuantity).sum());
+            assertEquals(OrderStatus.ACCEPTED, reloaded.findById(second.getId()).get().getStatus());
+            assertTrue(reloaded.isJewelryReferenced(3L));
+        } finally {
+            Files.deleteIfExists(Paths.get("data/orders.bin"));
+        }
+    }
+
+    @Test
+    public void testImportKeepsChangesOnlyInTheLog() throws IOException {
+        Order order = new Order(null, 1L, LocalDate.now(), Arrays.asList(new Order.Item(1L, 2)), 200.0,
+                OrderStatus.PENDING);
+        orderRepository.save(order);
+        orderRepository.saveAll();
+        Order logged = new Order(null, 2L, LocalDate.now(), Arrays.asList(new Order.Item(3L, 1)), 50.0,
+                OrderStatus.ACCEPTED);
+        orderRepository.save(logged);
+
+        try {
+            orderRepository.importFromCsv();
+            assertEquals(2, orderRepository.count());
+
+            OrderRepository reloaded = new OrderRepository();
+            assertEquals(2, reloaded.count());
+            assertEquals(OrderStatus.ACCEPTED, reloaded.findById(logged.getId()).get().getStatus());
+        } finally {
+            Files.deleteIfExists(Paths.get("data/orders.bin"));
+        }
+    }
 }
@@ -0,0 +1,49 @@
+package test.repository;
+
+import doa_jewelry.repository.CsvLoader;
+import doa_jewelry.repository.ParallelCsvLoader;
+import doa_jewelry.repository.SequentialCsvLoader;
+import org.junit.Test;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class ParallelCsvLoaderTest {
+
+    @Test
+    public void testChunkedLoadKeepsFileOrder() throws IOException {
+        Path file = Files.createTempFile("parallel-loader", ".csv");
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            // Large enough to be split into several chunks
+            try (BufferedWriter bw = Files.newBufferedWriter(file)) {
+                for (int id = 1; id <= 400_000; id++) {
+                    bw.write(id + ",Customer " + id + ",2024-11-19," + (id * 0.5));
+                    bw.newLine();
+                }
+            }
+
+            List<Long> sequential = load(new SequentialCsvLoader(), file);
+            List<Long> parallel = load(new ParallelCsvLoader(pool), file);
+
+            assertEquals(400_000, sequential.size());
+            assertEquals(sequential, parallel);
+        } finally {
+            pool.shutdown();
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static List<Long> load(CsvLoader loader, Path file) throws IOException {
+        List<Long> ids = new ArrayList<>();
+        loader.load(file, row -> row.getLong(0), ids::add);
+        return ids;
+    }
+}
@@ -57,4 +57,19 @@ public class PaymentRepositoryTest {
 
         assertTrue(paymentRepository.findAll().isEmpty());
     }
+
+    @Test
+    public void testFindAllByOrderIdFollowsUpdates() {
+        Payment first = paymentRepository.save(new Payment(100.0, LocalDate.now(), PaymentMethod.CASH, 1L));
+        Payment second = paymentRepository.save(new Payment(200.0, LocalDate.now(), PaymentMethod.CASH, 1L));
+
+        Payment moved = new Payment(200.0, LocalDate.now(), PaymentMethod.CASH, 2L);
+        moved.setId(second.getId());
+        paymentRepository.update(moved);
+        paymentRepository.deleteById(first.getId());
+
+        assertTrue(paymentRepository.findAllByOrderId(1L).isEmpty());
+        assertEquals(1, paymentRepository.findAllByOrderId(2L).size());
+        assertEquals(second.getId(), paymentRepository.findAllByOrderId(2L).get(0).getId());
+    }
 }
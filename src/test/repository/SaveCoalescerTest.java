@@ -0,0 +1,64 @@
+package test.repository;
+
+import doa_jewelry.repository.SaveCoalescer;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class SaveCoalescerTest {
+
+    @Test
+    public void testCallersQueuedDuringASaveShareOneFollowUp() throws Exception {
+        SaveCoalescer coalescer = new SaveCoalescer();
+        AtomicInteger saves = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Thread first = new Thread(() -> coalescer.save(() -> {
+            saves.incrementAndGet();
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        first.start();
+        started.await();
+
+        List<Thread> queued = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Thread thread = new Thread(() -> coalescer.save(saves::incrementAndGet));
+            queued.add(thread);
+            thread.start();
+        }
+        for (Thread thread : queued) {
+            while (thread.getState() != Thread.State.WAITING) {
+                Thread.yield();
+            }
+        }
+        release.countDown();
+        first.join();
+        for (Thread thread : queued) {
+            thread.join();
+        }
+
+        assertEquals(2, saves.get());
+    }
+
+    @Test
+    public void testSequentialCallersEachSave() {
+        SaveCoalescer coalescer = new SaveCoalescer();
+        AtomicInteger saves = new AtomicInteger();
+
+        assertTrue(coalescer.save(saves::incrementAndGet));
+        assertTrue(coalescer.save(saves::incrementAndGet));
+
+        assertEquals(2, saves.get());
+    }
+}
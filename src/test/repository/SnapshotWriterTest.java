@@ -0,0 +1,59 @@
+package test.repository;
+
+import doa_jewelry.repository.SnapshotWriter;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SnapshotWriterTest {
+
+    @Test
+    public void testReplacesFileAndLeavesNoTempFile() throws IOException {
+        Path file = Files.createTempFile("snapshot", ".csv");
+        try {
+            Files.write(file, Arrays.asList("old"));
+            SnapshotWriter writer = new SnapshotWriter(file.toString());
+
+            writer.write(Arrays.asList(1, 2, 3), id -> id + ",row");
+
+            assertEquals(Arrays.asList("1,row", "2,row", "3,row"), Files.readAllLines(file));
+            assertFalse(Files.exists(Paths.get(file + ".tmp")));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testConcurrentWritesLeaveACompleteFile() throws Exception {
+        Path file = Files.createTempFile("snapshot", ".csv");
+        try {
+            SnapshotWriter writer = new SnapshotWriter(file.toString());
+            List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                threads.add(new Thread(() -> {
+                    try {
+                        writer.write(Arrays.asList(1, 2, 3), id -> id + ",row");
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                }));
+            }
+            threads.forEach(Thread::start);
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            assertEquals(3, Files.readAllLines(file).size());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package test.repository;
+
+import doa_jewelry.entity.*;
+import doa_jewelry.exception.InsufficientUnitsException;
+import doa_jewelry.repository.CustomerRepository;
+import doa_jewelry.repository.JewelryRepository;
+import doa_jewelry.repository.OrderRepository;
+import doa_jewelry.repository.PaymentRepository;
+import doa_jewelry.service.JewelryService;
+import doa_jewelry.service.OrderService;
+import doa_jewelry.service.PaymentService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class StockReservationStressTest {
+
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS_PER_THREAD = 200;
+    private static final int STOCK = 500;
+
+    // Yields between reading the stock and returning it, widening the window of a read-check-write race so
+    // that it shows up even on a single CPU
+    private static class YieldingRing extends Ring {
+        YieldingRing(String name, MaterialType material, double weight, double price, int stockQuantity,
+                     JewelryCategory category, double size) {
+            super(name, material, weight, price, stockQuantity, category, size);
+        }
+
+        @Override
+        public int getStockQuantity() {
+            int stockQuantity = super.getStockQuantity();
+            Thread.yield();
+            return stockQuantity;
+        }
+    }
+
+    private CustomerRepository customerRepository;
+    private JewelryRepository jewelryRepository;
+    private OrderRepository orderRepository;
+    private PaymentRepository paymentRepository;
+    private OrderService orderService;
+
+    @Before
+    public void setUp() {
+        customerRepository = new CustomerRepository();
+        jewelryRepository = new JewelryRepository();
+        orderRepository = new OrderRepository();
+        paymentRepository = new PaymentRepository();
+        customerRepository.deleteAll();
+        jewelryRepository.deleteAll();
+        orderRepository.deleteAll();
+        paymentRepository.deleteAll();
+
+        PaymentService paymentService = new PaymentService(paymentRepository, orderRepository);
+        JewelryService jewelryService = new JewelryService(jewelryRepository, orderRepository);
+        orderService = new OrderService(orderRepository, paymentService, customerRepository, jewelryService);
+    }
+
+    @After
+    public void tearDown() {
+        paymentRepository.deleteAll();
+        orderRepository.deleteAll();
+        jewelryRepository.deleteAll();
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    public void testConcurrentOrdersNeverOversell() throws Exception {
+        Customer customer = customerRepository.save(
+                new Customer("John Doe", "123456789", "john@example.com", "912345678", "Porto"));
+        Jewelry contended = jewelryRepository.save(new YieldingRing("Diamond Ring", MaterialType.DIAMOND, 5.0, 1500.0,
+                STOCK, JewelryCategory.LUXURY, 6.5));
+        Jewelry other = jewelryRepository.save(
+                new Earring("Silver Earring", MaterialType.SILVER, 10.0, 200.0, STOCK, JewelryCategory.CASUAL, "Hook"));
+
+        AtomicInteger contendedSold = new AtomicInteger();
+        AtomicInteger otherSold = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int attempt = 0; attempt < ATTEMPTS_PER_THREAD; attempt++) {
+                    int quantity = 1 + (thread + attempt) % 3;
+                    // Every other order also takes one unit of a second item, so failed orders must give it back
+                    boolean twoItems = attempt % 2 == 0;
+                    List<Order.Item> items = new ArrayList<>();
+                    items.add(new Order.Item(contended.getId(), quantity));
+                    if (twoItems) {
+                        items.add(new Order.Item(other.getId(), 1));
+                    }
+                    Order order = new Order(null, customer.getId(), LocalDate.now(), items, 0.0, OrderStatus.PENDING);
+                    try {
+                        orderService.createOrder(order);
+                        contendedSold.addAndGet(quantity);
+                        if (twoItems) {
+                            otherSold.incrementAndGet();
+                        }
+                    } catch (InsufficientUnitsException e) {
+                        // Expected once the contended item sells out
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(2, TimeUnit.MINUTES));
+        for (Future<?> future : futures) {
+            future.get();
+        }
+
+        int contendedStock = jewelryRepository.findById(contended.getId()).get().getStockQuantity();
+        int otherStock = jewelryRepository.findById(other.getId()).get().getStockQuantity();
+        assertTrue(contendedStock >= 0);
+        assertTrue(contendedStock < 3); // Demand far exceeds stock, so only a remainder too small to order is left
+        assertEquals(STOCK, contendedSold.get() + contendedStock);
+        assertEquals(STOCK, otherSold.get() + otherStock);
+
+        int orderedUnits = 0;
+        for (Order order : orderRepository.findAll()) {
+            orderedUnits += order.getItems().get(0).getQuantity();
+        }
+        assertEquals(contendedSold.get(), orderedUnits);
+    }
+}
@@ -0,0 +1,36 @@
+package test.repository;
+
+import doa_jewelry.exception.RepositoryException;
+import doa_jewelry.repository.WriteAheadLog;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class WriteAheadLogTest {
+
+    @Test
+    public void testTornRecordIsCutOffBeforeNextAppend() throws IOException, RepositoryException {
+        Path file = Files.createTempFile("log", ".wal");
+        try {
+            Files.write(file, "U,1,first\nU,2,sec".getBytes(StandardCharsets.UTF_8));
+            List<String> upserts = new ArrayList<>();
+
+            WriteAheadLog log = new WriteAheadLog(file.toString());
+            log.replay(upserts::add, id -> fail("unexpected delete"));
+            log.appendUpsert("3,third");
+
+            assertEquals(Arrays.asList("1,first"), upserts);
+            assertEquals(Arrays.asList("U,1,first", "U,3,third"), Files.readAllLines(file));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}